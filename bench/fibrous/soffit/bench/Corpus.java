@@ -0,0 +1,169 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit.bench;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import fibrous.soffit.SoffitField;
+import fibrous.soffit.SoffitObject;
+import fibrous.soffit.SoffitUtil;
+
+/**
+ * The generated documents that every benchmark runs against.
+ * Each one is built from a fixed seed, so every run (and every version of JSoffit) sees exactly the same data.
+ */
+enum Corpus {
+	
+	/**
+	 * A root with thousands of fields and objects side by side, like a large lookup table.
+	 */
+	WIDE("2000 root fields and 5000 objects of 10 types, with 4 fields each") {
+		@Override
+		SoffitObject build(Random random) {
+			SoffitObject root = new SoffitObject(null, null);
+			for(int i = 0; i < 2000; i++)
+				root.add(new SoffitField("field" + i, "value" + random.nextInt(100000)));
+			
+			for(int i = 0; i < 5000; i++) {
+				SoffitObject item = new SoffitObject("Type" + (i % 10), "item" + i);
+				item.add(new SoffitField("Id", String.valueOf(i)));
+				item.add(new SoffitField("Label", "Item number " + i));
+				item.add(new SoffitField("Price", String.valueOf(random.nextInt(10000) / 100.0)));
+				item.add(new SoffitField("InStock", String.valueOf(random.nextBoolean())));
+				root.add(item);
+			}
+			return root;
+		}
+	},
+	
+	/**
+	 * A few long chains of nested objects, which stress indentation and the open object stack.
+	 */
+	DEEP("4 chains of 500 nested objects, with 2 fields each") {
+		@Override
+		SoffitObject build(Random random) {
+			SoffitObject root = new SoffitObject(null, null);
+			for(int chain = 0; chain < 4; chain++) {
+				SoffitObject parent = root;
+				for(int depth = 0; depth < 500; depth++) {
+					SoffitObject child = new SoffitObject("Node", "node" + depth);
+					child.add(new SoffitField("Depth", String.valueOf(depth)));
+					child.add(new SoffitField("Weight", String.valueOf(random.nextInt(1000))));
+					parent.add(child);
+					parent = child;
+				}
+			}
+			return root;
+		}
+	},
+	
+	/**
+	 * Many small objects made up of short numeric fields, like a batch of telemetry samples.
+	 */
+	SMALL_FIELDS("20000 objects with 10 short numeric fields each") {
+		@Override
+		SoffitObject build(Random random) {
+			SoffitObject root = new SoffitObject(null, null);
+			for(int i = 0; i < 20000; i++) {
+				SoffitObject sample = new SoffitObject("Sample");
+				for(int f = 0; f < 10; f++)
+					sample.add(new SoffitField("v" + f, String.valueOf(random.nextInt(100000))));
+				root.add(sample);
+			}
+			return root;
+		}
+	},
+	
+	/**
+	 * Long values full of characters that have to be escaped, plus some that aren't ASCII.
+	 */
+	ESCAPED("1000 fields with 2KB values full of quotes, newlines, backslashes, and non-ASCII text") {
+		@Override
+		SoffitObject build(Random random) {
+			String[] pieces = {"plain text ", "\"quoted\" ", "line\n", "C:\\path\\to\\file ", "caf\u00e9 ", "\u65e5\u672c\u8a9e ", "\ud83d\ude00 "};
+			
+			SoffitObject root = new SoffitObject(null, null);
+			SoffitObject notes = new SoffitObject("Notes", "All \"notes\"");
+			for(int i = 0; i < 1000; i++) {
+				StringBuilder value = new StringBuilder();
+				while(value.length() < 2048)
+					value.append(pieces[random.nextInt(pieces.length)]);
+				notes.add(new SoffitField("Note", value.toString()));
+			}
+			root.add(notes);
+			return root;
+		}
+	};
+	
+	private static final long SEED = 0x50FF17L;
+	
+	final String description;
+	
+	private SoffitObject tree;
+	private byte[] bytes;
+	
+	Corpus(String description) {
+		this.description = description;
+	}
+	
+	abstract SoffitObject build(Random random);
+	
+	/**
+	 * Returns the document as a tree.
+	 * The tree is shared between benchmarks, so it must not be modified.
+	 * @return
+	 */
+	SoffitObject tree() {
+		if(tree == null)
+			tree = build(new Random(SEED));
+		return tree;
+	}
+	
+	/**
+	 * Returns the document as a SOFFIT stream.
+	 * @return
+	 */
+	byte[] bytes() {
+		if(bytes == null)
+			bytes = SoffitUtil.WriteStreamToString(tree()).getBytes(StandardCharsets.UTF_8);
+		return bytes;
+	}
+	
+	/**
+	 * Returns the document as a SOFFIT stream in a String.
+	 * @return
+	 */
+	String text() {
+		return new String(bytes(), StandardCharsets.UTF_8);
+	}
+}
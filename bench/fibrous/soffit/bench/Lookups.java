@@ -0,0 +1,139 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import fibrous.soffit.SoffitObject;
+import fibrous.soffit.bench.SoffitBenchmark.Benchmark;
+
+/**
+ * Benchmarks for the SoffitObject lookup methods.
+ * Each operation performs {@value #LOOKUPS} lookups, spread out over the whole object so the same child isn't always found first.
+ */
+final class Lookups {
+	
+	static final int LOOKUPS = 1000;
+	
+	private Lookups() {
+	}
+	
+	/**
+	 * Builds the lookup benchmarks against a tree built by {@link Corpus#WIDE}.
+	 * @param root
+	 * @return
+	 */
+	static List<Benchmark> benchmarks(SoffitObject root) {
+		String[] fieldNames = new String[LOOKUPS];
+		String[] objectNames = new String[LOOKUPS];
+		String[] objectTypes = new String[LOOKUPS];
+		for(int i = 0; i < LOOKUPS; i++) {
+			//Step through the children with a stride that doesn't divide evenly into either count.
+			int field = (int) ((i * 7919L) % 2000);
+			int object = (int) ((i * 7919L) % 5000);
+			fieldNames[i] = "field" + field;
+			objectNames[i] = "item" + object;
+			objectTypes[i] = "Type" + (object % 10);
+		}
+		
+		List<Benchmark> benchmarks = new ArrayList<>();
+		
+		benchmarks.add(new Benchmark("Lookup.getField", 0, () -> {
+			long found = 0;
+			for(int i = 0; i < LOOKUPS; i++)
+				found += root.getField(fieldNames[i]).getValue().length();
+			return found;
+		}));
+		
+		benchmarks.add(new Benchmark("Lookup.hasField", 0, () -> {
+			long found = 0;
+			for(int i = 0; i < LOOKUPS; i++) {
+				if(root.hasField(fieldNames[i]))
+					found++;
+			}
+			return found;
+		}));
+		
+		benchmarks.add(new Benchmark("Lookup.getFieldsByName", 0, () -> {
+			long found = 0;
+			for(int i = 0; i < LOOKUPS; i++)
+				found += root.getFieldsByName(fieldNames[i]).size();
+			return found;
+		}));
+		
+		benchmarks.add(new Benchmark("Lookup.getObject", 0, () -> {
+			long found = 0;
+			for(int i = 0; i < LOOKUPS; i++)
+				found += root.getObject(objectNames[i]).getName().length();
+			return found;
+		}));
+		
+		benchmarks.add(new Benchmark("Lookup.getObjectsByName", 0, () -> {
+			long found = 0;
+			for(int i = 0; i < LOOKUPS; i++)
+				found += root.getObjectsByName(objectNames[i]).size();
+			return found;
+		}));
+		
+		benchmarks.add(new Benchmark("Lookup.getObjectByTypeAndName", 0, () -> {
+			long found = 0;
+			for(int i = 0; i < LOOKUPS; i++)
+				found += root.getObjectByTypeAndName(objectTypes[i], objectNames[i]).getName().length();
+			return found;
+		}));
+		
+		//Each type matches 500 objects, so these mostly measure building (or not building) the result list.
+		benchmarks.add(new Benchmark("Lookup.getObjectsByType", 0, () -> {
+			long found = 0;
+			for(int i = 0; i < LOOKUPS; i++)
+				found += root.getObjectsByType(objectTypes[i]).size();
+			return found;
+		}));
+		
+		benchmarks.add(new Benchmark("Lookup.viewObjectsByType", 0, () -> {
+			long found = 0;
+			for(int i = 0; i < LOOKUPS; i++)
+				found += root.viewObjectsByType(objectTypes[i]).size();
+			return found;
+		}));
+		
+		benchmarks.add(new Benchmark("Lookup.getLong", 0, () -> {
+			long found = 0;
+			for(int i = 0; i < LOOKUPS; i++)
+				found += root.getObject(objectNames[i]).getLong("Id", -1);
+			return found;
+		}));
+		
+		return benchmarks;
+	}
+}
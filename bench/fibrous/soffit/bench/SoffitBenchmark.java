@@ -0,0 +1,498 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit.bench;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import fibrous.soffit.SoffitObject;
+import fibrous.soffit.SoffitUtil;
+
+/**
+ * Measures the throughput and allocation of reading, writing, and looking things up in SOFFIT documents.
+ * Every benchmark is run against each {@link Corpus} the same way JMH runs one:
+ * in several forked JVMs, each of which runs a number of warmup iterations and then a number of measured iterations on one thread.
+ * The measured iterations from every fork are combined into a mean and its error, so one unlucky run or JIT decision doesn't decide the result.
+ * <p>
+ * This has no dependencies beyond the JDK, so it can be compiled right alongside the fibrous.soffit package:
+ * <pre>
+ * javac -d out src/fibrous/soffit/*.java bench/fibrous/soffit/bench/*.java
+ * java -cp out fibrous.soffit.bench.SoffitBenchmark [options] [filter]
+ * </pre>
+ * Options:
+ * <ul>
+ * <li>-f forks: how many JVMs each benchmark is run in (default 3).  0 runs every benchmark in this JVM, which is only useful for trying things out.</li>
+ * <li>-wi iterations: warmup iterations per fork (default 3)</li>
+ * <li>-i iterations: measured iterations per fork (default 5)</li>
+ * <li>-w seconds: time per warmup iteration (default 1)</li>
+ * <li>-m seconds: time per measured iteration (default 1)</li>
+ * <li>-save file: writes the results to a file</li>
+ * <li>-compare file: compares the results against a file written by -save, and exits with status 1 if any benchmark is slower by more than the tolerance</li>
+ * <li>-tolerance percent: how much slower a benchmark may be before -compare fails (default 10)</li>
+ * </ul>
+ * Only benchmarks whose names contain the filter are run (e.g., "ReadStream" or "DEEP").
+ * Throughput is reported along with its error, which is {@value #ERROR_DEVIATIONS} standard errors of the mean across every measured iteration.
+ * A benchmark only counts as a regression when it is slower than the tolerance allows, and the difference is larger than the error of the two results combined,
+ * so noise between runs isn't reported as a regression.
+ * Allocation is measured per thread, and is reported as bytes per operation and MB/s, the same figures JMH reports with -prof gc.
+ */
+public class SoffitBenchmark {
+	
+	//Results are handed to this so the JIT can't throw the work away.
+	static volatile long sink;
+	
+	//How many standard errors the reported error covers.  3 covers about 99.7% of runs, close to the 99.9% interval JMH reports.
+	static final double ERROR_DEVIATIONS = 3;
+	
+	//Each measured iteration is printed by a fork as a line starting with this.
+	private static final String ITERATION = "ITERATION";
+	
+	/**
+	 * A single benchmarked operation.
+	 * The returned value is only used to keep the JIT from removing the work.
+	 */
+	interface Operation {
+		long run() throws IOException;
+	}
+	
+	static final class Benchmark {
+		final String name;
+		//The size of the stream each operation reads or writes, or 0 if it doesn't
+		final long bytesPerOp;
+		final Operation operation;
+		
+		Benchmark(String name, long bytesPerOp, Operation operation) {
+			this.name = name;
+			this.bytesPerOp = bytesPerOp;
+			this.operation = operation;
+		}
+	}
+	
+	/**
+	 * The figures from one measured iteration.
+	 */
+	private static final class Iteration {
+		final double opsPerSecond;
+		final double bytesAllocatedPerOp;
+		final double allocatedMbPerSecond;
+		
+		Iteration(double opsPerSecond, double bytesAllocatedPerOp, double allocatedMbPerSecond) {
+			this.opsPerSecond = opsPerSecond;
+			this.bytesAllocatedPerOp = bytesAllocatedPerOp;
+			this.allocatedMbPerSecond = allocatedMbPerSecond;
+		}
+	}
+	
+	/**
+	 * The combined figures from every measured iteration of a benchmark.
+	 */
+	private static final class Result {
+		final double opsPerSecond;
+		//Standard deviation of opsPerSecond between iterations
+		final double deviation;
+		final int iterations;
+		final double bytesAllocatedPerOp;
+		final double allocatedMbPerSecond;
+		
+		Result(double opsPerSecond, double deviation, int iterations, double bytesAllocatedPerOp, double allocatedMbPerSecond) {
+			this.opsPerSecond = opsPerSecond;
+			this.deviation = deviation;
+			this.iterations = iterations;
+			this.bytesAllocatedPerOp = bytesAllocatedPerOp;
+			this.allocatedMbPerSecond = allocatedMbPerSecond;
+		}
+		
+		static Result of(List<Iteration> iterations) {
+			int n = iterations.size();
+			double ops = 0;
+			double allocated = 0;
+			double allocatedMb = 0;
+			for(Iteration iteration : iterations) {
+				ops += iteration.opsPerSecond;
+				allocated += iteration.bytesAllocatedPerOp;
+				allocatedMb += iteration.allocatedMbPerSecond;
+			}
+			ops /= n;
+			
+			double squares = 0;
+			for(Iteration iteration : iterations)
+				squares += (iteration.opsPerSecond - ops) * (iteration.opsPerSecond - ops);
+			double deviation = n > 1 ? Math.sqrt(squares / (n - 1)) : 0;
+			
+			return new Result(ops, deviation, n, allocated / n, allocatedMb / n);
+		}
+		
+		/**
+		 * Returns the standard error of opsPerSecond.
+		 * @return
+		 */
+		double standardError() {
+			return deviation / Math.sqrt(iterations);
+		}
+	}
+	
+	/**
+	 * How long and how many times each benchmark is run.
+	 */
+	private static final class Settings {
+		int forks = 3;
+		int warmupIterations = 3;
+		int iterations = 5;
+		double warmupSeconds = 1;
+		double measureSeconds = 1;
+		
+		/**
+		 * Returns the arguments that pass these settings on to a fork.
+		 * @return
+		 */
+		List<String> arguments() {
+			List<String> arguments = new ArrayList<>();
+			arguments.add("-wi");
+			arguments.add(Integer.toString(warmupIterations));
+			arguments.add("-i");
+			arguments.add(Integer.toString(iterations));
+			arguments.add("-w");
+			arguments.add(Double.toString(warmupSeconds));
+			arguments.add("-m");
+			arguments.add(Double.toString(measureSeconds));
+			return arguments;
+		}
+	}
+	
+	public static void main(String[] args) throws IOException, InterruptedException {
+		Settings settings = new Settings();
+		double tolerance = 10;
+		Path save = null;
+		Path compare = null;
+		//Set when this JVM is a fork, which only runs the one benchmark
+		String fork = null;
+		String filter = "";
+		
+		for(int i = 0; i < args.length; i++) {
+			switch(args[i]) {
+			case "-f":
+				settings.forks = Integer.parseInt(args[++i]);
+				break;
+			case "-wi":
+				settings.warmupIterations = Integer.parseInt(args[++i]);
+				break;
+			case "-i":
+				settings.iterations = Integer.parseInt(args[++i]);
+				break;
+			case "-w":
+				settings.warmupSeconds = Double.parseDouble(args[++i]);
+				break;
+			case "-m":
+				settings.measureSeconds = Double.parseDouble(args[++i]);
+				break;
+			case "-save":
+				save = Paths.get(args[++i]);
+				break;
+			case "-compare":
+				compare = Paths.get(args[++i]);
+				break;
+			case "-tolerance":
+				tolerance = Double.parseDouble(args[++i]);
+				break;
+			case "-fork":
+				fork = args[++i];
+				break;
+			default:
+				filter = args[i];
+			}
+		}
+		
+		if(settings.iterations < 1)
+			throw new IllegalArgumentException("At least one measured iteration is needed");
+		
+		if(fork != null) {
+			runFork(fork, settings);
+			return;
+		}
+		
+		for(Corpus corpus : Corpus.values())
+			System.out.printf(Locale.ROOT, "%-12s %8.2f MB  %s%n", corpus, corpus.bytes().length / 1e6, corpus.description);
+		System.out.println();
+		System.out.printf(Locale.ROOT, "%d fork(s), %d warmup and %d measured iteration(s) of %.1fs and %.1fs%n%n",
+				settings.forks, settings.warmupIterations, settings.iterations, settings.warmupSeconds, settings.measureSeconds);
+		System.out.printf(Locale.ROOT, "%-40s %12s %11s %10s %14s %12s%n", "Benchmark", "ops/s", "error", "MB/s", "alloc B/op", "alloc MB/s");
+		
+		Map<String, Result> results = new LinkedHashMap<>();
+		for(Benchmark benchmark : benchmarks(null)) {
+			if(!benchmark.name.contains(filter))
+				continue;
+			
+			List<Iteration> iterations = new ArrayList<>();
+			if(settings.forks == 0) {
+				iterations.addAll(run(benchmark, settings));
+			} else {
+				for(int i = 0; i < settings.forks; i++)
+					iterations.addAll(fork(benchmark.name, settings));
+			}
+			Result result = Result.of(iterations);
+			results.put(benchmark.name, result);
+			
+			System.out.printf(Locale.ROOT, "%-40s %12.1f %11s %10s %14.0f %12.1f%n", benchmark.name, result.opsPerSecond,
+					String.format(Locale.ROOT, "+-%.1f", result.standardError() * ERROR_DEVIATIONS),
+					benchmark.bytesPerOp > 0 ? String.format(Locale.ROOT, "%.1f", result.opsPerSecond * benchmark.bytesPerOp / 1e6) : "-",
+					result.bytesAllocatedPerOp, result.allocatedMbPerSecond);
+		}
+		
+		if(save != null) {
+			List<String> lines = new ArrayList<>();
+			for(Map.Entry<String, Result> entry : results.entrySet()) {
+				Result result = entry.getValue();
+				lines.add(entry.getKey() + " " + result.opsPerSecond + " " + result.deviation + " " + result.iterations);
+			}
+			Files.write(save, lines, StandardCharsets.UTF_8);
+		}
+		
+		if(compare != null && !compare(results, compare, tolerance))
+			System.exit(1);
+	}
+	
+	/**
+	 * Builds every benchmark for every corpus.
+	 * If only is not null, only the corpus that the benchmark with that name needs is generated.
+	 * @param only
+	 * @return
+	 */
+	private static List<Benchmark> benchmarks(String only) {
+		List<Benchmark> benchmarks = new ArrayList<>();
+		
+		for(Corpus corpus : Corpus.values()) {
+			if(only != null && !only.endsWith("." + corpus))
+				continue;
+			
+			SoffitObject tree = corpus.tree();
+			byte[] bytes = corpus.bytes();
+			String text = corpus.text();
+			
+			benchmarks.add(new Benchmark("ReadStream." + corpus, bytes.length,
+					() -> SoffitUtil.ReadStream(new ByteArrayInputStream(bytes)).getAllObjects().size()));
+			
+			benchmarks.add(new Benchmark("ReadStreamFromString." + corpus, bytes.length,
+					() -> SoffitUtil.ReadStreamFromString(text).getAllObjects().size()));
+			
+			benchmarks.add(new Benchmark("WriteStream." + corpus, bytes.length, () -> {
+				ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length);
+				SoffitUtil.WriteStream(tree, output);
+				return output.size();
+			}));
+			
+			benchmarks.add(new Benchmark("WriteStreamToString." + corpus, bytes.length,
+					() -> SoffitUtil.WriteStreamToString(tree).length()));
+		}
+		
+		if(only == null || only.startsWith("Lookup."))
+			benchmarks.addAll(Lookups.benchmarks(Corpus.WIDE.tree()));
+		return benchmarks;
+	}
+	
+	/**
+	 * Runs one benchmark in a new JVM with the same class path, and returns its measured iterations.
+	 * @param name
+	 * @param settings
+	 * @return
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	private static List<Iteration> fork(String name, Settings settings) throws IOException, InterruptedException {
+		List<String> command = new ArrayList<>();
+		command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(SoffitBenchmark.class.getName());
+		command.addAll(settings.arguments());
+		command.add("-fork");
+		command.add(name);
+		
+		Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+		
+		List<Iteration> iterations = new ArrayList<>();
+		try(BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+			String line;
+			while((line = output.readLine()) != null) {
+				String[] parts = line.split(" ");
+				if(parts.length == 4 && parts[0].equals(ITERATION))
+					iterations.add(new Iteration(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]), Double.parseDouble(parts[3])));
+			}
+		}
+		
+		int status = process.waitFor();
+		if(status != 0 || iterations.size() != settings.iterations)
+			throw new IOException("The fork running " + name + " failed with exit status " + status);
+		return iterations;
+	}
+	
+	/**
+	 * Runs a single benchmark as a fork, and prints each of its measured iterations for the JVM that started it.
+	 * @param name
+	 * @param settings
+	 * @throws IOException
+	 */
+	private static void runFork(String name, Settings settings) throws IOException {
+		for(Benchmark benchmark : benchmarks(name)) {
+			if(!benchmark.name.equals(name))
+				continue;
+			
+			for(Iteration iteration : run(benchmark, settings)) {
+				System.out.println(ITERATION + " " + iteration.opsPerSecond + " " + iteration.bytesAllocatedPerOp + " " + iteration.allocatedMbPerSecond);
+			}
+			return;
+		}
+		
+		throw new IllegalArgumentException("No benchmark named " + name);
+	}
+	
+	/**
+	 * Runs the warmup iterations of a benchmark, and then returns its measured iterations.
+	 * @param benchmark
+	 * @param settings
+	 * @return
+	 * @throws IOException
+	 */
+	private static List<Iteration> run(Benchmark benchmark, Settings settings) throws IOException {
+		for(int i = 0; i < settings.warmupIterations; i++)
+			measure(benchmark, settings.warmupSeconds);
+		
+		List<Iteration> iterations = new ArrayList<>();
+		for(int i = 0; i < settings.iterations; i++)
+			iterations.add(measure(benchmark, settings.measureSeconds));
+		return iterations;
+	}
+	
+	/**
+	 * Runs a benchmark repeatedly for the given amount of time.
+	 * @param benchmark
+	 * @param seconds
+	 * @return
+	 * @throws IOException
+	 */
+	private static Iteration measure(Benchmark benchmark, double seconds) throws IOException {
+		long duration = (long) (seconds * 1e9);
+		long ops = 0;
+		long result = 0;
+		
+		long allocatedBefore = allocatedBytes();
+		long start = System.nanoTime();
+		long elapsed;
+		do {
+			result += benchmark.operation.run();
+			ops++;
+			elapsed = System.nanoTime() - start;
+		} while(elapsed < duration);
+		long allocated = allocatedBytes() - allocatedBefore;
+		
+		sink += result;
+		
+		double elapsedSeconds = elapsed / 1e9;
+		return new Iteration(ops / elapsedSeconds,
+				allocated < 0 ? Double.NaN : (double) allocated / ops,
+				allocated < 0 ? Double.NaN : allocated / elapsedSeconds / 1e6);
+	}
+	
+	/**
+	 * Returns the number of bytes the current thread has allocated so far, or -1 if the JVM can't tell.
+	 * @return
+	 */
+	private static long allocatedBytes() {
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if(threads instanceof com.sun.management.ThreadMXBean)
+			return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+		return -1;
+	}
+	
+	/**
+	 * Prints how each result compares to a saved baseline.
+	 * Returns false if any benchmark is slower than the baseline by more than tolerance percent, by more than the error of the two results combined.
+	 * A baseline saved with only a mean, by an older version of this harness, is treated as having no error of its own.
+	 * @param results
+	 * @param baselineFile
+	 * @param tolerance
+	 * @return
+	 * @throws IOException
+	 */
+	private static boolean compare(Map<String, Result> results, Path baselineFile, double tolerance) throws IOException {
+		Map<String, Result> baselines = new HashMap<>();
+		for(String line : Files.readAllLines(baselineFile, StandardCharsets.UTF_8)) {
+			String[] parts = line.trim().split(" ");
+			if(parts.length == 2)
+				baselines.put(parts[0], new Result(Double.parseDouble(parts[1]), 0, 1, Double.NaN, Double.NaN));
+			else if(parts.length == 4)
+				baselines.put(parts[0], new Result(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]), Integer.parseInt(parts[3]), Double.NaN, Double.NaN));
+		}
+		
+		boolean passed = true;
+		
+		System.out.println();
+		System.out.printf(Locale.ROOT, "%-40s %12s %12s %8s %8s%n", "Benchmark", "baseline", "ops/s", "change", "error");
+		for(Map.Entry<String, Result> entry : results.entrySet()) {
+			Result baseline = baselines.get(entry.getKey());
+			if(baseline == null)
+				continue;
+			
+			Result current = entry.getValue();
+			double change = (current.opsPerSecond - baseline.opsPerSecond) / baseline.opsPerSecond * 100;
+			//The error of the difference between two independent means
+			double error = ERROR_DEVIATIONS * Math.hypot(baseline.standardError(), current.standardError()) / baseline.opsPerSecond * 100;
+			
+			String verdict = "";
+			if(change < -tolerance) {
+				if(-change > error) {
+					verdict = "  REGRESSION";
+					passed = false;
+				} else {
+					verdict = "  within error";
+				}
+			}
+			
+			System.out.printf(Locale.ROOT, "%-40s %12.1f %12.1f %+7.1f%% %7.1f%%%s%n", entry.getKey(), baseline.opsPerSecond, current.opsPerSecond, change, error, verdict);
+		}
+		
+		return passed;
+	}
+}
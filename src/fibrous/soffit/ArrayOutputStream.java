@@ -0,0 +1,170 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * This class is essentially a ByteArrayOutputStream with some specific features that help in the SoffitUtil class.
+ * The internal byte array grows as needed, up to a maximum size, and a descriptive exception is thrown if a line would take more than that.
+ * The array may be borrowed from a {@link SoffitBufferPool}, in which case release() hands it back.
+ */
+class ArrayOutputStream extends OutputStream {
+	//Size of the array borrowed from a pool
+	static final int INITIAL_SIZE = 8192;
+	
+	byte[] buffer;
+	int pos = 0;
+	int mark = 0;
+	
+	private final int maxSize;
+	private final SoffitBufferPool pool;
+	
+	public ArrayOutputStream(int bufferSize) {
+		buffer = new byte[bufferSize];
+		maxSize = bufferSize;
+		pool = null;
+	}
+	
+	/**
+	 * Constructs an ArrayOutputStream that starts at initialSize, and grows up to maxSize.
+	 * @param initialSize
+	 * @param maxSize
+	 */
+	ArrayOutputStream(int initialSize, int maxSize) {
+		buffer = new byte[initialSize];
+		this.maxSize = maxSize;
+		pool = null;
+	}
+	
+	/**
+	 * Constructs an ArrayOutputStream that borrows its array from a pool, and grows it up to maxSize.
+	 * @param pool
+	 * @param maxSize
+	 */
+	ArrayOutputStream(SoffitBufferPool pool, int maxSize) {
+		this.pool = pool;
+		this.maxSize = maxSize;
+		buffer = pool.acquire(Math.min(INITIAL_SIZE, maxSize));
+	}
+
+	@Override
+	public void write(int b) {
+		if(pos == buffer.length)
+			grow(1);
+		
+		buffer[pos++] = (byte) b;
+	}
+	
+	@Override
+	public void write(byte[] b) {
+		write(b, 0, b.length);
+	}
+	
+	@Override
+	public void write(byte[] b, int off, int len) {
+		if(len > buffer.length - pos)
+			grow(len);
+		
+		System.arraycopy(b, off, buffer, pos, len);
+		pos += len;
+	}
+	
+	/**
+	 * Makes sure there is room for at least count more bytes, growing the buffer if needed.
+	 * @param count
+	 */
+	void ensureCapacity(int count) {
+		if(count > buffer.length - pos)
+			grow(count);
+	}
+	
+	/**
+	 * Makes room for at least count more bytes.
+	 * Throws a {@link SoffitException} if that would exceed the maximum size.
+	 * @param count
+	 */
+	private void grow(int count) {
+		long needed = (long) pos + count;
+		if(needed > maxSize)
+			throw new SoffitException("SOFFIT line buffer with " + maxSize + " byte capacity was overfilled");
+		
+		int size = (int) Math.min(maxSize, Math.max(needed, (long) buffer.length * 2));
+		byte[] grown = new byte[size];
+		System.arraycopy(buffer, 0, grown, 0, pos);
+		buffer = grown;
+	}
+	
+	/**
+	 * Hands the array back to the pool it was borrowed from, if any.
+	 * This stream must not be used afterwards.
+	 */
+	void release() {
+		if(pool != null && buffer != null)
+			pool.release(buffer);
+		buffer = null;
+	}
+	
+	public void reset() {
+		pos = 0;
+		mark = 0;
+	}
+	
+	public void resetMark() {
+		mark = 0;
+	}
+	
+	public void mark() {
+		mark = pos;
+	}
+	
+	public void goToMark() {
+		pos = mark;
+	}
+	
+	public void pipeToOutputStream(OutputStream os) throws IOException {
+		os.write(buffer, 0, pos);
+	}
+	
+	public byte[] getWrittenBytes() {
+		byte[] copy = new byte[pos];
+		System.arraycopy(buffer, 0, copy, 0, pos);
+		return copy;
+	}
+	
+	public byte[] getWrittenBytesFromMark() {
+		byte[] copy = new byte[pos - mark];
+		System.arraycopy(buffer, mark, copy, 0, copy.length);
+		return copy;
+	}
+}
@@ -0,0 +1,171 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Decodes the binary SOFFIT encoding written by {@link BinaryWriter} in a single pass, passing everything straight to a {@link SoffitHandler}.
+ * Bytes are read straight out of a {@link SoffitInputStream}'s buffer, so nothing past the end of the document is consumed.
+ */
+class BinaryReader {
+	private final SoffitInputStream in;
+	private final SoffitSymbolTable symbols;
+	private final int maxStringLength;
+	//Every symbol read so far, in the order they were numbered
+	private final ArrayList<String> table = new ArrayList<>();
+	
+	BinaryReader(SoffitInputStream in, SoffitReadOptions options) {
+		this.in = in;
+		symbols = options.symbols();
+		maxStringLength = options.getMaxLineLength();
+	}
+	
+	/**
+	 * Checks for the header, and then decodes the rest of the document.
+	 * @param handler
+	 * @throws SoffitException
+	 * @throws IOException
+	 */
+	void read(SoffitHandler handler) throws SoffitException, IOException {
+		byte[] header = BinaryWriter.HEADER;
+		require(header.length, "SOFFIT binary header not found.");
+		for(int i = 0; i < header.length; i++) {
+			if(in.buffer[in.pos + i] != header[i])
+				throw new SoffitException("SOFFIT binary header not found.");
+		}
+		in.pos += header.length;
+		
+		//Number of objects currently open
+		int depth = 0;
+		
+		while(true) {
+			int tag = readByte();
+			switch(tag) {
+			case BinaryWriter.FIELD:
+				handler.field(readSymbol(), readString());
+				break;
+			case BinaryWriter.LONG_FIELD:
+				String name = readSymbol();
+				long zigzag = readVarint();
+				handler.field(name, (zigzag >>> 1) ^ -(zigzag & 1));
+				break;
+			case BinaryWriter.OBJECT:
+				handler.startObject(readSymbol(), null);
+				depth++;
+				break;
+			case BinaryWriter.NAMED_OBJECT:
+				String type = readSymbol();
+				handler.startObject(type, readString());
+				depth++;
+				break;
+			case BinaryWriter.END_OBJECT:
+				if(depth == 0)
+					throw new SoffitException("SOFFIT stream contained too many closing brackets.");
+				handler.endObject();
+				depth--;
+				break;
+			case BinaryWriter.END_DOCUMENT:
+				if(depth > 0)
+					throw new SoffitException("SOFFIT footer encountered in non-root object.");
+				handler.endDocument();
+				return;
+			default:
+				throw new SoffitException("Unknown record " + tag + " in SOFFIT binary stream.");
+			}
+		}
+	}
+	
+	private String readSymbol() throws IOException {
+		long number = readVarint();
+		if(number == 0) {
+			int length = readLength();
+			String symbol = symbols.intern(in.buffer, in.pos, length);
+			in.pos += length;
+			table.add(symbol);
+			return symbol;
+		}
+		
+		//Varints are unsigned, so a number with the top bit set is far too large rather than negative.
+		if(Long.compareUnsigned(number, table.size()) > 0)
+			throw new SoffitException("SOFFIT binary stream refers to symbol " + Long.toUnsignedString(number - 1) + " before it was defined.");
+		return table.get((int) (number - 1));
+	}
+	
+	private String readString() throws IOException {
+		int length = readLength();
+		String s = LineTokenizer.decode(in.buffer, in.pos, length);
+		in.pos += length;
+		return s;
+	}
+	
+	/**
+	 * Reads the length of a string, and makes sure that many bytes are buffered.
+	 */
+	private int readLength() throws IOException {
+		long length = readVarint();
+		if(Long.compareUnsigned(length, maxStringLength) > 0)
+			throw new SoffitException("SOFFIT string of " + Long.toUnsignedString(length) + " bytes is longer than the " + maxStringLength + " byte maximum");
+		
+		require((int) length, "Incomplete SOFFIT stream.");
+		return (int) length;
+	}
+	
+	private long readVarint() throws IOException {
+		long value = 0;
+		for(int shift = 0; shift < 64; shift += 7) {
+			int b = readByte();
+			value |= (long) (b & 0x7F) << shift;
+			if((b & 0x80) == 0)
+				return value;
+		}
+		throw new SoffitException("Malformed varint in SOFFIT binary stream.");
+	}
+	
+	private int readByte() throws IOException {
+		if(in.pos == in.limit)
+			require(1, "Incomplete SOFFIT stream.");
+		return in.buffer[in.pos++] & 0xFF;
+	}
+	
+	/**
+	 * Makes sure at least count bytes are buffered.
+	 * Throws a {@link SoffitException} with the passed message if the stream ends first.
+	 */
+	private void require(int count, String message) throws IOException {
+		while(in.limit - in.pos < count) {
+			if(in.fill() == -1)
+				throw new SoffitException(message);
+		}
+	}
+}
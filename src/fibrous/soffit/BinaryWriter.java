@@ -0,0 +1,274 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+
+/**
+ * Writes the binary SOFFIT encoding, as a {@link SoffitHandler} so that it can be fed by either a tree or a text parser.
+ * <p>
+ * A binary stream starts with the bytes "SOFB" and a version byte, followed by one record for each object declaration, field, and closing bracket.
+ * Each record starts with a tag byte:
+ * <ul>
+ * <li>FIELD: a symbol for the name, then a string for the value.</li>
+ * <li>LONG_FIELD: a symbol for the name, then the value as a zigzag varint.</li>
+ * <li>OBJECT: a symbol for the type of an unnamed object.</li>
+ * <li>NAMED_OBJECT: a symbol for the type, then a string for the name.</li>
+ * <li>END_OBJECT: closes the current object.</li>
+ * <li>END_DOCUMENT: takes the place of the footer.</li>
+ * </ul>
+ * Lengths and numbers are unsigned LEB128 varints, and strings are a varint length followed by that many bytes of UTF-8.
+ * Field names and object types are symbols, which are numbered in the order they first appear in the document.
+ * A symbol is written as a varint of 0 followed by a string the first time, and as its number plus 1 after that.
+ * <p>
+ * Blank object names are written as unnamed objects, the same as the text encoding does, so that both encodings hold exactly the same data.
+ * I/O errors are thrown as {@link UncheckedIOException}s, since a SoffitHandler can't throw an IOException.
+ */
+class BinaryWriter implements SoffitHandler {
+	static final byte[] HEADER = {(byte) 'S', (byte) 'O', (byte) 'F', (byte) 'B', 1};
+	
+	//Record tags
+	static final int END_DOCUMENT = 0;
+	static final int FIELD = 1;
+	static final int LONG_FIELD = 2;
+	static final int OBJECT = 3;
+	static final int NAMED_OBJECT = 4;
+	static final int END_OBJECT = 5;
+	
+	private final OutputStream bStream;
+	private final ArrayOutputStream internalStream;
+	private final SoffitWriteOptions.FlushPolicy flushPolicy;
+	//The number given to each symbol written so far
+	private final HashMap<String, Integer> symbols = new HashMap<>();
+	
+	//Number of objects currently open
+	private int depth = 0;
+	private boolean started = false;
+	private boolean closed = false;
+	
+	BinaryWriter(OutputStream output, SoffitWriteOptions options) {
+		bStream = new BufferedOutputStream(output, options.getBufferSize());
+		flushPolicy = options.getFlushPolicy(output);
+		//This is an internal buffer that each record is put together in.  It grows up to the maximum line length, and is handed back to the pool by close() or release().
+		internalStream = new ArrayOutputStream(options.pool(), options.getMaxLineLength());
+	}
+	
+	@Override
+	public void startObject(String type, String name) {
+		boolean named = name != null && name.length() > 0;
+		
+		start();
+		internalStream.write(named ? NAMED_OBJECT : OBJECT);
+		writeSymbol(type);
+		if(named)
+			writeString(name);
+		depth++;
+		writeRecord();
+	}
+	
+	/**
+	 * Throws a {@link NullPointerException} if the value is null.
+	 */
+	@Override
+	public void field(String name, String value) {
+		//Check for null pointer assigned to the field's value.
+		if(value == null)
+			throw new NullPointerException("Value assigned to SOFFIT field \"" + name + "\" is a null pointer.");
+		
+		start();
+		internalStream.write(FIELD);
+		writeSymbol(name);
+		writeString(value);
+		writeRecord();
+	}
+	
+	@Override
+	public void field(String name, long value) {
+		start();
+		internalStream.write(LONG_FIELD);
+		writeSymbol(name);
+		writeVarint((value << 1) ^ (value >> 63));
+		writeRecord();
+	}
+	
+	/**
+	 * Throws a {@link SoffitException} if there is no open object.
+	 */
+	@Override
+	public void endObject() {
+		if(depth == 0)
+			throw new SoffitException("There is no open SOFFIT object to end.");
+		
+		start();
+		depth--;
+		internalStream.write(END_OBJECT);
+		writeRecord();
+	}
+	
+	/**
+	 * Writes the end of the document and flushes, the same as {@link #close()}.
+	 */
+	@Override
+	public void endDocument() {
+		try {
+			close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Writes the end of the document and flushes the output stream, regardless of the flush policy.
+	 * The output stream itself is left open.
+	 * Throws a {@link SoffitException} if any objects are still open.
+	 * @throws IOException
+	 */
+	void close() throws IOException {
+		if(closed)
+			return;
+		
+		if(depth > 0)
+			throw new SoffitException("SOFFIT stream closed with " + depth + " object(s) still open.");
+		
+		try {
+			start();
+			bStream.write(END_DOCUMENT);
+			bStream.flush();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		closed = true;
+		internalStream.release();
+	}
+	
+	/**
+	 * Hands the record buffer back to its {@link SoffitBufferPool} without finishing the document.
+	 * Used when writing fails partway through.  Does nothing if the writer was already closed.
+	 */
+	void release() {
+		closed = true;
+		internalStream.release();
+	}
+	
+	private void start() {
+		if(closed)
+			throw new SoffitException("The SOFFIT stream was already closed.");
+		
+		if(!started) {
+			internalStream.reset();
+			internalStream.write(HEADER);
+			started = true;
+			writeRecord();
+		}
+		internalStream.reset();
+	}
+	
+	/**
+	 * Writes the record held in internalStream, and flushes if the flush policy calls for it.
+	 */
+	private void writeRecord() {
+		try {
+			internalStream.pipeToOutputStream(bStream);
+			
+			switch(flushPolicy) {
+			case LINE:
+				bStream.flush();
+				break;
+			case TOP_LEVEL_OBJECT:
+				if(depth == 0)
+					bStream.flush();
+				break;
+			default:
+				break;
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private void writeSymbol(String symbol) {
+		Integer number = symbols.get(symbol);
+		if(number != null) {
+			writeVarint(number + 1L);
+			return;
+		}
+		
+		symbols.put(symbol, symbols.size());
+		internalStream.write(0);
+		writeString(symbol);
+	}
+	
+	/**
+	 * Writes a string as its length followed by its UTF-8 bytes.
+	 * The string is encoded first, and then moved over to make room for its length.
+	 */
+	private void writeString(String s) {
+		int start = internalStream.pos;
+		SoffitUtil.encode(s, false, internalStream);
+		int length = internalStream.pos - start;
+		
+		int lengthSize = varintSize(length);
+		internalStream.ensureCapacity(lengthSize);
+		byte[] b = internalStream.buffer;
+		System.arraycopy(b, start, b, start + lengthSize, length);
+		
+		internalStream.pos = start;
+		writeVarint(length);
+		internalStream.pos = start + lengthSize + length;
+	}
+	
+	private void writeVarint(long value) {
+		internalStream.ensureCapacity(10);
+		byte[] b = internalStream.buffer;
+		int pos = internalStream.pos;
+		
+		while((value & ~0x7FL) != 0) {
+			b[pos++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		b[pos++] = (byte) value;
+		internalStream.pos = pos;
+	}
+	
+	private static int varintSize(int value) {
+		int size = 1;
+		while((value & ~0x7F) != 0) {
+			value >>>= 7;
+			size++;
+		}
+		return size;
+	}
+}
@@ -0,0 +1,166 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Buffers output in direct ByteBuffers, and writes them to a {@link WritableByteChannel}.
+ * This takes the place of a BufferedOutputStream wrapped around {@link java.nio.channels.Channels#newOutputStream(WritableByteChannel)},
+ * which copies every write into a temporary buffer and takes a lock along the way.
+ * <p>
+ * Several buffers are filled before anything is written, and channels that implement {@link GatheringByteChannel} are handed all of them in a single write.
+ * The buffers are borrowed from a {@link SoffitBufferPool}, and are handed back by release().
+ */
+class ChannelOutputStream extends OutputStream {
+	//Number of buffers filled before they are written
+	static final int BUFFER_COUNT = 4;
+	
+	private final WritableByteChannel channel;
+	private final SoffitBufferPool pool;
+	private final int bufferSize;
+	private final ByteBuffer[] buffers = new ByteBuffer[BUFFER_COUNT];
+	//The buffer being filled.  Every buffer before it is full.
+	private int current = 0;
+	
+	/**
+	 * Constructs a ChannelOutputStream that writes to a channel, with buffers the size set by the options.
+	 * Throws an {@link IllegalBlockingModeException} if the channel is in non-blocking mode, the same as Channels.newOutputStream() does.
+	 * @param channel
+	 * @param options
+	 */
+	ChannelOutputStream(WritableByteChannel channel, SoffitWriteOptions options) {
+		if(channel instanceof SelectableChannel && !((SelectableChannel) channel).isBlocking())
+			throw new IllegalBlockingModeException();
+		
+		this.channel = channel;
+		pool = options.pool();
+		bufferSize = options.getBufferSize();
+		buffers[0] = pool.acquireDirect(bufferSize);
+	}
+	
+	@Override
+	public void write(int b) throws IOException {
+		if(!buffers[current].hasRemaining())
+			nextBuffer();
+		
+		buffers[current].put((byte) b);
+	}
+	
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		while(len > 0) {
+			ByteBuffer buffer = buffers[current];
+			if(!buffer.hasRemaining()) {
+				nextBuffer();
+				continue;
+			}
+			
+			int count = Math.min(len, buffer.remaining());
+			buffer.put(b, off, count);
+			off += count;
+			len -= count;
+		}
+	}
+	
+	/**
+	 * Writes everything that is buffered to the channel.
+	 * @throws IOException
+	 */
+	@Override
+	public void flush() throws IOException {
+		if(current > 0 || buffers[0].position() > 0)
+			drain();
+	}
+	
+	/**
+	 * Hands the buffers back to their pool.
+	 * Anything that wasn't flushed is lost, and nothing more can be written afterwards.
+	 */
+	void release() {
+		for(int i = 0; i < buffers.length; i++) {
+			if(buffers[i] != null) {
+				pool.releaseDirect(buffers[i]);
+				buffers[i] = null;
+			}
+		}
+	}
+	
+	/**
+	 * Moves on to the next buffer, or writes all of them once they are full.
+	 * @throws IOException
+	 */
+	private void nextBuffer() throws IOException {
+		if(current + 1 == buffers.length) {
+			drain();
+			return;
+		}
+		
+		current++;
+		if(buffers[current] == null)
+			buffers[current] = pool.acquireDirect(bufferSize);
+	}
+	
+	/**
+	 * Writes every buffer that was filled, and starts over with the first one.
+	 * @throws IOException
+	 */
+	private void drain() throws IOException {
+		int count = current + 1;
+		long remaining = 0;
+		for(int i = 0; i < count; i++) {
+			buffers[i].flip();
+			remaining += buffers[i].remaining();
+		}
+		
+		if(channel instanceof GatheringByteChannel) {
+			GatheringByteChannel gathering = (GatheringByteChannel) channel;
+			while(remaining > 0)
+				remaining -= gathering.write(buffers, 0, count);
+		} else {
+			for(int i = 0; i < count; i++) {
+				while(buffers[i].hasRemaining())
+					channel.write(buffers[i]);
+			}
+		}
+		
+		for(int i = 0; i < count; i++)
+			buffers[i].clear();
+		current = 0;
+	}
+}
@@ -0,0 +1,68 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit;
+
+import java.util.ArrayList;
+
+/**
+ * The ArrayList that SoffitObjects keep their objects and fields in.
+ * It keeps track of how many times it has been modified, so an index built from it can tell when it is out of date,
+ * even if the list was modified directly through getAllObjects() or getAllFields(), or one of its objects was renamed.
+ * @param <E>
+ */
+class ChildList<E> extends ArrayList<E> {
+	private static final long serialVersionUID = 1L;
+	
+	//ArrayList does not count set() as a modification, and can't see its elements change, so both are counted separately.
+	private int changes = 0;
+	
+	@Override
+	public E set(int index, E element) {
+		changes++;
+		return super.set(index, element);
+	}
+	
+	/**
+	 * Counts an element being changed in a way that an index of this list would have to know about, such as an object being renamed.
+	 */
+	void elementChanged() {
+		changes++;
+	}
+	
+	/**
+	 * Returns a number that changes whenever this list is modified.
+	 * @return
+	 */
+	int version() {
+		return modCount + changes;
+	}
+}
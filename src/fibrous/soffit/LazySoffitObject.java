@@ -0,0 +1,323 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A SoffitObject backed by a {@link SoffitIndex}.
+ * The objects and fields it contains are only created when they are accessed,
+ * and lookups by name or type compare against the index directly without creating anything for the objects and fields that don't match.
+ * Once all of its objects or fields are requested (e.g., getAllObjects()), or it is modified, every child is created and it behaves exactly like a normal SoffitObject.
+ */
+class LazySoffitObject extends SoffitObject {
+	private final SoffitIndex index;
+	private final int node;
+	private boolean loaded = false;
+	
+	//Children that have already been created, by their position within this object
+	private SoffitObject[] objectViews = null;
+	private SoffitField[] fieldViews = null;
+	
+	private LazySoffitObject(SoffitIndex index, int node, String type, String name) {
+		super(type, name);
+		this.index = index;
+		this.node = node;
+	}
+	
+	/**
+	 * Returns the root object of an index.
+	 * @param index
+	 * @return
+	 */
+	static SoffitObject root(SoffitIndex index) {
+		return new LazySoffitObject(index, 0, null, null);
+	}
+	
+	@Override
+	public SoffitObject getObject(String objectName) {
+		if(loaded)
+			return super.getObject(objectName);
+		
+		int i = 0;
+		for(int child = index.firstObject(node); child >= 0; child = index.next(child), i++) {
+			if(index.valueEquals(child, objectName))
+				return objectView(i, child);
+		}
+		throw new SoffitException("No object with the name \"" + objectName + "\" is located in object \"" + toString() + "\"");
+	}
+	
+	@Override
+	public SoffitObject getFirstObject() {
+		if(loaded)
+			return super.getFirstObject();
+		
+		int child = index.firstObject(node);
+		if(child >= 0)
+			return objectView(0, child);
+		else
+			throw new SoffitException("This object (" + toString() + ") contains no other objects");
+	}
+	
+	@Override
+	SoffitField findField(String fieldName) {
+		if(loaded)
+			return super.findField(fieldName);
+		
+		int i = 0;
+		for(int child = index.firstField(node); child >= 0; child = index.next(child), i++) {
+			if(index.keyEquals(child, fieldName))
+				return fieldView(i, child);
+		}
+		return null;
+	}
+	
+	@Override
+	public ArrayList<SoffitField> getFieldsByName(String fieldName) {
+		if(loaded)
+			return super.getFieldsByName(fieldName);
+		
+		ArrayList<SoffitField> foundFields = new ArrayList<>();
+		int i = 0;
+		for(int child = index.firstField(node); child >= 0; child = index.next(child), i++) {
+			if(index.keyEquals(child, fieldName))
+				foundFields.add(fieldView(i, child));
+		}
+		return foundFields;
+	}
+	
+	@Override
+	public boolean hasField(String fieldName) {
+		if(loaded)
+			return super.hasField(fieldName);
+		
+		for(int child = index.firstField(node); child >= 0; child = index.next(child)) {
+			if(index.keyEquals(child, fieldName))
+				return true;
+		}
+		return false;
+	}
+	
+	@Override
+	public ArrayList<SoffitObject> getObjectsByName(String objectsName) {
+		if(loaded)
+			return super.getObjectsByName(objectsName);
+		
+		ArrayList<SoffitObject> foundObjects = new ArrayList<>();
+		int i = 0;
+		for(int child = index.firstObject(node); child >= 0; child = index.next(child), i++) {
+			if(index.valueEquals(child, objectsName))
+				foundObjects.add(objectView(i, child));
+		}
+		return foundObjects;
+	}
+	
+	@Override
+	public ArrayList<SoffitObject> getObjectsByType(String objectsType) {
+		if(loaded)
+			return super.getObjectsByType(objectsType);
+		
+		ArrayList<SoffitObject> foundObjects = new ArrayList<>();
+		int i = 0;
+		for(int child = index.firstObject(node); child >= 0; child = index.next(child), i++) {
+			if(index.keyEquals(child, objectsType))
+				foundObjects.add(objectView(i, child));
+		}
+		return foundObjects;
+	}
+	
+	@Override
+	public List<SoffitObject> viewObjectsByType(String objectsType) {
+		//A live view needs every child to exist.
+		load();
+		return super.viewObjectsByType(objectsType);
+	}
+	
+	/**
+	 * Until this object is loaded, only the matching objects are created, rather than every object.
+	 */
+	@Override
+	List<SoffitObject> objectsToSearch(String objectsType) {
+		if(loaded)
+			return super.objectsToSearch(objectsType);
+		
+		return getObjectsByType(objectsType);
+	}
+	
+	@Override
+	public SoffitObject getObjectByTypeAndName(String objectType, String objectName) {
+		if(loaded)
+			return super.getObjectByTypeAndName(objectType, objectName);
+		
+		int i = 0;
+		for(int child = index.firstObject(node); child >= 0; child = index.next(child), i++) {
+			if(index.keyEquals(child, objectType) && index.valueEquals(child, objectName))
+				return objectView(i, child);
+		}
+		throw new SoffitException("No object with the name \"" + objectName + "\" and of type \"" + objectType + "\" is located in object \"" + toString() + "\"");
+	}
+	
+	@Override
+	public void removeObject(String name) {
+		load();
+		super.removeObject(name);
+	}
+	
+	@Override
+	public void removeObjectsByType(String type) {
+		load();
+		super.removeObjectsByType(type);
+	}
+	
+	@Override
+	public void removeObjectsByName(String name) {
+		load();
+		super.removeObjectsByName(name);
+	}
+	
+	@Override
+	public void removeField(String name) {
+		load();
+		super.removeField(name);
+	}
+	
+	@Override
+	public void removeAllObjects() {
+		load();
+		super.removeAllObjects();
+	}
+	
+	@Override
+	public void removeAllFields() {
+		load();
+		super.removeAllFields();
+	}
+	
+	@Override
+	public ArrayList<SoffitObject> getAllObjects() {
+		load();
+		return super.getAllObjects();
+	}
+	
+	@Override
+	public ArrayList<SoffitField> getAllFields() {
+		load();
+		return super.getAllFields();
+	}
+	
+	@Override
+	public void add(SoffitObject object) {
+		load();
+		super.add(object);
+	}
+	
+	@Override
+	public void add(SoffitField field) {
+		load();
+		super.add(field);
+	}
+	
+	/**
+	 * The index still holds the old name and type, so every child is created and lookups go through them from then on.
+	 */
+	@Override
+	void childRenamed() {
+		load();
+		super.childRenamed();
+	}
+	
+	@Override
+	public boolean containsObjects() {
+		if(loaded)
+			return super.containsObjects();
+		
+		return index.firstObject(node) >= 0;
+	}
+	
+	@Override
+	public boolean containsFields() {
+		if(loaded)
+			return super.containsFields();
+		
+		return index.firstField(node) >= 0;
+	}
+	
+	/**
+	 * Creates every child of this object that hasn't been created yet, and attaches them all in their original order.
+	 */
+	private void load() {
+		if(loaded)
+			return;
+		
+		loaded = true;
+		
+		int i = 0;
+		for(int child = index.firstField(node); child >= 0; child = index.next(child), i++)
+			super.add(fieldView(i, child));
+		
+		i = 0;
+		for(int child = index.firstObject(node); child >= 0; child = index.next(child), i++)
+			super.add(objectView(i, child));
+		
+		fieldViews = null;
+		objectViews = null;
+	}
+	
+	private SoffitObject objectView(int position, int child) {
+		if(objectViews == null)
+			objectViews = new SoffitObject[index.objectCount(node)];
+		
+		SoffitObject view = objectViews[position];
+		if(view == null) {
+			view = new LazySoffitObject(index, child, index.key(child), index.value(child));
+			view.setParent(this);
+			objectViews[position] = view;
+		}
+		return view;
+	}
+	
+	private SoffitField fieldView(int position, int child) {
+		if(fieldViews == null)
+			fieldViews = new SoffitField[index.fieldCount(node)];
+		
+		SoffitField view = fieldViews[position];
+		if(view == null) {
+			//Null fields are given a blank value.
+			String value = index.value(child);
+			view = new SoffitField(index.key(child), value == null ? "" : value);
+			view.setParent(this);
+			fieldViews[position] = view;
+		}
+		return view;
+	}
+}
@@ -0,0 +1,167 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit;
+
+import java.io.IOException;
+
+/**
+ * Hands out the lines of a SOFFIT stream as slices of a byte array.
+ * Blank lines and comments are skipped, and leading and trailing whitespace is excluded from each slice.
+ * A slice is only valid until the next call to nextLine().
+ */
+abstract class LineSource {
+	byte[] buffer;
+	int start;
+	int end;
+	int lineNumber = 0;
+	
+	/**
+	 * Advances to the next line that contains something other than whitespace or a comment.
+	 * @return false if the end of the input was reached.
+	 * @throws IOException
+	 */
+	boolean nextLine() throws IOException {
+		while(readLine()) {
+			lineNumber++;
+			
+			while(start < end && isWhitespace(buffer[start]))
+				start++;
+			while(end > start && isWhitespace(buffer[end - 1]))
+				end--;
+			
+			//Check for blank line
+			if(start == end)
+				continue;
+			
+			//Check for comments
+			if(buffer[start] == (byte) '#')
+				continue;
+			
+			return true;
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Skips past the closing bracket of the object declared on the current line, without tokenizing any of the lines within it.
+	 * A line opens an object if it ends with a '{' after whitespace or the closing quotation of its name, and closes one if it is only a '}'.
+	 * Brackets anywhere else on a line are part of a name or quoted value.
+	 * Throws a {@link SoffitException} if the footer or the end of the input is reached first.
+	 * @throws SoffitException
+	 * @throws IOException
+	 */
+	void skipObject() throws SoffitException, IOException {
+		int depth = 1;
+		
+		while(nextLine()) {
+			byte[] b = buffer;
+			int length = end - start;
+			byte last = b[end - 1];
+			
+			if(length == 1 && last == (byte) '}') {
+				if(--depth == 0)
+					return;
+				continue;
+			}
+			
+			if(last == (byte) '{' && length > 1) {
+				byte before = b[end - 2];
+				if(before == (byte) ' ' || before == (byte) '\t' || before == (byte) '"') {
+					depth++;
+					continue;
+				}
+			}
+			
+			if(isFooter(b, start, end))
+				throw new SoffitException("SOFFIT footer encountered in non-root object.", lineNumber);
+		}
+		
+		throw new SoffitException("Incomplete SOFFIT stream.");
+	}
+	
+	/**
+	 * Returns a copy of the current line.
+	 * @return
+	 */
+	byte[] copyLine() {
+		byte[] line = new byte[end - start];
+		System.arraycopy(buffer, start, line, 0, line.length);
+		return line;
+	}
+	
+	/**
+	 * Points buffer, start, and end at the next physical line, excluding the line terminator.
+	 * @return false if the end of the input was reached.
+	 * @throws IOException
+	 */
+	abstract boolean readLine() throws IOException;
+	
+	static boolean isWhitespace(byte b) {
+		return b == (byte) ' ' || b == (byte) '\t' || b == (byte) '\r';
+	}
+	
+	/**
+	 * Returns true if the line in the range [start, end) is a SOFFIT footer.
+	 * The footer is recognized by its first token, the same way as {@link LineTokenizer} does.
+	 * @param buffer
+	 * @param start
+	 * @param end
+	 * @return
+	 */
+	static boolean isFooter(byte[] buffer, int start, int end) {
+		int tokenEnd = start;
+		while(tokenEnd < end && buffer[tokenEnd] != (byte) ' ' && buffer[tokenEnd] != (byte) '\t')
+			tokenEnd++;
+		return isToken(buffer, start, tokenEnd, SoffitUtil.SOFFIT_END_BYTES);
+	}
+	
+	/**
+	 * Returns true if the bytes in the range [start, end) are exactly the same as token.
+	 * @param buffer
+	 * @param start
+	 * @param end
+	 * @param token
+	 * @return
+	 */
+	static boolean isToken(byte[] buffer, int start, int end, byte[] token) {
+		if(end - start != token.length)
+			return false;
+		
+		for(int i = 0; i < token.length; i++) {
+			if(buffer[start + i] != token[i])
+				return false;
+		}
+		
+		return true;
+	}
+}
@@ -0,0 +1,266 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Splits a single SOFFIT line into its tokens and determines what the line declares.
+ * Tokens are recorded as offsets into the line's buffer, so nothing is allocated until a token is decoded into a String.
+ */
+class LineTokenizer {
+	static final int CLOSING_BRACKET = 0;
+	static final int FOOTER = 1;
+	static final int OBJECT = 2;
+	static final int FIELD = 3;
+	
+	//What the current line declares
+	int kind;
+	
+	byte[] buffer;
+	//The object type or field name
+	int keyStart;
+	int keyEnd;
+	//The object name or field value, excluding the quotations.  valueStart is -1 if there is no quoted token.
+	int valueStart;
+	int valueEnd;
+	//Whether the quoted token contains escape sequences
+	boolean escaped;
+	//The field value as a long, set by isWholeNumber()
+	long wholeNumber;
+	
+	private final ArrayOutputStream internalStream;
+	private final SoffitSymbolTable symbols;
+	
+	/**
+	 * @param internalStream Used for converting escape sequences.
+	 * @param symbols Used for decoding object types and field names.  May be null.
+	 */
+	LineTokenizer(ArrayOutputStream internalStream, SoffitSymbolTable symbols) {
+		this.internalStream = internalStream;
+		this.symbols = symbols;
+	}
+	
+	/**
+	 * Tokenizes the line held in buffer[start, end).
+	 * The line must already be stripped of leading and trailing whitespace.
+	 * Throws a {@link SoffitException} if the line is not valid SOFFIT.
+	 * @param buffer
+	 * @param start
+	 * @param end
+	 * @param lineNumber Only used for exception messages.
+	 */
+	void tokenize(byte[] buffer, int start, int end, int lineNumber) {
+		this.buffer = buffer;
+		keyStart = start;
+		valueStart = -1;
+		escaped = false;
+		
+		//The first token is an object type, field name, closing bracket, or footer.
+		int i = start;
+		while(i < end && !isSeparator(buffer[i])) {
+			//Ensure there are no double quotes in the first token
+			if(buffer[i] == (byte) '"')
+				throw new SoffitException("SOFFIT syntax error.", lineNumber);
+			i++;
+		}
+		keyEnd = i;
+		
+		//SOFFIT Footer
+		if(LineSource.isToken(buffer, keyStart, keyEnd, SoffitUtil.SOFFIT_END_BYTES)) {
+			kind = FOOTER;
+			return;
+		}
+		
+		i = skipSeparators(buffer, i, end);
+		
+		//Closing bracket or null field
+		if(i == end) {
+			if(keyEnd - keyStart == 1 && buffer[keyStart] == (byte) '}') {
+				kind = CLOSING_BRACKET;
+				return;
+			}
+			if(keyEnd - keyStart == 1 && buffer[keyStart] == (byte) '{')
+				throw new SoffitException("SOFFIT syntax error.", lineNumber);
+			
+			kind = FIELD;
+			return;
+		}
+		
+		//Object without a name
+		if(buffer[i] == (byte) '{') {
+			if(i + 1 == end) {
+				kind = OBJECT;
+				return;
+			}
+			throw new SoffitException("SOFFIT syntax error.", lineNumber);
+		}
+		
+		//Anything else has to be a quoted object name or field value.
+		if(buffer[i] != (byte) '"')
+			throw new SoffitException("SOFFIT syntax error.", lineNumber);
+		
+		valueStart = ++i;
+		for(;; i++) {
+			if(i >= end)
+				throw new SoffitException("SOFFIT syntax error.", lineNumber);
+			
+			//Skip over whatever is escaped.  It is validated when the token is decoded.
+			if(buffer[i] == (byte) '\\') {
+				escaped = true;
+				i++;
+				continue;
+			}
+			
+			if(buffer[i] == (byte) '"')
+				break;
+		}
+		valueEnd = i;
+		i++;
+		
+		//Field with a value
+		if(i == end) {
+			kind = FIELD;
+			return;
+		}
+		
+		//Object with a name
+		i = skipSeparators(buffer, i, end);
+		if(i + 1 == end && buffer[i] == (byte) '{') {
+			kind = OBJECT;
+			return;
+		}
+		
+		throw new SoffitException("SOFFIT syntax error.", lineNumber);
+	}
+	
+	/**
+	 * Returns true if the line has a quoted object name or field value.
+	 * @return
+	 */
+	boolean hasValue() {
+		return valueStart >= 0;
+	}
+	
+	/**
+	 * Decodes the object type or field name.
+	 * The same String instance is returned for the same type or name, as long as the symbol table has room for it.
+	 * @return
+	 */
+	String key() {
+		if(symbols == null)
+			return decode(buffer, keyStart, keyEnd - keyStart);
+		
+		return symbols.intern(buffer, keyStart, keyEnd - keyStart);
+	}
+	
+	/**
+	 * Decodes the object name or field value, converting any escape sequences.
+	 * Returns null if the line does not have a quoted token.
+	 * @param lineNumber Only used for exception messages.
+	 * @return
+	 */
+	String value(int lineNumber) {
+		if(valueStart < 0)
+			return null;
+		
+		if(!escaped)
+			return decode(buffer, valueStart, valueEnd - valueStart);
+		
+		//Check for proper escape sequences
+		try {
+			internalStream.reset();
+			SoffitUtil.convertFromEscapeSequence(buffer, valueStart, valueEnd, internalStream);
+			return decode(internalStream.buffer, 0, internalStream.pos);
+		} catch (SoffitException e) {
+			throw new SoffitException(e, lineNumber);
+		}
+	}
+	
+	/**
+	 * Checks whether the field value is a whole number written exactly the way String.valueOf() would write it,
+	 * so that it can be kept as a long without changing how it is written back out.
+	 * If it is, wholeNumber is set to it.
+	 * @return
+	 */
+	boolean isWholeNumber() {
+		if(valueStart < 0 || escaped)
+			return false;
+		
+		int i = valueStart;
+		boolean negative = i < valueEnd && buffer[i] == (byte) '-';
+		if(negative)
+			i++;
+		
+		//String.valueOf() never writes a plus sign, a leading zero, or "-0".
+		int length = valueEnd - i;
+		if(length == 0 || length > 19 || (buffer[i] == (byte) '0' && (negative || length > 1)))
+			return false;
+		
+		//Accumulate negatively, since Long.MIN_VALUE has no positive counterpart
+		long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+		long result = 0;
+		for(; i < valueEnd; i++) {
+			int digit = buffer[i] - '0';
+			if(digit < 0 || digit > 9)
+				return false;
+			if(result < limit / 10 || result * 10 < limit + digit)
+				return false;
+			result = result * 10 - digit;
+		}
+		
+		wholeNumber = negative ? result : -result;
+		return true;
+	}
+	
+	/**
+	 * Decodes UTF-8 bytes into a String.
+	 * The JDK's UTF-8 decoder checks for and copies runs of ASCII several bytes at a time, so ASCII-only tokens don't pay for decoding.
+	 * @param bytes
+	 * @param offset
+	 * @param length
+	 * @return
+	 */
+	static String decode(byte[] bytes, int offset, int length) {
+		return new String(bytes, offset, length, StandardCharsets.UTF_8);
+	}
+	
+	private static int skipSeparators(byte[] buffer, int i, int end) {
+		while(i < end && isSeparator(buffer[i]))
+			i++;
+		return i;
+	}
+	
+	private static boolean isSeparator(byte b) {
+		return b == (byte) ' ' || b == (byte) '\t';
+	}
+}
@@ -0,0 +1,159 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+
+/**
+ * Reads lines from a file, or a range of a file, that is memory mapped through a {@link FileChannel}.
+ * The file is mapped in windows so files larger than 2GB can be read.
+ * Every window after the first starts at the beginning of a line, so a line never spans two windows.
+ */
+class MappedLineSource extends LineSource {
+	//Largest window that will be mapped at once
+	static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+	
+	private final FileChannel channel;
+	//Where the lines end within the file
+	private final long rangeEnd;
+	private final int windowSize;
+	private final int maxLineLength;
+	
+	private MappedByteBuffer window = null;
+	//Position of the window within the file
+	private long windowStart = 0;
+	//Position of the next line within the window
+	private int pos = 0;
+	//Position of the current line within the window
+	private int lineOffset = 0;
+	//Every window mapped so far, if they are being kept for a SoffitIndex
+	private ArrayList<MappedByteBuffer> windows = null;
+	
+	MappedLineSource(FileChannel channel, SoffitReadOptions options) throws IOException {
+		this(channel, DEFAULT_WINDOW_SIZE, options);
+	}
+	
+	MappedLineSource(FileChannel channel, int windowSize, SoffitReadOptions options) throws IOException {
+		this(channel, 0, channel.size(), windowSize, options);
+	}
+	
+	/**
+	 * Reads the lines in the range [start, end) of a file.
+	 * start must be at the beginning of a line.
+	 */
+	MappedLineSource(FileChannel channel, long start, long end, int windowSize, SoffitReadOptions options) throws IOException {
+		this.channel = channel;
+		this.rangeEnd = end;
+		this.windowSize = windowSize;
+		this.maxLineLength = options.getMaxLineLength();
+		//This is an internal buffer that each line is copied into.  It grows as needed up to the maximum line length.
+		buffer = new byte[Math.min(8192, maxLineLength)];
+		map(start);
+	}
+	
+	@Override
+	boolean readLine() throws IOException {
+		while(true) {
+			MappedByteBuffer w = window;
+			int limit = w.limit();
+			
+			for(int i = pos; i < limit; i++) {
+				if(w.get(i) == (byte) '\n') {
+					copyLine(pos, i);
+					pos = i + 1;
+					return true;
+				}
+			}
+			
+			//Hand out the unterminated last line
+			if(windowStart + limit == rangeEnd) {
+				if(pos == limit)
+					return false;
+				
+				copyLine(pos, limit);
+				pos = limit;
+				return true;
+			}
+			
+			if(pos == 0)
+				throw new SoffitException("SOFFIT line in file is longer than the " + windowSize + " byte mapping window");
+			
+			//Move the window up to the start of the unterminated line
+			map(windowStart + pos);
+		}
+	}
+	
+	/**
+	 * Starts keeping every window that is mapped, including the current one, and returns the list they are kept in.
+	 * The windows stay mapped for as long as the list is reachable, even after the channel is closed.
+	 * @return
+	 */
+	ArrayList<MappedByteBuffer> keepWindows() {
+		windows = new ArrayList<>();
+		windows.add(window);
+		return windows;
+	}
+	
+	/**
+	 * Returns where the current line starts within the last window that was mapped.
+	 * @return
+	 */
+	int lineOffset() {
+		return lineOffset;
+	}
+	
+	private void map(long position) throws IOException {
+		windowStart = position;
+		window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, rangeEnd - position));
+		pos = 0;
+		if(windows != null)
+			windows.add(window);
+	}
+	
+	private void copyLine(int from, int to) {
+		int length = to - from;
+		if(length > buffer.length) {
+			if(length > maxLineLength)
+				throw new SoffitException("SOFFIT line buffer with " + maxLineLength + " byte capacity was overfilled");
+			buffer = new byte[(int) Math.min(maxLineLength, Math.max(length, (long) buffer.length * 2))];
+		}
+		
+		window.position(from);
+		window.get(buffer, 0, length);
+		lineOffset = from;
+		start = 0;
+		end = length;
+	}
+}
@@ -0,0 +1,348 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Parses a memory mapped SOFFIT file on several threads at once.
+ * A quick scan over the file first finds where each top-level object ends, without tokenizing or decoding anything,
+ * and splits the file into chunks made up of whole top-level objects and fields.
+ * Each chunk is then parsed on a {@link ForkJoinPool}, and everything is attached to one root object in its original order.
+ * <p>
+ * A quoted name or value can never span more than one line, so the scan only has to look at how each line starts and ends to tell object declarations and closing brackets apart from everything else.
+ * Anything the scan can't make sense of is left for the parser, which reports it with the same message and line number as a sequential parse.
+ */
+class ParallelReader {
+	//Chunks are at least this large, so small files aren't split into more tasks than they're worth.
+	static final long MIN_CHUNK_SIZE = 1 << 18;
+	//Each thread gets about this many chunks, so a few large top-level objects don't hold up the rest.
+	static final int CHUNKS_PER_THREAD = 4;
+	//How much of the file the scan reads at a time
+	static final int SCAN_BLOCK_SIZE = 1 << 20;
+	
+	/**
+	 * A run of whole top-level objects and fields, in the range [start, end) of the file.
+	 */
+	private static final class Chunk {
+		final long start;
+		final long end;
+		//Number of lines before the chunk
+		final int lineNumber;
+		
+		//What the chunk was parsed into, or what went wrong
+		SoffitObject root;
+		Exception failure;
+		
+		Chunk(long start, long end, int lineNumber) {
+			this.start = start;
+			this.end = end;
+			this.lineNumber = lineNumber;
+		}
+	}
+	
+	private final FileChannel channel;
+	private final SoffitReadOptions options;
+	//Shared by every chunk, so they all hand out the same Strings for the same names and types
+	private final SoffitSymbolTable symbols;
+	
+	private final ArrayList<Chunk> chunks = new ArrayList<>();
+	//Where the chunk being scanned starts, and how many lines come before it
+	private long chunkStart = 0;
+	private int chunkLineNumber = 0;
+	//A problem with the structure of the stream found by the scan.  It is thrown once everything before it has been parsed, in case that has a problem of its own.
+	private SoffitException structureError = null;
+	
+	ParallelReader(FileChannel channel, SoffitReadOptions options) {
+		this.channel = channel;
+		this.options = options;
+		this.symbols = options.symbols();
+	}
+	
+	/**
+	 * Parses the file, with the chunks parsed on pool.
+	 * @param pool
+	 * @return The root object
+	 * @throws IOException
+	 */
+	SoffitObject read(ForkJoinPool pool) throws IOException {
+		long size = channel.size();
+		scan(Math.max(MIN_CHUNK_SIZE, size / ((long) pool.getParallelism() * CHUNKS_PER_THREAD)));
+		
+		ArrayList<ForkJoinTask<?>> tasks = new ArrayList<>(chunks.size());
+		for(Chunk chunk : chunks)
+			tasks.add(pool.submit(() -> parse(chunk)));
+		
+		SoffitObject root = new SoffitObject(null, null);
+		try {
+			//Attach everything in order.  An exception from an earlier chunk takes priority, since a sequential parse would have run into it first.
+			for(int i = 0; i < tasks.size(); i++) {
+				join(tasks.get(i));
+				
+				Chunk chunk = chunks.get(i);
+				if(chunk.failure instanceof IOException)
+					throw (IOException) chunk.failure;
+				if(chunk.failure != null)
+					throw (RuntimeException) chunk.failure;
+				
+				for(SoffitField field : chunk.root.getAllFields())
+					root.add(field);
+				for(SoffitObject object : chunk.root.getAllObjects())
+					root.add(object);
+				chunk.root = null;
+			}
+		} finally {
+			//Don't bother parsing anything after a chunk that failed.
+			for(ForkJoinTask<?> task : tasks)
+				task.cancel(false);
+		}
+		
+		if(structureError != null)
+			throw structureError;
+		
+		return root;
+	}
+	
+	/**
+	 * Parses a single chunk into its own root object.
+	 * Exceptions are kept with the chunk rather than thrown, since a ForkJoinPool would rethrow a copy of them without their message.
+	 * @param chunk
+	 */
+	private void parse(Chunk chunk) {
+		try {
+			chunk.root = parseChunk(chunk);
+		} catch (IOException | RuntimeException e) {
+			chunk.failure = e;
+		}
+	}
+	
+	private SoffitObject parseChunk(Chunk chunk) throws IOException {
+		MappedLineSource lines = new MappedLineSource(channel, chunk.start, chunk.end, MappedLineSource.DEFAULT_WINDOW_SIZE, options);
+		lines.lineNumber = chunk.lineNumber;
+		
+		SoffitTreeBuilder builder = new SoffitTreeBuilder();
+		//Borrowed from the pool of whichever thread is parsing the chunk
+		ArrayOutputStream internalStream = new ArrayOutputStream(options.pool(), options.getMaxLineLength());
+		
+		try {
+			SoffitUtil.parseObject(lines, builder, new LineTokenizer(internalStream, symbols), options.getParseNumbers(), options.getProjection(), false);
+		} finally {
+			internalStream.release();
+		}
+		
+		return builder.getRoot();
+	}
+	
+	/**
+	 * Waits for a task to finish.
+	 * The task is expected to catch its own exceptions.
+	 * @param task
+	 * @throws IOException
+	 */
+	static void join(ForkJoinTask<?> task) throws IOException {
+		try {
+			task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while parsing a SOFFIT file");
+		} catch (ExecutionException e) {
+			//Only an Error can get this far.
+			if(e.getCause() instanceof Error)
+				throw (Error) e.getCause();
+			throw new IOException(e.getCause());
+		}
+	}
+	
+	/**
+	 * Checks for the header, and then splits the rest of the file into chunks of about chunkSize bytes.
+	 * The file is read in blocks into an array, which is much quicker to search for line terminators than a mapped buffer.
+	 * @param chunkSize
+	 * @throws IOException
+	 */
+	private void scan(long chunkSize) throws IOException {
+		long size = channel.size();
+		int maxLineLength = options.getMaxLineLength();
+		
+		byte[] block = new byte[SCAN_BLOCK_SIZE];
+		//Position of the block within the file, and how much of it is filled
+		long blockStart = 0;
+		int length = 0;
+		//Position of the next line within the block, and where the search for its terminator picks up
+		int pos = 0;
+		int search = 0;
+		
+		int lineNumber = 0;
+		boolean headerFound = false;
+		//Number of objects currently open
+		int depth = 0;
+		
+		while(true) {
+			int i = search;
+			while(i < length && block[i] != (byte) '\n')
+				i++;
+			
+			boolean endOfFile = blockStart + length >= size;
+			
+			//Keep the unterminated line, and read more of the file in after it.
+			if(i == length && !endOfFile) {
+				if(pos > 0) {
+					System.arraycopy(block, pos, block, 0, length - pos);
+					blockStart += pos;
+					length -= pos;
+					i -= pos;
+					pos = 0;
+				} else if(length == block.length) {
+					//The line fills the whole block, which can only grow to one byte past the longest line allowed.
+					if(length > maxLineLength) {
+						structureError = new SoffitException("SOFFIT line buffer with " + maxLineLength + " byte capacity was overfilled");
+						endChunk(blockStart, lineNumber);
+						return;
+					}
+					block = Arrays.copyOf(block, (int) Math.min(maxLineLength + 1L, Math.min((long) block.length * 2, Integer.MAX_VALUE - 8)));
+				}
+				search = i;
+				
+				int read = channel.read(ByteBuffer.wrap(block, length, block.length - length), blockStart + length);
+				if(read < 0)
+					size = blockStart + length;
+				else
+					length += read;
+				continue;
+			}
+			
+			//Nothing is left after the last line terminator
+			if(i == length && pos == length) {
+				if(!headerFound)
+					throw new SoffitException("SOFFIT header not found.");
+				
+				structureError = new SoffitException("Incomplete SOFFIT stream.");
+				endChunk(size, lineNumber);
+				return;
+			}
+			
+			lineNumber++;
+			long lineStart = blockStart + pos;
+			//The unterminated last line ends with the file.
+			long nextLine = i < length ? blockStart + i + 1 : size;
+			
+			if(i - pos > maxLineLength) {
+				structureError = new SoffitException("SOFFIT line buffer with " + maxLineLength + " byte capacity was overfilled");
+				endChunk(lineStart, lineNumber - 1);
+				return;
+			}
+			
+			//Find the last character other than whitespace.
+			int first = pos;
+			int last = i - 1;
+			while(last >= first && LineSource.isWhitespace(block[last]))
+				last--;
+			
+			pos = i < length ? i + 1 : length;
+			search = pos;
+			
+			//Within an object, only lines that end with a bracket can change the depth, so there's no need to look any closer at the rest.
+			//A footer within an object is left for the parser to report.
+			if(last < first || (depth > 0 && block[last] != (byte) '{' && block[last] != (byte) '}'))
+				continue;
+			
+			while(LineSource.isWhitespace(block[first]))
+				first++;
+			
+			//Skip comments
+			if(block[first] == (byte) '#')
+				continue;
+			
+			if(!headerFound) {
+				if(!LineSource.isToken(block, first, last + 1, SoffitUtil.SOFFIT_START_BYTES))
+					throw new SoffitException("SOFFIT header not found.");
+				
+				headerFound = true;
+				chunkStart = nextLine;
+				chunkLineNumber = lineNumber;
+				continue;
+			}
+			
+			//SOFFIT Footer, which is recognized by its first token the same way as LineTokenizer does
+			if(depth == 0 && block[first] == SoffitUtil.SOFFIT_END_BYTES[0] && LineSource.isFooter(block, first, last + 1)) {
+				endChunk(lineStart, lineNumber - 1);
+				return;
+			}
+			
+			//Closing Bracket
+			if(first == last && block[last] == (byte) '}') {
+				if(depth == 0) {
+					structureError = new SoffitException("SOFFIT stream contained too many closing brackets.", lineNumber);
+					endChunk(lineStart, lineNumber - 1);
+					return;
+				}
+				depth--;
+			}
+			//Object declaration, which always ends with a separate opening bracket
+			else if(block[last] == (byte) '{' && last > first && isDeclarationEnd(block[last - 1])) {
+				depth++;
+			}
+			
+			//Once a top-level object or field is finished, the chunk can end here.
+			if(depth == 0 && nextLine - chunkStart >= chunkSize)
+				endChunk(nextLine, lineNumber);
+		}
+	}
+	
+	/**
+	 * Ends the current chunk at end, and starts the next one there.
+	 * @param end
+	 * @param lineNumber The number of lines before end.
+	 */
+	private void endChunk(long end, int lineNumber) {
+		if(end > chunkStart)
+			chunks.add(new Chunk(chunkStart, end, chunkLineNumber));
+		
+		chunkStart = end;
+		chunkLineNumber = lineNumber;
+	}
+	
+	/**
+	 * Returns true if b can come right before the opening bracket of an object declaration.
+	 * That is either a separator, or the closing quotation of the object's name.
+	 */
+	private static boolean isDeclarationEnd(byte b) {
+		return b == (byte) ' ' || b == (byte) '\t' || b == (byte) '"';
+	}
+}
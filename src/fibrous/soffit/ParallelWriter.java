@@ -0,0 +1,230 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Writes a SOFFIT object with its top-level objects written on several threads at once.
+ * The top-level objects are split into groups of about the same size, and each group is written into its own buffer on a {@link ForkJoinPool}.
+ * The buffers are written out in their original order, so the stream is exactly the same as a sequential write.
+ * <p>
+ * Only a limited number of groups are written ahead of the one being written out, so the whole stream is never held in memory at once.
+ * A top-level object too large for one buffer is written straight to the stream on the calling thread instead, while the groups after it are written ahead.
+ */
+class ParallelWriter {
+	//Each thread gets about this many groups, so a few large top-level objects don't hold up the rest.
+	static final int GROUPS_PER_THREAD = 4;
+	//Groups hold at least this many objects and fields, so small trees aren't split into more tasks than they're worth.
+	static final long MIN_GROUP_SIZE = 1 << 12;
+	//Groups hold at most about this many objects and fields, which keeps each buffer to a few MB.  A larger top-level object is never buffered.
+	static final long MAX_GROUP_SIZE = 1 << 16;
+	//How many groups each thread can have written ahead of the one being written out
+	static final int GROUPS_AHEAD_PER_THREAD = 2;
+	
+	/**
+	 * A run of top-level objects, which are written into a buffer of their own.
+	 */
+	private static final class Group {
+		final List<SoffitObject> objects;
+		//Whether the group is too large to buffer, and is written straight to the stream instead
+		final boolean direct;
+		
+		//What the group was written into, or what went wrong
+		ByteArrayOutputStream encoded;
+		Exception failure;
+		
+		Group(List<SoffitObject> objects, boolean direct) {
+			this.objects = objects;
+			this.direct = direct;
+		}
+	}
+	
+	private final SoffitWriteOptions options;
+	
+	ParallelWriter(SoffitWriteOptions options) {
+		this.options = options;
+	}
+	
+	/**
+	 * Writes root to output, with its top-level objects written on pool.
+	 * @param root
+	 * @param output
+	 * @param pool
+	 * @throws IOException
+	 */
+	void write(SoffitObject root, OutputStream output, ForkJoinPool pool) throws IOException {
+		//A lazily read tree shares one index between all of its objects, which can't be read from several threads at once.
+		if(root instanceof LazySoffitObject) {
+			SoffitUtil.WriteStream(root, output, options);
+			return;
+		}
+		
+		List<SoffitObject> objects = root.getAllObjects();
+		long[] sizes = new long[objects.size()];
+		long total = 0;
+		for(int i = 0; i < sizes.length; i++) {
+			sizes[i] = size(objects.get(i));
+			if(sizes[i] < 0) {
+				SoffitUtil.WriteStream(root, output, options);
+				return;
+			}
+			total += sizes[i];
+		}
+		
+		long groupSize = Math.min(MAX_GROUP_SIZE, Math.max(MIN_GROUP_SIZE, total / ((long) pool.getParallelism() * GROUPS_PER_THREAD)));
+		ArrayList<Group> groups = group(objects, sizes, groupSize);
+		
+		SoffitWriter writer = new SoffitWriter(output, options);
+		int ahead = Math.max(1, pool.getParallelism() * GROUPS_AHEAD_PER_THREAD);
+		//Direct groups are never submitted, and are left null.
+		ArrayList<ForkJoinTask<?>> tasks = new ArrayList<>(groups.size());
+		try {
+			//Fields are always written before any objects.
+			SoffitUtil.writeFields(root, writer);
+			
+			for(int i = 0; i < groups.size(); i++) {
+				while(tasks.size() < groups.size() && tasks.size() <= i + ahead) {
+					Group group = groups.get(tasks.size());
+					tasks.add(group.direct ? null : pool.submit(() -> encode(group)));
+				}
+				
+				Group group = groups.get(i);
+				if(group.direct) {
+					SoffitUtil.writeObjects(group.objects, writer);
+					continue;
+				}
+				
+				ParallelReader.join(tasks.get(i));
+				
+				if(group.failure instanceof IOException)
+					throw (IOException) group.failure;
+				if(group.failure != null)
+					throw (RuntimeException) group.failure;
+				
+				writer.writeFragment(group.encoded);
+				group.encoded = null;
+			}
+			
+			writer.close();
+		} finally {
+			//Don't bother writing anything after a group that failed.
+			for(ForkJoinTask<?> task : tasks) {
+				if(task != null)
+					task.cancel(false);
+			}
+			writer.release();
+		}
+	}
+	
+	/**
+	 * Writes a single group into its own buffer.
+	 * Exceptions are kept with the group rather than thrown, since a ForkJoinPool would rethrow a copy of them without their message.
+	 * @param group
+	 */
+	private void encode(Group group) {
+		try {
+			ByteArrayOutputStream encoded = new ByteArrayOutputStream(options.getBufferSize());
+			SoffitWriter writer = new SoffitWriter(encoded, options, true);
+			try {
+				SoffitUtil.writeObjects(group.objects, writer);
+				writer.close();
+			} finally {
+				writer.release();
+			}
+			group.encoded = encoded;
+		} catch (IOException | RuntimeException e) {
+			group.failure = e;
+		}
+	}
+	
+	/**
+	 * Splits the top-level objects into runs of about groupSize objects and fields.
+	 * An object larger than groupSize gets a group of its own, which is written directly if it is larger than MAX_GROUP_SIZE.
+	 * @param objects
+	 * @param sizes
+	 * @param groupSize
+	 * @return
+	 */
+	private static ArrayList<Group> group(List<SoffitObject> objects, long[] sizes, long groupSize) {
+		ArrayList<Group> groups = new ArrayList<>();
+		int start = 0;
+		long size = 0;
+		for(int i = 0; i < sizes.length; i++) {
+			if(sizes[i] > MAX_GROUP_SIZE) {
+				if(start < i)
+					groups.add(new Group(objects.subList(start, i), false));
+				groups.add(new Group(objects.subList(i, i + 1), true));
+				start = i + 1;
+				size = 0;
+				continue;
+			}
+			
+			size += sizes[i];
+			if(size >= groupSize || i == sizes.length - 1) {
+				groups.add(new Group(objects.subList(start, i + 1), false));
+				start = i + 1;
+				size = 0;
+			}
+		}
+		return groups;
+	}
+	
+	/**
+	 * Returns the number of objects and fields within an object, including the object itself.
+	 * Returns -1 if any of them were read lazily.
+	 * Objects are kept on a stack rather than recursing, the same as when they are written.
+	 * @param object
+	 * @return
+	 */
+	private static long size(SoffitObject object) {
+		ArrayList<SoffitObject> stack = new ArrayList<>();
+		stack.add(object);
+		
+		long size = 0;
+		while(!stack.isEmpty()) {
+			SoffitObject next = stack.remove(stack.size() - 1);
+			if(next instanceof LazySoffitObject)
+				return -1;
+			
+			size += 1 + next.getAllFields().size();
+			stack.addAll(next.getAllObjects());
+		}
+		return size;
+	}
+}
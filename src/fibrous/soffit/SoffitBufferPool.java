@@ -0,0 +1,165 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+/**
+ * Holds on to the byte arrays that SOFFIT streams are read and written with, so they can be reused by the next stream instead of being allocated again.
+ * Direct ByteBuffers used for writing to channels are kept separately, since they are even more expensive to allocate.
+ * By default, every thread has its own pool (see {@link #forCurrentThread()}).
+ * A pool can also be passed in through {@link SoffitReadOptions} or {@link SoffitWriteOptions} to share it between threads.
+ * Only a few arrays are kept, and arrays that grew past a certain size to fit a very long line are left for the garbage collector.
+ */
+public class SoffitBufferPool {
+	
+	public static final int DEFAULT_MAX_BUFFERS = 4;
+	public static final int DEFAULT_MAX_POOLED_SIZE = 1 << 20;
+	
+	private static final ThreadLocal<SoffitBufferPool> threadPools = ThreadLocal.withInitial(SoffitBufferPool::new);
+	
+	private final ArrayList<byte[]> buffers = new ArrayList<>();
+	private final ArrayList<ByteBuffer> directBuffers = new ArrayList<>();
+	private final int maxBuffers;
+	private final int maxPooledSize;
+	
+	/**
+	 * Constructs a SoffitBufferPool that holds up to {@value #DEFAULT_MAX_BUFFERS} arrays of up to {@value #DEFAULT_MAX_POOLED_SIZE} bytes each.
+	 */
+	public SoffitBufferPool() {
+		this(DEFAULT_MAX_BUFFERS, DEFAULT_MAX_POOLED_SIZE);
+	}
+	
+	/**
+	 * Constructs a SoffitBufferPool that holds up to maxBuffers arrays of up to maxPooledSize bytes each.
+	 * @param maxBuffers
+	 * @param maxPooledSize
+	 */
+	public SoffitBufferPool(int maxBuffers, int maxPooledSize) {
+		if(maxBuffers < 0 || maxPooledSize < 0)
+			throw new IllegalArgumentException("Pool limits must not be negative");
+		
+		this.maxBuffers = maxBuffers;
+		this.maxPooledSize = maxPooledSize;
+	}
+	
+	/**
+	 * Returns the pool belonging to the current thread.
+	 * @return
+	 */
+	public static SoffitBufferPool forCurrentThread() {
+		return threadPools.get();
+	}
+	
+	/**
+	 * Returns how many arrays are currently held by this pool, not counting direct ByteBuffers.
+	 * @return
+	 */
+	public synchronized int size() {
+		return buffers.size();
+	}
+	
+	/**
+	 * Returns how many direct ByteBuffers are currently held by this pool.
+	 * @return
+	 */
+	public synchronized int directSize() {
+		return directBuffers.size();
+	}
+	
+	/**
+	 * Removes every array and direct ByteBuffer held by this pool.
+	 */
+	public synchronized void clear() {
+		buffers.clear();
+		directBuffers.clear();
+	}
+	
+	/**
+	 * Returns a pooled array that is at least minSize bytes long, or a new one if there isn't one.
+	 * The contents of a pooled array are whatever was left in it.
+	 * @param minSize
+	 * @return
+	 */
+	synchronized byte[] acquire(int minSize) {
+		for(int i = buffers.size() - 1; i >= 0; i--) {
+			if(buffers.get(i).length >= minSize)
+				return buffers.remove(i);
+		}
+		
+		return new byte[minSize];
+	}
+	
+	/**
+	 * Hands an array back to the pool.
+	 * It is dropped if the pool is full or the array is too large to keep.
+	 * @param buffer
+	 */
+	synchronized void release(byte[] buffer) {
+		if(buffers.size() < maxBuffers && buffer.length <= maxPooledSize)
+			buffers.add(buffer);
+	}
+	
+	/**
+	 * Returns a pooled direct ByteBuffer with a capacity of at least minSize bytes, or a new one if there isn't one.
+	 * The returned buffer is cleared, and its limit is set to minSize.
+	 * @param minSize
+	 * @return
+	 */
+	synchronized ByteBuffer acquireDirect(int minSize) {
+		ByteBuffer buffer = null;
+		for(int i = directBuffers.size() - 1; i >= 0; i--) {
+			if(directBuffers.get(i).capacity() >= minSize) {
+				buffer = directBuffers.remove(i);
+				break;
+			}
+		}
+		
+		if(buffer == null)
+			buffer = ByteBuffer.allocateDirect(minSize);
+		
+		buffer.clear();
+		buffer.limit(minSize);
+		return buffer;
+	}
+	
+	/**
+	 * Hands a direct ByteBuffer back to the pool.
+	 * It is dropped if the pool is full or the buffer is too large to keep.
+	 * @param buffer
+	 */
+	synchronized void releaseDirect(ByteBuffer buffer) {
+		if(directBuffers.size() < maxBuffers && buffer.capacity() <= maxPooledSize)
+			directBuffers.add(buffer);
+	}
+}
@@ -0,0 +1,280 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads SOFFIT documents that are sent back to back over one stream, such as a long-lived socket.
+ * The stream is wrapped once, and the same buffers, read-ahead, and {@link SoffitSymbolTable} are kept from one document to the next,
+ * rather than being set up again by every call to {@link SoffitUtil#ReadStream(InputStream)}.
+ * <p>
+ * If a document is malformed, next() throws a {@link SoffitException} right away, and then skips the rest of that document.
+ * Lines are skipped up to and including its footer, or up to the header of the next document, whichever comes first.
+ * Since a name or value can never span more than one line, this always finds the start of the next document, and the following call to next() reads it normally.
+ * A document that is cut off before its footer is reported as soon as the next header is found, so the next document isn't lost along with it.
+ * <p>
+ * A SoffitDocumentReader is not safe to use from several threads at once.
+ */
+public class SoffitDocumentReader implements Closeable {
+	
+	/**
+	 * Reads lines from the wrapped stream, and keeps track of whether the last line was only partly read.
+	 * That happens when a line is too long to buffer, and the rest of it has to be skipped without buffering it.
+	 * Within a document, a header means the document was cut off, and is rejected.
+	 */
+	private static final class DocumentLineSource extends StreamLineSource {
+		boolean partial = false;
+		boolean inDocument = false;
+		//Set when the current line is a header that cut off the document before it
+		boolean cutOff = false;
+		
+		DocumentLineSource(SoffitInputStream stream) {
+			super(stream);
+		}
+		
+		@Override
+		boolean nextLine() throws IOException {
+			if(!super.nextLine())
+				return false;
+			
+			if(inDocument && isHeader()) {
+				cutOff = true;
+				throw new SoffitException("SOFFIT header encountered before the end of the document.", lineNumber);
+			}
+			return true;
+		}
+		
+		@Override
+		boolean readLine() throws IOException {
+			partial = true;
+			boolean read = super.readLine();
+			partial = false;
+			return read;
+		}
+		
+		boolean isHeader() {
+			return isToken(buffer, start, end, SoffitUtil.SOFFIT_START_BYTES);
+		}
+		
+		boolean isFooter() {
+			return isFooter(buffer, start, end);
+		}
+	}
+	
+	private final SoffitInputStream input;
+	private final DocumentLineSource lines;
+	private final LineTokenizer tokenizer;
+	private final boolean parseNumbers;
+	private final SoffitProjection projection;
+	
+	//Whether the first line of the next document was already read by hasNext(), and whether there was one
+	private boolean peeked = false;
+	private boolean available = false;
+	
+	/**
+	 * Constructs a SoffitDocumentReader that reads from an {@link InputStream}.
+	 * Nothing is read until hasNext() or next() is called.
+	 * @param stream
+	 */
+	public SoffitDocumentReader(InputStream stream) {
+		this(stream, new SoffitReadOptions());
+	}
+	
+	/**
+	 * Constructs a SoffitDocumentReader that reads from an {@link InputStream} using the passed {@link SoffitReadOptions}.
+	 * Nothing is read until hasNext() or next() is called.
+	 * If the stream is a {@link SoffitInputStream}, it is read from directly.  Otherwise, it is wrapped in one.
+	 * Either way, any bytes read ahead past the last document stay buffered within the SoffitInputStream.
+	 * The buffers belong to this reader rather than the options' {@link SoffitBufferPool}, since they are kept for as long as the reader is.
+	 * @param stream
+	 * @param options
+	 */
+	public SoffitDocumentReader(InputStream stream, SoffitReadOptions options) {
+		int maxLineLength = options.getMaxLineLength();
+		
+		if(stream instanceof SoffitInputStream)
+			input = (SoffitInputStream) stream;
+		else
+			input = new SoffitInputStream(stream, Math.min(SoffitInputStream.DEFAULT_BUFFER_SIZE, maxLineLength));
+		input.maxLineLength = maxLineLength;
+		
+		lines = new DocumentLineSource(input);
+		//This is an internal buffer used for converting escape sequences.
+		tokenizer = new LineTokenizer(new ArrayOutputStream(Math.min(ArrayOutputStream.INITIAL_SIZE, maxLineLength), maxLineLength), options.symbols());
+		parseNumbers = options.getParseNumbers();
+		projection = options.getProjection();
+	}
+	
+	/**
+	 * Returns true if there is another document in the stream.
+	 * This reads ahead to the first line of the next document, skipping any blank lines and comments before it.
+	 * It returns false once the end of the stream is reached, and blocks until either one happens.
+	 * A line other than the header is still reported as a document, which next() then rejects.
+	 * @return
+	 * @throws SoffitException
+	 * @throws IOException
+	 */
+	public boolean hasNext() throws SoffitException, IOException {
+		if(!peeked) {
+			lines.lineNumber = 0;
+			try {
+				available = lines.nextLine();
+			} catch (SoffitException e) {
+				skipDocument();
+				throw e;
+			}
+			peeked = true;
+		}
+		
+		return available;
+	}
+	
+	/**
+	 * Parses the next document in the stream as a root SOFFIT object.
+	 * Throws a {@link SoffitException} if the document is malformed, or if there are no documents left.
+	 * @return The SOFFIT root object as parsed from the stream.
+	 * @throws SoffitException
+	 * @throws IOException
+	 */
+	public SoffitObject next() throws SoffitException, IOException {
+		SoffitTreeBuilder builder = new SoffitTreeBuilder();
+		next(builder);
+		return builder.getRoot();
+	}
+	
+	/**
+	 * Parses the next document in the stream, passing everything in it to a {@link SoffitHandler} rather than building SoffitObjects.
+	 * Throws a {@link SoffitException} if the document is malformed, or if there are no documents left.
+	 * If the handler throws an exception, the rest of the document is skipped the same way as a malformed document.
+	 * @param handler
+	 * @throws SoffitException
+	 * @throws IOException
+	 */
+	public void next(SoffitHandler handler) throws SoffitException, IOException {
+		if(!hasNext())
+			throw new SoffitException("No SOFFIT documents are left in the stream.");
+		
+		peeked = false;
+		try {
+			if(!lines.isHeader())
+				throw new SoffitException("SOFFIT header not found.");
+			
+			lines.inDocument = true;
+			SoffitUtil.parseObject(lines, handler, tokenizer, parseNumbers, projection, true);
+		} catch (RuntimeException e) {
+			lines.inDocument = false;
+			skipDocument();
+			throw e;
+		}
+		lines.inDocument = false;
+	}
+	
+	/**
+	 * Closes the underlying stream.
+	 * @throws IOException
+	 */
+	@Override
+	public void close() throws IOException {
+		input.close();
+	}
+	
+	/**
+	 * Skips the rest of a document that could not be read, up to and including its footer, or up to the header of the next document.
+	 * If a header is found, it is kept as the first line of the next document.
+	 * @throws IOException
+	 */
+	private void skipDocument() throws IOException {
+		if(lines.partial) {
+			skipRestOfLine();
+		} else if(lines.isFooter()) {
+			return;
+		} else if(lines.cutOff) {
+			lines.cutOff = false;
+			keepHeader();
+			return;
+		}
+		
+		while(true) {
+			try {
+				if(!lines.nextLine()) {
+					peeked = true;
+					available = false;
+					return;
+				}
+			} catch (SoffitException e) {
+				//A line too long to buffer can be neither a header nor a footer.
+				skipRestOfLine();
+				continue;
+			}
+			
+			if(lines.isFooter())
+				return;
+			
+			if(lines.isHeader()) {
+				keepHeader();
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Keeps the current line, which is a header, as the first line of the next document.
+	 */
+	private void keepHeader() {
+		lines.lineNumber = 1;
+		peeked = true;
+		available = true;
+	}
+	
+	/**
+	 * Consumes everything up to and including the next line terminator, without buffering more than one block of it at a time.
+	 * @throws IOException
+	 */
+	private void skipRestOfLine() throws IOException {
+		while(true) {
+			byte[] b = input.buffer;
+			for(int i = input.pos; i < input.limit; i++) {
+				if(b[i] == (byte) '\n') {
+					input.pos = i + 1;
+					return;
+				}
+			}
+			
+			input.pos = input.limit;
+			if(input.fill() == -1)
+				return;
+		}
+	}
+}
@@ -0,0 +1,326 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * A non-blocking SOFFIT parser that is pushed bytes as they arrive, rather than pulling them from an {@link InputStream}.
+ * This suits selector-based servers, which can't block waiting on the rest of a document.
+ * Chunks may be split anywhere, including in the middle of a line or an escape sequence; only the unfinished last line of each chunk is kept until the rest of it arrives.
+ * Complete lines within an array-backed ByteBuffer are parsed straight out of its array without being copied.
+ * <p>
+ * Any number of documents may be fed one after the other.
+ * Finished documents are either built into SoffitObjects and handed out by {@link #poll()}, or passed to a {@link SoffitHandler} as they are parsed.
+ * <p>
+ * If a document is malformed, the exception is thrown by the call to feed() that reached the problem, and the rest of the document is skipped,
+ * the same way as {@link SoffitDocumentReader} does.
+ * The ByteBuffer's position is left just past the line that caused the exception, so feeding the same buffer again carries on with whatever came after it.
+ * <p>
+ * A SoffitFeedParser is not safe to use from several threads at once.
+ */
+public class SoffitFeedParser {
+	
+	//States
+	private static final int BETWEEN_DOCUMENTS = 0;
+	private static final int IN_DOCUMENT = 1;
+	private static final int SKIPPING_DOCUMENT = 2;
+	
+	private final SoffitHandler handler;
+	private final LineTokenizer tokenizer;
+	private final boolean parseNumbers;
+	private final int maxLineLength;
+	
+	//Documents that were built and not yet handed out.  Only used when there is no handler.
+	private final ArrayDeque<SoffitObject> finished = new ArrayDeque<>();
+	private SoffitTreeBuilder builder = null;
+	
+	private int state = BETWEEN_DOCUMENTS;
+	//Number of objects currently open
+	private int depth = 0;
+	//Line number within the current document, counted from the end of the last one
+	private int lineNumber = 0;
+	
+	//The unfinished line at the end of the last chunk
+	private byte[] partial;
+	private int partialLength = 0;
+	//Set when the rest of a line that was too long is being thrown away
+	private boolean skippingLine = false;
+	
+	/**
+	 * Constructs a SoffitFeedParser that builds each document into a SoffitObject, which can be retrieved with {@link #poll()}.
+	 */
+	public SoffitFeedParser() {
+		this(null, new SoffitReadOptions());
+	}
+	
+	/**
+	 * Constructs a SoffitFeedParser that builds each document into a SoffitObject using the passed {@link SoffitReadOptions}.
+	 * @param options
+	 */
+	public SoffitFeedParser(SoffitReadOptions options) {
+		this(null, options);
+	}
+	
+	/**
+	 * Constructs a SoffitFeedParser that passes everything it parses to a {@link SoffitHandler}.
+	 * The handler's endDocument() is called at the end of each document.
+	 * @param handler
+	 */
+	public SoffitFeedParser(SoffitHandler handler) {
+		this(handler, new SoffitReadOptions());
+	}
+	
+	/**
+	 * Constructs a SoffitFeedParser that passes everything it parses to a {@link SoffitHandler} using the passed {@link SoffitReadOptions}.
+	 * The handler's endDocument() is called at the end of each document.
+	 * If a document is malformed, the handler will have received part of it without an endDocument().
+	 * @param handler
+	 * @param options
+	 */
+	public SoffitFeedParser(SoffitHandler handler, SoffitReadOptions options) {
+		this.handler = handler;
+		maxLineLength = options.getMaxLineLength();
+		//The buffers belong to this parser, since they are kept for as long as it is.
+		tokenizer = new LineTokenizer(new ArrayOutputStream(Math.min(ArrayOutputStream.INITIAL_SIZE, maxLineLength), maxLineLength), options.symbols());
+		parseNumbers = options.getParseNumbers();
+		partial = new byte[Math.min(ArrayOutputStream.INITIAL_SIZE, maxLineLength)];
+	}
+	
+	/**
+	 * Parses every complete line in the buffer, and keeps any unfinished line at the end of it until more bytes are fed.
+	 * Everything from the buffer's position to its limit is consumed, unless an exception is thrown.
+	 * @param input
+	 * @throws SoffitException
+	 */
+	public void feed(ByteBuffer input) throws SoffitException {
+		while(input.hasRemaining()) {
+			int pos = input.position();
+			int limit = input.limit();
+			int newline = indexOfNewline(input, pos, limit);
+			
+			if(newline < 0) {
+				input.position(limit);
+				if(!skippingLine) {
+					if(limit - pos > maxLineLength - partialLength)
+						throw lineTooLong(false);
+					append(input, pos, limit);
+				}
+				return;
+			}
+			
+			input.position(newline + 1);
+			if(skippingLine) {
+				skippingLine = false;
+				continue;
+			}
+			
+			if(newline - pos > maxLineLength - partialLength)
+				throw lineTooLong(true);
+			
+			if(partialLength == 0 && input.hasArray()) {
+				int offset = input.arrayOffset();
+				line(input.array(), offset + pos, offset + newline);
+			} else {
+				append(input, pos, newline);
+				int length = partialLength;
+				partialLength = 0;
+				line(partial, 0, length);
+			}
+		}
+	}
+	
+	/**
+	 * Tells the parser that no more bytes are coming.
+	 * An unfinished last line is parsed as if it were terminated.
+	 * Throws a {@link SoffitException} if a document was left unfinished.
+	 * @throws SoffitException
+	 */
+	public void endOfInput() throws SoffitException {
+		if(skippingLine) {
+			skippingLine = false;
+		} else if(partialLength > 0) {
+			int length = partialLength;
+			partialLength = 0;
+			line(partial, 0, length);
+		}
+		
+		boolean incomplete = state == IN_DOCUMENT;
+		endDocument();
+		if(incomplete)
+			throw new SoffitException("Incomplete SOFFIT stream.");
+	}
+	
+	/**
+	 * Returns the next document that was fully parsed, or null if there isn't one yet.
+	 * Documents are only built when the parser was constructed without a {@link SoffitHandler}.
+	 * @return
+	 */
+	public SoffitObject poll() {
+		return finished.poll();
+	}
+	
+	/**
+	 * Returns true if the parser is partway through a document.
+	 * @return
+	 */
+	public boolean isInDocument() {
+		return state == IN_DOCUMENT;
+	}
+	
+	/**
+	 * Parses a single line in the range [start, end) of buffer, excluding the line terminator.
+	 */
+	private void line(byte[] buffer, int start, int end) {
+		lineNumber++;
+		
+		while(start < end && LineSource.isWhitespace(buffer[start]))
+			start++;
+		while(end > start && LineSource.isWhitespace(buffer[end - 1]))
+			end--;
+		
+		//Skip blank lines and comments
+		if(start == end || buffer[start] == (byte) '#')
+			return;
+		
+		boolean header = LineSource.isToken(buffer, start, end, SoffitUtil.SOFFIT_START_BYTES);
+		
+		switch(state) {
+		case BETWEEN_DOCUMENTS:
+			if(!header) {
+				//A stray footer ends whatever came before it.
+				if(!LineSource.isFooter(buffer, start, end))
+					state = SKIPPING_DOCUMENT;
+				throw new SoffitException("SOFFIT header not found.");
+			}
+			startDocument();
+			break;
+		case IN_DOCUMENT:
+			if(header) {
+				//The document was cut off, so this header starts the next one.
+				int cutOff = lineNumber;
+				startDocument();
+				throw new SoffitException("SOFFIT header encountered before the end of the document.", cutOff);
+			}
+			
+			try {
+				depth = SoffitUtil.parseLine(buffer, start, end, lineNumber, depth, handler == null ? builder : handler, tokenizer, parseNumbers);
+			} catch (RuntimeException e) {
+				if(LineSource.isFooter(buffer, start, end))
+					endDocument();
+				else
+					state = SKIPPING_DOCUMENT;
+				throw e;
+			}
+			
+			if(depth < 0) {
+				if(handler == null)
+					finished.add(builder.getRoot());
+				endDocument();
+			}
+			break;
+		default:
+			if(header)
+				startDocument();
+			else if(LineSource.isFooter(buffer, start, end))
+				endDocument();
+		}
+	}
+	
+	private void startDocument() {
+		state = IN_DOCUMENT;
+		depth = 0;
+		lineNumber = 1;
+		if(handler == null)
+			builder = new SoffitTreeBuilder();
+	}
+	
+	private void endDocument() {
+		state = BETWEEN_DOCUMENTS;
+		depth = 0;
+		lineNumber = 0;
+		builder = null;
+	}
+	
+	/**
+	 * Adds the bytes in the range [start, end) of input to the unfinished line.
+	 * The line must not end up longer than the maximum line length.
+	 */
+	private void append(ByteBuffer input, int start, int end) {
+		int count = end - start;
+		if(count > partial.length - partialLength) {
+			long size = Math.max((long) partial.length * 2, (long) partialLength + count);
+			byte[] grown = new byte[(int) Math.min(size, maxLineLength)];
+			System.arraycopy(partial, 0, grown, 0, partialLength);
+			partial = grown;
+		}
+		
+		//Read from a duplicate so the position of input is left alone
+		ByteBuffer source = input.duplicate();
+		source.position(start);
+		source.get(partial, partialLength, count);
+		partialLength += count;
+	}
+	
+	/**
+	 * Throws away a line that is longer than the maximum line length, along with the rest of its document, and returns the exception to throw.
+	 * A line that is too long can be neither a header nor a footer.
+	 * @param terminated Whether the end of the line was already reached.  If not, the rest of it is thrown away as it arrives.
+	 */
+	private SoffitException lineTooLong(boolean terminated) {
+		partialLength = 0;
+		skippingLine = !terminated;
+		lineNumber++;
+		state = SKIPPING_DOCUMENT;
+		return new SoffitException("SOFFIT line buffer with " + maxLineLength + " byte capacity was overfilled");
+	}
+	
+	private static int indexOfNewline(ByteBuffer input, int pos, int limit) {
+		if(input.hasArray()) {
+			byte[] array = input.array();
+			int offset = input.arrayOffset();
+			for(int i = offset + pos; i < offset + limit; i++) {
+				if(array[i] == (byte) '\n')
+					return i - offset;
+			}
+			return -1;
+		}
+		
+		for(int i = pos; i < limit; i++) {
+			if(input.get(i) == (byte) '\n')
+				return i;
+		}
+		return -1;
+	}
+}
@@ -39,9 +39,10 @@ public class SoffitField {
 	private SoffitObject parent = null;
 	
 	private String name;
+	//Null if the value was set with one of the primitive put() methods and hasn't been asked for as a String yet, in which case typed holds it instead.
 	private String value;
-	
-	private int level = -1;
+	//The value as a primitive, from the last put() or as*() call, so it doesn't have to be parsed again.
+	private TypedValue typed = null;
 	
 	/**
 	 * Constructs a SoffitField with a specified name and value.
@@ -72,10 +73,21 @@ public class SoffitField {
 	
 	/**
 	 * Returns the value of this SoffitField.
+	 * If the value was set with one of the primitive put() methods, it is formatted with String.valueOf() the first time this is called,
+	 * and the same String is returned from then on, until the value is set again.
 	 * @return
 	 */
 	public String getValue() {
-		return value;
+		String v = value;
+		if(v == null) {
+			TypedValue t = typed;
+			if(t != null) {
+				//typed still holds the primitive, so as*() calls don't have to parse it.
+				v = t.toString();
+				value = v;
+			}
+		}
+		return v;
 	}
 	
 	/**
@@ -84,7 +96,7 @@ public class SoffitField {
 	 * @return
 	 */
 	public String value() {
-		return value;
+		return getValue();
 	}
 	
 	/**
@@ -93,6 +105,7 @@ public class SoffitField {
 	 */
 	public void setValue(String value) {
 		this.value = value;
+		typed = null;
 	}
 	
 	/**
@@ -102,69 +115,77 @@ public class SoffitField {
 	 */
 	public void put(String value) {
 		this.value = value;
+		typed = null;
 	}
 	
 	/**
 	 * Sets the value of this SoffitField to the boolean passed.
-	 * This uses String.valueOf().
+	 * The value is kept as it is, and is only formatted with String.valueOf() when it is written or asked for as a String.
 	 * @param value
 	 */
 	public void put(boolean value) {
-		this.value = String.valueOf(value);
+		this.value = null;
+		typed = TypedValue.ofBoolean(value);
 	}
 	
 	/**
 	 * Sets the value of this SoffitField to the byte passed.
-	 * This uses String.valueOf().
+	 * The value is kept as it is, and is only formatted with String.valueOf() when it is written or asked for as a String.
 	 * @param value
 	 */
 	public void put(byte value) {
-		this.value = String.valueOf(value);
+		this.value = null;
+		typed = TypedValue.ofLong(value);
 	}
 	
 	/**
 	 * Sets the value of this SoffitField to the short passed.
-	 * This uses String.valueOf().
+	 * The value is kept as it is, and is only formatted with String.valueOf() when it is written or asked for as a String.
 	 * @param value
 	 */
 	public void put(short value) {
-		this.value = String.valueOf(value);
+		this.value = null;
+		typed = TypedValue.ofLong(value);
 	}
 
 	/**
 	 * Sets the value of this SoffitField to the int passed.
-	 * This uses String.valueOf().
+	 * The value is kept as it is, and is only formatted with String.valueOf() when it is written or asked for as a String.
 	 * @param value
 	 */
 	public void put(int value) {
-		this.value = String.valueOf(value);
+		this.value = null;
+		typed = TypedValue.ofLong(value);
 	}
 
 	/**
 	 * Sets the value of this SoffitField to the long passed.
-	 * This uses String.valueOf().
+	 * The value is kept as it is, and is only formatted with String.valueOf() when it is written or asked for as a String.
 	 * @param value
 	 */
 	public void put(long value) {
-		this.value = String.valueOf(value);
+		this.value = null;
+		typed = TypedValue.ofLong(value);
 	}
 
 	/**
 	 * Sets the value of this SoffitField to the float passed.
-	 * This uses String.valueOf().
+	 * The value is kept as it is, and is only formatted with String.valueOf() when it is written or asked for as a String.
 	 * @param value
 	 */
 	public void put(float value) {
-		this.value = String.valueOf(value);
+		this.value = null;
+		typed = TypedValue.ofFloat(value);
 	}
 
 	/**
 	 * Sets the value of this SoffitField to the double passed.
-	 * This uses String.valueOf().
+	 * The value is kept as it is, and is only formatted with String.valueOf() when it is written or asked for as a String.
 	 * @param value
 	 */
 	public void put(double value) {
-		this.value = String.valueOf(value);
+		this.value = null;
+		typed = TypedValue.ofDouble(value);
 	}
 	
 	/**
@@ -173,70 +194,202 @@ public class SoffitField {
 	 * @return
 	 */
 	public String asString() {
-		return value;
+		return getValue();
 	}
 	
 	/**
 	 * Returns the value of this SoffitField as a boolean.
-	 * This calls Boolean.parseBoolean().
+	 * This calls Boolean.parseBoolean(), and the result is kept until the value changes.
 	 * @return
 	 */
 	public boolean asBool() {
-		return Boolean.parseBoolean(value);
+		TypedValue t = typed;
+		if(t != null && t.kind == TypedValue.BOOLEAN)
+			return t.bits != 0;
+		
+		String v = value;
+		if(v == null)
+			return Boolean.parseBoolean(getValue());
+		
+		boolean b = Boolean.parseBoolean(v);
+		typed = TypedValue.ofBoolean(b);
+		return b;
 	}
 	
 	/**
 	 * Returns the value of this SoffitField as a byte.
-	 * This calls Byte.parseByte().
+	 * This accepts the same values as Byte.parseByte(), and the result is kept until the value changes.
 	 * @return
 	 */
 	public byte asByte() throws NumberFormatException {
-		return Byte.parseByte(value);
+		long l = asLong();
+		if(l < Byte.MIN_VALUE || l > Byte.MAX_VALUE)
+			return Byte.parseByte(getValue());
+		return (byte) l;
 	}
 	
 	/**
-	 * Returns the value of this SoffitField as a byte.
-	 * This calls Byte.parseShort().
+	 * Returns the value of this SoffitField as a short.
+	 * This accepts the same values as Short.parseShort(), and the result is kept until the value changes.
 	 * @return
 	 */
 	public short asShort() throws NumberFormatException {
-		return Short.parseShort(value);
+		long l = asLong();
+		if(l < Short.MIN_VALUE || l > Short.MAX_VALUE)
+			return Short.parseShort(getValue());
+		return (short) l;
 	}
 	
 	/**
 	 * Returns the value of this SoffitField as an int.
-	 * This calls Integer.parseInt().
+	 * This accepts the same values as Integer.parseInt(), and the result is kept until the value changes.
 	 * @return
 	 */
 	public int asInt() throws NumberFormatException {
-		return Integer.parseInt(value);
+		long l = asLong();
+		if(l < Integer.MIN_VALUE || l > Integer.MAX_VALUE)
+			return Integer.parseInt(getValue());
+		return (int) l;
 	}
 	
 	/**
 	 * Returns the value of this SoffitField as a long.
-	 * This calls Long.parseLong().
+	 * This accepts the same values as Long.parseLong(), and the result is kept until the value changes.
 	 * @return
 	 */
 	public long asLong() throws NumberFormatException {
-		return Long.parseLong(value);
+		TypedValue t = typed;
+		if(t != null && t.kind == TypedValue.LONG)
+			return t.bits;
+		
+		String v = value;
+		if(v == null)
+			return Long.parseLong(getValue());
+		
+		t = TypedValue.parseLong(v);
+		//Let Long.parseLong() deal with anything unusual, including throwing the exception.
+		if(t == null)
+			return Long.parseLong(v);
+		
+		typed = t;
+		return t.bits;
 	}
 	
 	/**
 	 * Returns the value of this SoffitField as a float.
-	 * This calls Float.parseFloat().
+	 * This calls Float.parseFloat(), and the result is kept until the value changes.
 	 * @return
 	 */
 	public float asFloat() throws NumberFormatException {
-		return Float.parseFloat(value);
+		TypedValue t = typed;
+		if(t != null && t.kind == TypedValue.FLOAT)
+			return t.floatValue();
+		
+		String v = value;
+		if(v == null)
+			return Float.parseFloat(getValue());
+		
+		float f = Float.parseFloat(v);
+		typed = TypedValue.ofFloat(f);
+		return f;
 	}
 	
 	/**
 	 * Returns the value of this SoffitField as a double.
-	 * This calls Double.parseDouble().
+	 * This calls Double.parseDouble(), and the result is kept until the value changes.
 	 * @return
 	 */
 	public double asDouble() throws NumberFormatException {
-		return Double.parseDouble(value);
+		TypedValue t = typed;
+		if(t != null && t.kind == TypedValue.DOUBLE)
+			return t.doubleValue();
+		
+		String v = value;
+		if(v == null)
+			return Double.parseDouble(getValue());
+		
+		double d = Double.parseDouble(v);
+		typed = TypedValue.ofDouble(d);
+		return d;
+	}
+	
+	/**
+	 * Returns the value as a long, or defaultValue if it isn't one.
+	 * Unlike asLong(), this never throws an exception.
+	 * @param defaultValue
+	 * @return
+	 */
+	long asLong(long defaultValue) {
+		TypedValue t = typed;
+		if(t != null && t.kind == TypedValue.LONG)
+			return t.bits;
+		
+		String v = value;
+		String s = v == null ? getValue() : v;
+		t = TypedValue.parseLong(s);
+		if(t == null)
+			return parseUnusualLong(s, defaultValue);
+		
+		if(v != null)
+			typed = t;
+		return t.bits;
+	}
+	
+	/**
+	 * Long.parseLong() also accepts digits from other scripts, which TypedValue.parseLong() leaves to it.
+	 * Only strings with a character outside of ASCII are passed on, so the usual strings that aren't numbers don't cost an exception.
+	 */
+	private static long parseUnusualLong(String s, long defaultValue) {
+		if(s == null)
+			return defaultValue;
+		
+		for(int i = 0; i < s.length(); i++) {
+			if(s.charAt(i) >= 0x80) {
+				try {
+					return Long.parseLong(s);
+				} catch (NumberFormatException e) {
+					return defaultValue;
+				}
+			}
+		}
+		return defaultValue;
+	}
+	
+	/**
+	 * Returns the value as a double, or defaultValue if it isn't one.
+	 * Unlike asDouble(), this never throws an exception.
+	 * @param defaultValue
+	 * @return
+	 */
+	double asDouble(double defaultValue) {
+		TypedValue t = typed;
+		if(t != null && t.kind == TypedValue.DOUBLE)
+			return t.doubleValue();
+		//Converting a long rounds the same way parsing its digits would.
+		if(t != null && t.kind == TypedValue.LONG)
+			return t.bits;
+		
+		String v = getValue();
+		if(v == null || v.isEmpty())
+			return defaultValue;
+		
+		try {
+			return asDouble();
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+	
+	/**
+	 * Returns the value if it was set with one of the primitive put() methods and hasn't been formatted as a String.
+	 * Returns null otherwise.
+	 * @return
+	 */
+	TypedValue unformattedValue() {
+		if(value == null)
+			return typed;
+		
+		return null;
 	}
 	
 	/**
@@ -254,7 +407,10 @@ public class SoffitField {
 	 * @return
 	 */
 	public int getNestingLevel() {
-		return level;
+		if(parent == null)
+			return -1;
+		else
+			return parent.getNestedLevel() + 1;
 	}
 	
 	/**
@@ -262,7 +418,7 @@ public class SoffitField {
 	 */
 	@Override
 	public String toString() {
-		return value;
+		return getValue();
 	}
 	
 	/**
@@ -272,18 +428,5 @@ public class SoffitField {
 	 */
 	protected void setParent(SoffitObject parent) {
 		this.parent = parent;
-		calcNestingLevel(this.parent);
-	}
-	
-	/**
-	 * Calculates how deeply nested this field is.
-	 * It is really only called internally when adding a field to another object.
-	 * @param parent
-	 */
-	protected void calcNestingLevel(SoffitObject parent) {
-		if(parent == null)
-			level = 0;
-		else			
-			level = parent.getNestedLevel() + 1;
 	}
 }
@@ -0,0 +1,76 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit;
+
+/**
+ * Receives the contents of a SOFFIT stream as it is parsed by {@link SoffitUtil#ReadStream(java.io.InputStream, SoffitHandler)}.
+ * Nothing is kept in memory by the parser itself, so a handler that only needs a few values never has to build a tree of SoffitObjects.
+ * {@link SoffitTreeBuilder} is the handler that builds a tree, as ReadStream normally does.
+ * Any exception thrown by a handler stops the parse.
+ */
+public interface SoffitHandler {
+	
+	/**
+	 * Called for each object declaration.
+	 * Everything reported until the matching endObject() call belongs to this object.
+	 * @param type
+	 * @param name The name of the object, or null if it is unnamed.
+	 */
+	public void startObject(String type, String name);
+	
+	/**
+	 * Called for each field.
+	 * @param name
+	 * @param value The value of the field.  Null fields have a blank value.
+	 */
+	public void field(String name, String value);
+	
+	/**
+	 * Called instead of field(String, String) for whole number values when {@link SoffitReadOptions#setParseNumbers(boolean)} is enabled.
+	 * By default, the value is formatted with String.valueOf() and passed to field(String, String).
+	 * @param name
+	 * @param value
+	 */
+	public default void field(String name, long value) {
+		field(name, String.valueOf(value));
+	}
+	
+	/**
+	 * Called for the closing bracket of an object.
+	 */
+	public void endObject();
+	
+	/**
+	 * Called once the SOFFIT footer is reached.
+	 */
+	public void endDocument();
+}
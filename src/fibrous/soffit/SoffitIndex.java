@@ -0,0 +1,418 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.util.ArrayList;
+
+/**
+ * A compact record of the structure of a SOFFIT stream, used by {@link LazySoffitObject}.
+ * Each object and field is a node made up of a few ints in a single array.
+ * Object types, object names, field names, and field values are only kept as bytes, and are decoded into Strings when a node is accessed.
+ * When the stream is a memory mapped file, the bytes are left in the file, and each node only records where they are.
+ * Otherwise, they are copied into arrays of {@value #SEGMENT_SIZE} bytes, so there is no limit on how much of them there can be.
+ * Node 0 is the root object.
+ */
+class SoffitIndex {
+	//Layout of a node within the nodes array.  The key and value of a node are kept together, starting at a long position split into two ints.
+	private static final int POSITION_HIGH = 0;
+	private static final int POSITION_LOW = 1;
+	private static final int KEY_LENGTH = 2;
+	//Where the value starts, from the start of the key
+	private static final int VALUE_OFFSET = 3;
+	private static final int VALUE_LENGTH = 4;
+	private static final int FLAGS = 5;
+	private static final int NEXT_SIBLING = 6;
+	private static final int FIRST_FIELD = 7;
+	private static final int FIRST_OBJECT = 8;
+	private static final int NODE_SIZE = 9;
+	
+	private static final int FLAG_OBJECT = 1;
+	private static final int FLAG_ESCAPED = 2;
+	
+	//Largest array the JVM will reliably allocate
+	static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+	//Arrays double in size up to this length, and grow by a quarter after that.
+	private static final int DOUBLING_LIMIT = 1 << 30;
+	
+	//Size of each array that copied keys and values are kept in
+	static final int SEGMENT_SIZE = 1 << 20;
+	
+	private int[] nodes = new int[NODE_SIZE * 64];
+	private int nodeCount = 0;
+	
+	//Where the keys and values are
+	private final Data data;
+	
+	//Used for decoding escape sequences.  A decoded value is never longer than the bytes it was decoded from, so this only needs to be able to grow.
+	private final ArrayOutputStream internalStream = new ArrayOutputStream(1024, Integer.MAX_VALUE - 8);
+	
+	//Used for decoding object types and field names
+	private final SoffitSymbolTable symbols;
+	
+	private SoffitIndex(Data data, SoffitSymbolTable symbols) {
+		this.data = data;
+		this.symbols = symbols;
+	}
+	
+	/**
+	 * Reads a SOFFIT stream, including its header, into a new SoffitIndex.
+	 * Throws a {@link SoffitException} for the same problems that ReadStream does.
+	 * @param lines
+	 * @param symbols Used for decoding object types and field names when they are accessed.
+	 * @return
+	 * @throws SoffitException
+	 * @throws IOException
+	 */
+	static SoffitIndex build(LineSource lines, SoffitSymbolTable symbols) throws SoffitException, IOException {
+		if(!lines.nextLine() || !SoffitUtil.areBytesEqual(lines.copyLine(), SoffitUtil.SOFFIT_START_BYTES))
+			throw new SoffitException("SOFFIT header not found.");
+		
+		Data data = lines instanceof MappedLineSource ? new MappedData((MappedLineSource) lines) : new CopiedData();
+		SoffitIndex index = new SoffitIndex(data, symbols);
+		LineTokenizer tokenizer = new LineTokenizer(index.internalStream, null);
+		
+		//For every open object, the node of the object and its last field and object.
+		int[] stack = new int[3 * 16];
+		int depth = 0;
+		stack[0] = index.newNode(FLAG_OBJECT);
+		stack[1] = -1;
+		stack[2] = -1;
+		
+		while(true) {
+			//If we didn't get anything, then break out.
+			if(!lines.nextLine())
+				throw new SoffitException("Incomplete SOFFIT stream.");
+			
+			tokenizer.tokenize(lines.buffer, lines.start, lines.end, lines.lineNumber);
+			
+			if(tokenizer.kind == LineTokenizer.CLOSING_BRACKET) {
+				if(depth == 0)
+					throw new SoffitException("SOFFIT stream contained too many closing brackets.", lines.lineNumber);
+				depth--;
+				continue;
+			}
+			
+			if(tokenizer.kind == LineTokenizer.FOOTER) {
+				if(depth > 0)
+					throw new SoffitException("SOFFIT footer encountered in non-root object.", lines.lineNumber);
+				break;
+			}
+			
+			//Validate escape sequences now, rather than when the value is accessed.
+			if(tokenizer.escaped)
+				tokenizer.value(lines.lineNumber);
+			
+			int base = depth * 3;
+			boolean isObject = tokenizer.kind == LineTokenizer.OBJECT;
+			int flags = (isObject ? FLAG_OBJECT : 0) | (tokenizer.escaped ? FLAG_ESCAPED : 0);
+			int node = index.addNode(tokenizer, flags);
+			
+			//Link the node to its parent or previous sibling
+			int slot = isObject ? base + 2 : base + 1;
+			if(stack[slot] < 0)
+				index.nodes[stack[base] * NODE_SIZE + (isObject ? FIRST_OBJECT : FIRST_FIELD)] = node;
+			else
+				index.nodes[stack[slot] * NODE_SIZE + NEXT_SIBLING] = node;
+			stack[slot] = node;
+			
+			if(isObject) {
+				depth++;
+				if(stack.length < (depth + 1) * 3) {
+					int[] grown = new int[stack.length * 2];
+					System.arraycopy(stack, 0, grown, 0, stack.length);
+					stack = grown;
+				}
+				stack[depth * 3] = node;
+				stack[depth * 3 + 1] = -1;
+				stack[depth * 3 + 2] = -1;
+			}
+		}
+		
+		return index;
+	}
+	
+	private int addNode(LineTokenizer tokenizer, int flags) {
+		int node = newNode(flags);
+		int n = node * NODE_SIZE;
+		
+		int end = tokenizer.hasValue() ? tokenizer.valueEnd : tokenizer.keyEnd;
+		long position = data.add(tokenizer.buffer, tokenizer.keyStart, end);
+		nodes[n + POSITION_HIGH] = (int) (position >>> 32);
+		nodes[n + POSITION_LOW] = (int) position;
+		nodes[n + KEY_LENGTH] = tokenizer.keyEnd - tokenizer.keyStart;
+		if(tokenizer.hasValue()) {
+			nodes[n + VALUE_OFFSET] = tokenizer.valueStart - tokenizer.keyStart;
+			nodes[n + VALUE_LENGTH] = tokenizer.valueEnd - tokenizer.valueStart;
+		}
+		
+		return node;
+	}
+	
+	private int newNode(int flags) {
+		long needed = ((long) nodeCount + 1) * NODE_SIZE;
+		if(needed > nodes.length) {
+			if(needed > MAX_ARRAY_LENGTH)
+				throw new SoffitException("SOFFIT stream has more than the " + (MAX_ARRAY_LENGTH / NODE_SIZE) + " objects and fields a lazy index can hold");
+			
+			int[] grown = new int[grownLength(nodes.length, needed)];
+			System.arraycopy(nodes, 0, grown, 0, nodes.length);
+			nodes = grown;
+		}
+		
+		int n = nodeCount * NODE_SIZE;
+		nodes[n + POSITION_HIGH] = 0;
+		nodes[n + POSITION_LOW] = 0;
+		nodes[n + KEY_LENGTH] = 0;
+		nodes[n + VALUE_OFFSET] = -1;
+		nodes[n + VALUE_LENGTH] = 0;
+		nodes[n + FLAGS] = flags;
+		nodes[n + NEXT_SIBLING] = -1;
+		nodes[n + FIRST_FIELD] = -1;
+		nodes[n + FIRST_OBJECT] = -1;
+		
+		return nodeCount++;
+	}
+	
+	/**
+	 * Returns the length to grow an array to so that it holds at least needed elements, which must not be more than {@link #MAX_ARRAY_LENGTH}.
+	 * Large arrays grow by less than double, so that a file just over a power of two doesn't need nearly twice its size.
+	 */
+	private static int grownLength(int length, long needed) {
+		long grown = length < DOUBLING_LIMIT ? (long) length * 2 : length + (length >> 2);
+		return (int) Math.min(MAX_ARRAY_LENGTH, Math.max(grown, needed));
+	}
+	
+	/**
+	 * Returns the first field of an object, or -1 if it has none.
+	 */
+	int firstField(int node) {
+		return nodes[node * NODE_SIZE + FIRST_FIELD];
+	}
+	
+	/**
+	 * Returns the first object within an object, or -1 if it has none.
+	 */
+	int firstObject(int node) {
+		return nodes[node * NODE_SIZE + FIRST_OBJECT];
+	}
+	
+	/**
+	 * Returns the next field or object of the same parent, or -1 if there are no more.
+	 */
+	int next(int node) {
+		return nodes[node * NODE_SIZE + NEXT_SIBLING];
+	}
+	
+	/**
+	 * Returns how many fields are in an object.
+	 */
+	int fieldCount(int node) {
+		int count = 0;
+		for(int i = firstField(node); i >= 0; i = next(i))
+			count++;
+		return count;
+	}
+	
+	/**
+	 * Returns how many objects are in an object.
+	 */
+	int objectCount(int node) {
+		int count = 0;
+		for(int i = firstObject(node); i >= 0; i = next(i))
+			count++;
+		return count;
+	}
+	
+	private long position(int n) {
+		return ((long) nodes[n + POSITION_HIGH] << 32) | (nodes[n + POSITION_LOW] & 0xFFFFFFFFL);
+	}
+	
+	/**
+	 * Decodes the object type or field name of a node.
+	 */
+	String key(int node) {
+		int n = node * NODE_SIZE;
+		int length = nodes[n + KEY_LENGTH];
+		int start = data.load(position(n), length);
+		return symbols.intern(data.bytes, start, length);
+	}
+	
+	/**
+	 * Decodes the object name or field value of a node, converting any escape sequences.
+	 * Returns null if the node does not have one.
+	 */
+	String value(int node) {
+		int n = node * NODE_SIZE;
+		int offset = nodes[n + VALUE_OFFSET];
+		if(offset < 0)
+			return null;
+		
+		int length = nodes[n + VALUE_LENGTH];
+		int start = data.load(position(n) + offset, length);
+		if((nodes[n + FLAGS] & FLAG_ESCAPED) == 0)
+			return LineTokenizer.decode(data.bytes, start, length);
+		
+		internalStream.reset();
+		SoffitUtil.convertFromEscapeSequence(data.bytes, start, start + length, internalStream);
+		return LineTokenizer.decode(internalStream.buffer, 0, internalStream.pos);
+	}
+	
+	/**
+	 * Returns true if the object type or field name of a node equals s.
+	 */
+	boolean keyEquals(int node, String s) {
+		int n = node * NODE_SIZE;
+		return bytesEqual(position(n), nodes[n + KEY_LENGTH], s);
+	}
+	
+	/**
+	 * Returns true if the object name or field value of a node equals s.
+	 * A node without one is treated as blank, the same way {@link SoffitObject#getName()} is.
+	 */
+	boolean valueEquals(int node, String s) {
+		int n = node * NODE_SIZE;
+		int offset = nodes[n + VALUE_OFFSET];
+		if(offset < 0)
+			return s.isEmpty();
+		
+		if((nodes[n + FLAGS] & FLAG_ESCAPED) != 0)
+			return value(node).equals(s);
+		
+		return bytesEqual(position(n) + offset, nodes[n + VALUE_LENGTH], s);
+	}
+	
+	/**
+	 * Compares bytes to a String without decoding them, falling back to decoding for anything that isn't ASCII.
+	 */
+	private boolean bytesEqual(long position, int length, String s) {
+		//UTF-8 never takes fewer bytes than UTF-16 takes chars, so this rules most keys out without loading them.
+		if(length < s.length())
+			return false;
+		
+		int start = data.load(position, length);
+		byte[] b = data.bytes;
+		for(int i = 0; i < length; i++) {
+			if(b[start + i] < 0)
+				return LineTokenizer.decode(b, start, length).equals(s);
+			if(i >= s.length() || b[start + i] != s.charAt(i))
+				return false;
+		}
+		
+		return length == s.length();
+	}
+	
+	/**
+	 * Where the keys and values of the nodes are kept.
+	 * Each node's key and value are kept together, in the same order as in its line, and are found by a long position.
+	 */
+	private abstract static class Data {
+		//Set by load() to the array holding the requested bytes
+		byte[] bytes;
+		
+		/**
+		 * Records bytes [from, to) of the current line, and returns their position.
+		 */
+		abstract long add(byte[] line, int from, int to);
+		
+		/**
+		 * Makes sure the length bytes at position are in bytes, and returns where they start within it.
+		 */
+		abstract int load(long position, int length);
+	}
+	
+	/**
+	 * Copies keys and values into a list of arrays.
+	 * A position is the index of the array in the upper 32 bits, and where the bytes start within it in the lower 32 bits.
+	 * The bytes of a node are never split between two arrays.
+	 */
+	private static final class CopiedData extends Data {
+		private final ArrayList<byte[]> segments = new ArrayList<>();
+		private byte[] segment = new byte[0];
+		private int segmentLength = 0;
+		
+		@Override
+		long add(byte[] line, int from, int to) {
+			int length = to - from;
+			if(segment.length - segmentLength < length) {
+				//A line longer than a segment gets one of its own.
+				segment = new byte[Math.max(SEGMENT_SIZE, length)];
+				segmentLength = 0;
+				segments.add(segment);
+			}
+			
+			System.arraycopy(line, from, segment, segmentLength, length);
+			segmentLength += length;
+			return ((long) (segments.size() - 1) << 32) | (segmentLength - length);
+		}
+		
+		@Override
+		int load(long position, int length) {
+			bytes = segments.get((int) (position >>> 32));
+			return (int) position;
+		}
+	}
+	
+	/**
+	 * Leaves keys and values in a memory mapped file, and keeps every window of the file that was mapped while reading it.
+	 * A position is the index of the window in the upper 32 bits, and where the bytes start within it in the lower 32 bits.
+	 * Since a line never spans two windows, neither do the bytes of a node.
+	 * Bytes are copied out of the window when they are loaded, since they have to be in an array to be decoded.
+	 */
+	private static final class MappedData extends Data {
+		private final MappedLineSource lines;
+		private final ArrayList<MappedByteBuffer> windows;
+		
+		MappedData(MappedLineSource lines) {
+			this.lines = lines;
+			windows = lines.keepWindows();
+			bytes = new byte[64];
+		}
+		
+		@Override
+		long add(byte[] line, int from, int to) {
+			return ((long) (windows.size() - 1) << 32) | (lines.lineOffset() + from);
+		}
+		
+		@Override
+		int load(long position, int length) {
+			if(length > bytes.length)
+				bytes = new byte[Math.max(length, bytes.length * 2)];
+			
+			MappedByteBuffer window = windows.get((int) (position >>> 32));
+			window.position((int) position);
+			window.get(bytes, 0, length);
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,266 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A buffered {@link InputStream} meant for streams that are shared between SOFFIT documents and other data, such as a socket.
+ * SoffitUtil reads from this stream in blocks rather than byte by byte.
+ * Any bytes read ahead past the end of a SOFFIT stream (__SoffitEnd) remain buffered within this object,
+ * so they can still be read through this stream or by the next call to {@link SoffitUtil#ReadStream(InputStream)}.
+ * Wrap a shared stream once, and then use this object in place of the original stream from then on.
+ */
+public class SoffitInputStream extends InputStream {
+	
+	public static final int DEFAULT_BUFFER_SIZE = 65536;
+	
+	//Read modes
+	static final int MODE_BUFFERED = 0;
+	static final int MODE_MARK = 1;
+	static final int MODE_SINGLE_BYTE = 2;
+	
+	InputStream source;
+	byte[] buffer;
+	int pos = 0;
+	int limit = 0;
+	//The buffer grows up to this size to fit a long line.
+	int maxLineLength = SoffitReadOptions.DEFAULT_MAX_LINE_LENGTH;
+	
+	private final int mode;
+	//The pool the buffer was borrowed from, if any.  Only used by streams that were wrapped internally.
+	private SoffitBufferPool pool = null;
+	//Where the most recent block was placed in the buffer.  Only used with MODE_MARK.
+	private int blockStart = -1;
+	
+	/**
+	 * Constructs a SoffitInputStream with the default buffer size.
+	 * @param source
+	 */
+	public SoffitInputStream(InputStream source) {
+		this(source, DEFAULT_BUFFER_SIZE);
+	}
+	
+	/**
+	 * Constructs a SoffitInputStream with a specified buffer size.
+	 * The buffer grows beyond this size to fit a longer line, up to the maximum line length of the {@link SoffitReadOptions} it is read with.
+	 * @param source
+	 * @param bufferSize
+	 */
+	public SoffitInputStream(InputStream source, int bufferSize) {
+		this(source, bufferSize, MODE_BUFFERED);
+	}
+	
+	/**
+	 * Used internally by SoffitUtil to read from streams that were not wrapped by the caller.
+	 * MODE_MARK reads blocks and hands unused bytes back to the source with mark() and reset().
+	 * MODE_SINGLE_BYTE never reads ahead.
+	 * @param source
+	 * @param bufferSize
+	 * @param mode
+	 */
+	SoffitInputStream(InputStream source, int bufferSize, int mode) {
+		this(source, new byte[bufferSize], mode);
+	}
+	
+	private SoffitInputStream(InputStream source, byte[] buffer, int mode) {
+		this.source = source;
+		this.buffer = buffer;
+		this.mode = mode;
+	}
+	
+	/**
+	 * Returns a SoffitInputStream that reads from the passed stream without ever consuming bytes that it does not use.
+	 * If the stream is already a SoffitInputStream, it is returned as is.
+	 * Otherwise, the buffer is borrowed from the options' {@link SoffitBufferPool}, and is handed back by release().
+	 * @param stream
+	 * @param options
+	 * @return
+	 */
+	static SoffitInputStream wrap(InputStream stream, SoffitReadOptions options) {
+		SoffitInputStream input;
+		
+		if(stream instanceof SoffitInputStream) {
+			input = (SoffitInputStream) stream;
+		} else {
+			SoffitBufferPool pool = options.pool();
+			int size = Math.min(DEFAULT_BUFFER_SIZE, options.getMaxLineLength());
+			input = new SoffitInputStream(stream, pool.acquire(size), stream.markSupported() ? MODE_MARK : MODE_SINGLE_BYTE);
+			input.pool = pool;
+		}
+		
+		input.maxLineLength = options.getMaxLineLength();
+		return input;
+	}
+	
+	/**
+	 * Reads more bytes from the source into the buffer.
+	 * Already consumed bytes are discarded to make room, which may move the unconsumed bytes to the start of the buffer.
+	 * @return The number of bytes read, or -1 if the end of the source was reached.
+	 * @throws IOException
+	 */
+	int fill() throws IOException {
+		if(limit == buffer.length) {
+			if(pos == 0)
+				grow();
+			else {
+				System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+				limit -= pos;
+				blockStart -= pos;
+				pos = 0;
+			}
+		}
+		
+		int read;
+		switch(mode) {
+		case MODE_MARK:
+			source.mark(buffer.length - limit);
+			read = source.read(buffer, limit, buffer.length - limit);
+			if(read > 0)
+				blockStart = limit;
+			break;
+		case MODE_SINGLE_BYTE:
+			read = source.read(buffer, limit, 1);
+			break;
+		default:
+			read = source.read(buffer, limit, buffer.length - limit);
+		}
+		
+		if(read > 0)
+			limit += read;
+		
+		return read;
+	}
+	
+	/**
+	 * Doubles the size of the buffer, up to the maximum line length.
+	 * Only called when the buffer is full of a single unfinished line.
+	 */
+	private void grow() {
+		if(buffer.length >= maxLineLength)
+			throw new SoffitException("SOFFIT line buffer with " + buffer.length + " byte capacity was overfilled");
+		
+		byte[] grown = new byte[(int) Math.min(maxLineLength, (long) buffer.length * 2)];
+		System.arraycopy(buffer, 0, grown, 0, limit);
+		buffer = grown;
+	}
+	
+	/**
+	 * Hands any bytes that were read ahead, but not consumed, back to the source.
+	 * This only does anything when the source was wrapped internally with MODE_MARK.
+	 * A public SoffitInputStream simply keeps them buffered.
+	 * Streams that were wrapped internally also hand their buffer back to its pool, and must not be read through afterwards.
+	 * @throws IOException
+	 */
+	void release() throws IOException {
+		try {
+			giveBack();
+		} finally {
+			if(pool != null) {
+				pool.release(buffer);
+				pool = null;
+				buffer = null;
+				pos = 0;
+				limit = 0;
+			}
+		}
+	}
+	
+	private void giveBack() throws IOException {
+		if(mode != MODE_MARK || blockStart < 0 || pos >= limit)
+			return;
+		
+		source.reset();
+		long remaining = Math.max(0, pos - blockStart);
+		while(remaining > 0) {
+			long skipped = source.skip(remaining);
+			if(skipped <= 0) {
+				if(source.read() == -1)
+					break;
+				skipped = 1;
+			}
+			remaining -= skipped;
+		}
+		
+		pos = limit;
+		blockStart = -1;
+	}
+	
+	@Override
+	public int read() throws IOException {
+		if(pos < limit)
+			return buffer[pos++] & 0xFF;
+		
+		return source.read();
+	}
+	
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if(len == 0)
+			return 0;
+		
+		//Hand out buffered bytes first
+		if(pos < limit) {
+			int count = Math.min(len, limit - pos);
+			System.arraycopy(buffer, pos, b, off, count);
+			pos += count;
+			return count;
+		}
+		
+		return source.read(b, off, len);
+	}
+	
+	@Override
+	public long skip(long n) throws IOException {
+		if(n <= 0)
+			return 0;
+		
+		if(pos < limit) {
+			int count = (int) Math.min(n, limit - pos);
+			pos += count;
+			return count;
+		}
+		
+		return source.skip(n);
+	}
+	
+	@Override
+	public int available() throws IOException {
+		return (limit - pos) + source.available();
+	}
+	
+	@Override
+	public void close() throws IOException {
+		source.close();
+	}
+}
@@ -31,7 +31,11 @@
 
 package fibrous.soffit;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 
 /**
  * This is the SOFFIT version of a container.
@@ -44,10 +48,16 @@ public class SoffitObject {
 	private String type;
 	private String name;
 	
-	private ArrayList<SoffitObject> objects;
-	private ArrayList<SoffitField> fields;
+	private ChildList<SoffitObject> objects;
+	private ChildList<SoffitField> fields;
 	
-	private int level = -1;
+	//Objects and fields are indexed by name once there are this many of them.
+	static final int INDEX_THRESHOLD = 8;
+	
+	//Indexes are built on the first lookup, and rebuilt if the lists were modified in a way that the indexes couldn't follow.
+	//Each one is built in full before it is published, so lookups from several threads at once never see one half built.
+	private volatile ObjectIndex objectIndex = null;
+	private volatile FieldIndex fieldIndex = null;
 	
 	/**
 	 * Constructs a SoffitObject with a specified type and name.
@@ -59,8 +69,8 @@ public class SoffitObject {
 		this.type = type;
 		this.name = name;
 		
-		objects = new ArrayList<>();
-		fields = new ArrayList<>();
+		objects = new ChildList<>();
+		fields = new ChildList<>();
 	}
 	
 	/**
@@ -72,8 +82,8 @@ public class SoffitObject {
 		this.type = type;
 		this.name = null;
 		
-		objects = new ArrayList<>();
-		fields = new ArrayList<>();
+		objects = new ChildList<>();
+		fields = new ChildList<>();
 	}
 	
 	/**
@@ -124,6 +134,9 @@ public class SoffitObject {
 	 */
 	public void setName(String name) {
 		this.name = name;
+		
+		if(parent != null)
+			parent.childRenamed();
 	}
 	
 	/**
@@ -132,6 +145,17 @@ public class SoffitObject {
 	 */
 	public void setType(String type) {
 		this.type = type;
+		
+		if(parent != null)
+			parent.childRenamed();
+	}
+	
+	/**
+	 * Called when an object within this one is renamed or re-typed.
+	 * The indexes are keyed by the old name and type, so this counts as a modification, and they are rebuilt on the next lookup.
+	 */
+	void childRenamed() {
+		objects.elementChanged();
 	}
 	
 	/**
@@ -143,7 +167,12 @@ public class SoffitObject {
 	 * @return
 	 */
 	public SoffitObject getObject(String objectName) {
-		for(int i = 0; i < objects.size(); i++) {
+		ObjectIndex index = objectIndex();
+		if(index != null) {
+			ArrayList<SoffitObject> found = index.byName.get(objectName);
+			if(found != null)
+				return found.get(0);
+		} else for(int i = 0; i < objects.size(); i++) {
 			if(objects.get(i).getName().equals(objectName)) {
 				return objects.get(i);
 			}
@@ -173,12 +202,112 @@ public class SoffitObject {
 	 * @return
 	 */
 	public SoffitField getField(String fieldName) {
-		for(int i = 0; i < fields.size(); i++) {
+		SoffitField field = findField(fieldName);
+		if(field == null)
+			throw new SoffitException("No field with the name \"" + fieldName + "\" is located in object \"" + toString() + "\"");
+		
+		return field;
+	}
+	
+	/**
+	 * Returns the value of the first field named fieldName as a long.
+	 * Returns defaultValue if there is no such field, or if its value isn't a whole number that fits in a long.
+	 * Unlike getField(fieldName).asLong(), this never throws an exception.
+	 * @param fieldName
+	 * @param defaultValue
+	 * @return
+	 */
+	public long getLong(String fieldName, long defaultValue) {
+		SoffitField field = findField(fieldName);
+		if(field == null)
+			return defaultValue;
+		
+		return field.asLong(defaultValue);
+	}
+	
+	/**
+	 * Returns the value of the first field named fieldName as an int.
+	 * Returns defaultValue if there is no such field, or if its value isn't a whole number that fits in an int.
+	 * Unlike getField(fieldName).asInt(), this never throws an exception.
+	 * @param fieldName
+	 * @param defaultValue
+	 * @return
+	 */
+	public int getInt(String fieldName, int defaultValue) {
+		SoffitField field = findField(fieldName);
+		if(field == null)
+			return defaultValue;
+		
+		long l = field.asLong(defaultValue);
+		if(l < Integer.MIN_VALUE || l > Integer.MAX_VALUE)
+			return defaultValue;
+		return (int) l;
+	}
+	
+	/**
+	 * Returns the value of the first field named fieldName as a double.
+	 * Returns defaultValue if there is no such field, or if its value isn't a number.
+	 * Unlike getField(fieldName).asDouble(), this never throws an exception.
+	 * @param fieldName
+	 * @param defaultValue
+	 * @return
+	 */
+	public double getDouble(String fieldName, double defaultValue) {
+		SoffitField field = findField(fieldName);
+		if(field == null)
+			return defaultValue;
+		
+		return field.asDouble(defaultValue);
+	}
+	
+	/**
+	 * Returns the value of the first field named fieldName as a boolean.
+	 * Returns defaultValue if there is no such field.
+	 * Otherwise, this is the same as getField(fieldName).asBool().
+	 * @param fieldName
+	 * @param defaultValue
+	 * @return
+	 */
+	public boolean getBool(String fieldName, boolean defaultValue) {
+		SoffitField field = findField(fieldName);
+		if(field == null)
+			return defaultValue;
+		
+		return field.asBool();
+	}
+	
+	/**
+	 * Returns the value of the first field named fieldName.
+	 * Returns defaultValue if there is no such field.
+	 * @param fieldName
+	 * @param defaultValue
+	 * @return
+	 */
+	public String getString(String fieldName, String defaultValue) {
+		SoffitField field = findField(fieldName);
+		if(field == null)
+			return defaultValue;
+		
+		return field.getValue();
+	}
+	
+	/**
+	 * Returns the first field named fieldName, or null if there isn't one.
+	 * @param fieldName
+	 * @return
+	 */
+	SoffitField findField(String fieldName) {
+		FieldIndex index = fieldIndex();
+		if(index != null) {
+			ArrayList<SoffitField> found = index.byName.get(fieldName);
+			if(found != null)
+				return found.get(0);
+		} else for(int i = 0; i < fields.size(); i++) {
 			if(fields.get(i).getName().equals(fieldName)) {
 				return fields.get(i);
 			}
 		}
-		throw new SoffitException("No field with the name \"" + fieldName + "\" is located in object \"" + toString() + "\"");
+		return null;
 	}
 	
 	/**
@@ -189,6 +318,11 @@ public class SoffitObject {
 	 * @return
 	 */
 	public ArrayList<SoffitField> getFieldsByName(String fieldName) {
+		FieldIndex index = fieldIndex();
+		if(index != null) {
+			ArrayList<SoffitField> found = index.byName.get(fieldName);
+			return found == null ? new ArrayList<SoffitField>() : new ArrayList<>(found);
+		}
 		
 		ArrayList<SoffitField> foundFields = new ArrayList<>();
 		
@@ -207,6 +341,10 @@ public class SoffitObject {
 	 * @return whether a field is contained in this object or not.
 	 */
 	public boolean hasField(String fieldName) {
+		FieldIndex index = fieldIndex();
+		if(index != null)
+			return index.byName.containsKey(fieldName);
+		
 		for(int i = 0; i < fields.size(); i++) {
 			if(fields.get(i).getName().equals(fieldName))
 				return true;
@@ -223,6 +361,11 @@ public class SoffitObject {
 	 * @return
 	 */
 	public ArrayList<SoffitObject> getObjectsByName(String objectsName) {
+		ObjectIndex index = objectIndex();
+		if(index != null) {
+			ArrayList<SoffitObject> found = index.byName.get(objectsName);
+			return found == null ? new ArrayList<SoffitObject>() : new ArrayList<>(found);
+		}
 		
 		ArrayList<SoffitObject> foundObjects = new ArrayList<>();
 		
@@ -242,16 +385,19 @@ public class SoffitObject {
 	 * @return
 	 */
 	public ArrayList<SoffitObject> getObjectsByType(String objectsType) {
-		
-		ArrayList<SoffitObject> foundObjects = new ArrayList<>();
-		
-		for(int i = 0; i < objects.size(); i++) {
-			if(objects.get(i).getType().equals(objectsType)) {
-				foundObjects.add(objects.get(i));
-			}
-		}
-		
-		return foundObjects;
+		return new ArrayList<>(findObjectsByType(objectsType));
+	}
+	
+	/**
+	 * Returns a read-only view of all objects of a type matching objectsType.
+	 * Unlike getObjectsByType(), nothing is copied, and the view always reflects the current contents of this object.
+	 * The matching objects are only found again after this object is modified,
+	 * so looking up an element costs about the same as a get() on an ArrayList, as long as this object isn't being modified in between.
+	 * @param objectsType
+	 * @return
+	 */
+	public List<SoffitObject> viewObjectsByType(String objectsType) {
+		return new ObjectsByTypeView(objectsType);
 	}
 	
 	/**
@@ -262,7 +408,15 @@ public class SoffitObject {
 	 * @return
 	 */
 	public SoffitObject getObjectByTypeAndName(String objectType, String objectName) {
-		for(SoffitObject currentObject : objects) {
+		ObjectIndex index = objectIndex();
+		if(index != null) {
+			HashMap<String, SoffitObject> names = index.byTypeAndName.get(objectType);
+			if(names != null) {
+				SoffitObject found = names.get(objectName);
+				if(found != null)
+					return found;
+			}
+		} else for(SoffitObject currentObject : objects) {
 			if(currentObject.getType().equals(objectType) && currentObject.getName().equals(objectName))
 				return currentObject;
 		}
@@ -290,7 +444,7 @@ public class SoffitObject {
 	 * @param name
 	 */
 	public void removeObjectsByType(String type) {
-		for(int i = 0; i < objects.size(); i++) {
+		for(int i = objects.size() - 1; i >= 0; i--) {
 			if(objects.get(i).getType().equals(type)) {
 				objects.remove(i);
 			}
@@ -303,7 +457,7 @@ public class SoffitObject {
 	 * @param name
 	 */
 	public void removeObjectsByName(String name) {
-		for(int i = 0; i < objects.size(); i++) {
+		for(int i = objects.size() - 1; i >= 0; i--) {
 			if(objects.get(i).getName().equals(name)) {
 				objects.remove(i);
 			}
@@ -364,7 +518,16 @@ public class SoffitObject {
 	 */
 	public void add(SoffitObject object) {
 		object.setParent(this);
+		
+		ObjectIndex index = objectIndex;
+		boolean indexCurrent = index != null && index.version == objects.version();
 		objects.add(object);
+		
+		//Keep the indexes up to date rather than rebuilding them.  Modifying this object while it is being read is never safe, so they can be added to in place.
+		if(indexCurrent) {
+			index.add(object);
+			objectIndex = new ObjectIndex(index, objects.version());
+		}
 	}
 	
 	/**
@@ -373,7 +536,16 @@ public class SoffitObject {
 	 */
 	public void add(SoffitField field) {
 		field.setParent(this);
+		
+		FieldIndex index = fieldIndex;
+		boolean indexCurrent = index != null && index.version == fields.version();
 		fields.add(field);
+		
+		//Keep the index up to date rather than rebuilding it
+		if(indexCurrent) {
+			addToIndex(index.byName, field.getName(), field);
+			fieldIndex = new FieldIndex(index.byName, fields.version());
+		}
 	}
 	
 	/**
@@ -404,19 +576,23 @@ public class SoffitObject {
 	/**
 	 * Returns how deeply nested this object is.
 	 * Returns 0 if this object is attached directly to the root object.
+	 * The level is counted from the parent of this object, so this takes longer the more deeply nested this object is.
 	 * @return
 	 */
 	public int getNestedLevel() {
+		int level = -1;
+		for(SoffitObject ancestor = parent; ancestor != null; ancestor = ancestor.parent)
+			level++;
 		return level;
 	}
 	
 	/**
 	 * Returns true if this object was parsed as the root object from a stream.
-	 * I.e., if the nesting level of this object is -1, then this is the root object.
+	 * I.e., if this object has no parent, then this is the root object.
 	 * @return
 	 */
 	public boolean isRoot() {
-		return (level == -1);
+		return parent == null;
 	}
 	
 	/**
@@ -456,32 +632,193 @@ public class SoffitObject {
 	 */
 	protected void setParent(SoffitObject parent) {
 		this.parent = parent;
-		calcNestingLevel(this.parent);
 	}
 	
 	/**
-	 * Calculates how deeply nested this field is.
-	 * This is really only called internally when adding a field to another object.
-	 * @param parent
+	 * Returns the indexes of objects by name, type, and type and name, building them if needed.
+	 * Returns null if this object doesn't contain enough objects to be worth indexing.
+	 * @return
 	 */
-	protected void calcNestingLevel(SoffitObject parent) {
+	private ObjectIndex objectIndex() {
+		if(objects.size() < INDEX_THRESHOLD)
+			return null;
 		
-		//I would like to change this in the future as this operation could get slow with large trees.
-		//It runs through everything attached to it and its children whenever something is added to itself.
-		//It's a necessary evil at this point though.
+		ObjectIndex index = objectIndex;
+		int version = objects.version();
+		if(index == null || index.version != version) {
+			index = new ObjectIndex(version);
+			for(int i = 0; i < objects.size(); i++)
+				index.add(objects.get(i));
+			objectIndex = index;
+		}
 		
-		if(parent == null)
-			level = 0;
-		else {
-			level = parent.getNestedLevel() + 1;
-			
-			//Calculate child field nesting level
-			for(SoffitField childFields : fields)
-				childFields.calcNestingLevel(this);
+		return index;
+	}
+	
+	/**
+	 * Returns all objects of a type matching objectsType.
+	 * The returned list may belong to the type index, and must not be modified.
+	 * @param objectsType
+	 * @return
+	 */
+	private List<SoffitObject> findObjectsByType(String objectsType) {
+		ObjectIndex index = objectIndex();
+		if(index != null) {
+			ArrayList<SoffitObject> found = index.byType.get(objectsType);
+			return found == null ? new ArrayList<SoffitObject>(0) : found;
+		}
+		
+		ArrayList<SoffitObject> foundObjects = new ArrayList<>();
+		
+		for(int i = 0; i < objects.size(); i++) {
+			if(objects.get(i).getType().equals(objectsType)) {
+				foundObjects.add(objects.get(i));
+			}
+		}
+		
+		return foundObjects;
+	}
+	
+	/**
+	 * Returns a list to look through for objects of a type matching objectsType, without copying anything.
+	 * If this object is indexed, it only holds the matching objects, but otherwise it holds every object, so each one still has to be checked for its type.
+	 * The returned list must not be modified.
+	 * @param objectsType
+	 * @return
+	 */
+	List<SoffitObject> objectsToSearch(String objectsType) {
+		ObjectIndex index = objectIndex();
+		if(index != null) {
+			ArrayList<SoffitObject> found = index.byType.get(objectsType);
+			return found == null ? Collections.<SoffitObject>emptyList() : found;
+		}
+		
+		return objects;
+	}
+	
+	/**
+	 * Returns the index of fields by name, building it if needed.
+	 * Returns null if this object doesn't contain enough fields to be worth indexing.
+	 * @return
+	 */
+	private FieldIndex fieldIndex() {
+		if(fields.size() < INDEX_THRESHOLD)
+			return null;
+		
+		FieldIndex index = fieldIndex;
+		int version = fields.version();
+		if(index == null || index.version != version) {
+			HashMap<String, ArrayList<SoffitField>> byName = new HashMap<>();
+			for(int i = 0; i < fields.size(); i++)
+				addToIndex(byName, fields.get(i).getName(), fields.get(i));
+			index = new FieldIndex(byName, version);
+			fieldIndex = index;
+		}
+		
+		return index;
+	}
+	
+	private static <T> void addToIndex(HashMap<String, ArrayList<T>> index, String key, T value) {
+		ArrayList<T> list = index.get(key);
+		if(list == null) {
+			list = new ArrayList<>(1);
+			index.put(key, list);
+		}
+		list.add(value);
+	}
+	
+	/**
+	 * The indexes of objects by name, type, and type and name, along with the version of the list they were built from.
+	 * They are always built and replaced together, so they never disagree with each other.
+	 */
+	private static final class ObjectIndex {
+		final HashMap<String, ArrayList<SoffitObject>> byName;
+		final HashMap<String, ArrayList<SoffitObject>> byType;
+		final HashMap<String, HashMap<String, SoffitObject>> byTypeAndName;
+		final int version;
+		
+		ObjectIndex(int version) {
+			byName = new HashMap<>();
+			byType = new HashMap<>();
+			byTypeAndName = new HashMap<>();
+			this.version = version;
+		}
+		
+		//The same indexes, after an object was added to them
+		ObjectIndex(ObjectIndex index, int version) {
+			byName = index.byName;
+			byType = index.byType;
+			byTypeAndName = index.byTypeAndName;
+			this.version = version;
+		}
+		
+		void add(SoffitObject object) {
+			addToIndex(byName, object.getName(), object);
+			addToIndex(byType, object.getType(), object);
 			
-			//Calculate child object nesting level
-			for(SoffitObject childObjects : objects)
-				childObjects.calcNestingLevel(this);
+			//Only the first object with a given type and name is ever returned.
+			HashMap<String, SoffitObject> names = byTypeAndName.get(object.getType());
+			if(names == null) {
+				names = new HashMap<>();
+				byTypeAndName.put(object.getType(), names);
+			}
+			names.putIfAbsent(object.getName(), object);
+		}
+	}
+	
+	/**
+	 * The index of fields by name, along with the version of the list it was built from.
+	 */
+	private static final class FieldIndex {
+		final HashMap<String, ArrayList<SoffitField>> byName;
+		final int version;
+		
+		FieldIndex(HashMap<String, ArrayList<SoffitField>> byName, int version) {
+			this.byName = byName;
+			this.version = version;
+		}
+	}
+	
+	/**
+	 * The read-only view returned by viewObjectsByType().
+	 * The matching objects are kept along with the version of the list they were found in, and are only found again once it changes.
+	 */
+	private class ObjectsByTypeView extends AbstractList<SoffitObject> {
+		private final String type;
+		private volatile Matches matches = null;
+		
+		ObjectsByTypeView(String type) {
+			this.type = type;
+		}
+		
+		@Override
+		public SoffitObject get(int index) {
+			return matching().get(index);
+		}
+		
+		@Override
+		public int size() {
+			return matching().size();
+		}
+		
+		private List<SoffitObject> matching() {
+			Matches m = matches;
+			int version = objects.version();
+			if(m == null || m.version != version) {
+				m = new Matches(findObjectsByType(type), version);
+				matches = m;
+			}
+			return m.objects;
+		}
+	}
+	
+	private static final class Matches {
+		final List<SoffitObject> objects;
+		final int version;
+		
+		Matches(List<SoffitObject> objects, int version) {
+			this.objects = objects;
+			this.version = version;
 		}
 	}
 }
@@ -0,0 +1,460 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A compiled path through a tree of SoffitObjects, such as "Vehicle[My Vehicle]/Service/*&#47;Date".
+ * A path is compiled once with {@link #compile(String)}, and can then be evaluated against any number of trees.
+ * A compiled path is immutable, so it can be shared between threads.
+ * Several threads can also evaluate paths against the same tree at once, as long as nothing modifies the tree in the meantime,
+ * since SoffitObjects only ever publish their indexes once they are fully built.
+ * The exception is a tree read by {@link SoffitUtil#ReadStreamLazily(java.io.InputStream)} or {@link SoffitUtil#ReadFileLazily(java.nio.file.Path)},
+ * which creates its objects as they are reached, and so must only be queried from one thread at a time.
+ * <p>
+ * Each step of the path, separated by '/', selects objects within the objects matched by the step before it, starting from the root:
+ * <ul>
+ * <li>Type selects every object of that type.</li>
+ * <li>* selects every object, whatever its type.</li>
+ * <li>[Name] after either of those only keeps objects with that name, e.g., Vehicle[My Vehicle] or *[My Vehicle].</li>
+ * <li>[@Field] only keeps objects that have a field with that name.</li>
+ * <li>[@Field=Value] only keeps objects that have a field with that name and value, e.g., Service[@Type=Oil Change].</li>
+ * </ul>
+ * Any number of brackets may follow a step, and an object has to match all of them.
+ * A '\' makes the character after it part of a name or value, which is how '/', '[', ']', '=', '@', and '*' can be matched literally.
+ * <p>
+ * {@link #objects(SoffitObject)} returns the objects matched by the last step.
+ * {@link #fields(SoffitObject)} instead treats the last step as a field name, so "Vehicle/Service/*&#47;Date" returns the Date fields of everything within each Service.
+ * Either way, the results are found lazily as the stream is consumed, in the same order they appear in the tree.
+ * Nothing is copied along the way, and a path that matches nothing simply returns an empty stream.
+ * The tree must not be modified while a stream over it is being consumed.
+ */
+public class SoffitPath {
+	
+	/**
+	 * A single step of a path.
+	 */
+	private static final class Step {
+		//Null for any type
+		final String type;
+		//Null for any name
+		final String name;
+		//Field predicates.  A null value only requires the field to exist.
+		final String[] fieldNames;
+		final String[] fieldValues;
+		
+		Step(String type, String name, String[] fieldNames, String[] fieldValues) {
+			this.type = type;
+			this.name = name;
+			this.fieldNames = fieldNames;
+			this.fieldValues = fieldValues;
+		}
+		
+		/**
+		 * Returns the objects within parent that this step has to check.
+		 * When the type is known and parent is indexed, only objects of that type are looked at.
+		 * Either way, nothing is copied.
+		 */
+		List<SoffitObject> candidates(SoffitObject parent) {
+			if(type != null)
+				return parent.objectsToSearch(type);
+			return parent.getAllObjects();
+		}
+		
+		boolean matches(SoffitObject object) {
+			if(type != null && !type.equals(object.getType()))
+				return false;
+			if(name != null && !name.equals(object.getName()))
+				return false;
+			
+			for(int i = 0; i < fieldNames.length; i++) {
+				if(!hasField(object, fieldNames[i], fieldValues[i]))
+					return false;
+			}
+			return true;
+		}
+		
+		boolean matches(SoffitField field) {
+			return (type == null || type.equals(field.getName())) && (name == null || name.equals(field.getValue()));
+		}
+		
+		private static boolean hasField(SoffitObject object, String fieldName, String value) {
+			SoffitField first = object.findField(fieldName);
+			if(first == null)
+				return false;
+			if(value == null || value.equals(first.getValue()))
+				return true;
+			
+			//Only look any further when the first field doesn't match.
+			for(SoffitField field : object.getFieldsByName(fieldName)) {
+				if(value.equals(field.getValue()))
+					return true;
+			}
+			return false;
+		}
+	}
+	
+	private final String path;
+	private final Step[] steps;
+	
+	private SoffitPath(String path, Step[] steps) {
+		this.path = path;
+		this.steps = steps;
+	}
+	
+	/**
+	 * Compiles a path.
+	 * A leading '/' is allowed, and makes no difference.
+	 * Throws a {@link SoffitException} if the path is malformed.
+	 * @param path
+	 * @return
+	 * @throws SoffitException
+	 */
+	public static SoffitPath compile(String path) throws SoffitException {
+		return new Parser(path).parse();
+	}
+	
+	/**
+	 * Returns a stream of the objects matched by the last step of this path, starting from root.
+	 * @param root
+	 * @return
+	 */
+	public Stream<SoffitObject> objects(SoffitObject root) {
+		return stream(new ObjectMatches(root, steps.length));
+	}
+	
+	/**
+	 * Returns a stream of the fields named by the last step of this path, within the objects matched by the steps before it.
+	 * The last step's type is the field name, or * for every field, and a [Name] after it only keeps fields with that value.
+	 * Throws a {@link SoffitException} if the last step has any field predicates.
+	 * @param root
+	 * @return
+	 * @throws SoffitException
+	 */
+	public Stream<SoffitField> fields(SoffitObject root) throws SoffitException {
+		Step last = steps[steps.length - 1];
+		if(last.fieldNames.length > 0)
+			throw new SoffitException("The last step of SOFFIT path \"" + path + "\" names a field, so it can't have field predicates.");
+		
+		return stream(new FieldMatches(new ObjectMatches(root, steps.length - 1), last));
+	}
+	
+	/**
+	 * Returns a path with a single step that selects every object of the passed type.
+	 * Nothing in the type has to be escaped.
+	 * @param type
+	 * @return
+	 */
+	static SoffitPath ofType(String type) {
+		return new SoffitPath(type, new Step[] {new Step(type, null, new String[0], new String[0])});
+	}
+	
+	/**
+	 * Returns the number of steps in this path.
+	 * @return
+	 */
+	int length() {
+		return steps.length;
+	}
+	
+	/**
+	 * Returns true if any step of this path has a field predicate.
+	 * @return
+	 */
+	boolean hasFieldPredicates() {
+		for(Step step : steps) {
+			if(step.fieldNames.length > 0)
+				return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Returns true if any step of this path only keeps objects with a certain name.
+	 * @return
+	 */
+	boolean hasNames() {
+		for(Step step : steps) {
+			if(step.name != null)
+				return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Returns true if an object declared with the passed type and name is selected by the step at index step, ignoring any field predicates.
+	 * @param step
+	 * @param type
+	 * @param name The name of the object, or null if it is unnamed, which is treated as blank the same way {@link SoffitObject#getName()} does.
+	 * @return
+	 */
+	boolean matchesDeclaration(int step, String type, String name) {
+		Step s = steps[step];
+		return (s.type == null || s.type.equals(type)) && (s.name == null || s.name.equals(name == null ? "" : name));
+	}
+	
+	/**
+	 * Returns the path this was compiled from.
+	 */
+	@Override
+	public String toString() {
+		return path;
+	}
+	
+	private static <T> Stream<T> stream(Iterator<T> matches) {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(matches, Spliterator.ORDERED | Spliterator.NONNULL), false);
+	}
+	
+	/**
+	 * Walks the tree depth first, keeping track of how far it is through the candidates of each step instead of collecting the matches of each step.
+	 */
+	private final class ObjectMatches implements Iterator<SoffitObject> {
+		private final int stepCount;
+		//For each step, the objects it is choosing from and how far through them it is
+		private final List<?>[] candidates;
+		private final int[] positions;
+		//The step being matched, or -1 once everything has been checked
+		private int level;
+		private SoffitObject next;
+		
+		ObjectMatches(SoffitObject root, int stepCount) {
+			this.stepCount = stepCount;
+			candidates = new List<?>[stepCount];
+			positions = new int[stepCount];
+			
+			if(stepCount == 0) {
+				//With no steps, the root itself is the only match.
+				next = root;
+				level = -1;
+			} else {
+				candidates[0] = steps[0].candidates(root);
+				level = 0;
+			}
+		}
+		
+		@Override
+		public boolean hasNext() {
+			if(next == null)
+				next = advance();
+			return next != null;
+		}
+		
+		@Override
+		public SoffitObject next() {
+			if(!hasNext())
+				throw new NoSuchElementException();
+			
+			SoffitObject match = next;
+			next = null;
+			return match;
+		}
+		
+		private SoffitObject advance() {
+			while(level >= 0) {
+				List<?> list = candidates[level];
+				if(positions[level] == list.size()) {
+					candidates[level] = null;
+					level--;
+					continue;
+				}
+				
+				SoffitObject candidate = (SoffitObject) list.get(positions[level]++);
+				if(!steps[level].matches(candidate))
+					continue;
+				
+				if(level == stepCount - 1)
+					return candidate;
+				
+				level++;
+				candidates[level] = steps[level].candidates(candidate);
+				positions[level] = 0;
+			}
+			return null;
+		}
+	}
+	
+	/**
+	 * Goes through the fields of each matched object that match the last step.
+	 */
+	private static final class FieldMatches implements Iterator<SoffitField> {
+		private final ObjectMatches objects;
+		private final Step step;
+		private List<SoffitField> fields = null;
+		private int position = 0;
+		private SoffitField next;
+		
+		FieldMatches(ObjectMatches objects, Step step) {
+			this.objects = objects;
+			this.step = step;
+		}
+		
+		@Override
+		public boolean hasNext() {
+			while(next == null) {
+				if(fields == null || position == fields.size()) {
+					if(!objects.hasNext())
+						return false;
+					fields = objects.next().getAllFields();
+					position = 0;
+					continue;
+				}
+				
+				SoffitField field = fields.get(position++);
+				if(step.matches(field))
+					next = field;
+			}
+			return true;
+		}
+		
+		@Override
+		public SoffitField next() {
+			if(!hasNext())
+				throw new NoSuchElementException();
+			
+			SoffitField match = next;
+			next = null;
+			return match;
+		}
+	}
+	
+	/**
+	 * Turns the text of a path into its steps.
+	 */
+	private static final class Parser {
+		private final String path;
+		private int pos = 0;
+		
+		Parser(String path) {
+			this.path = path;
+		}
+		
+		SoffitPath parse() {
+			if(path.startsWith("/"))
+				pos++;
+			if(pos == path.length())
+				throw error("is empty");
+			
+			ArrayList<Step> steps = new ArrayList<>();
+			while(true) {
+				steps.add(step());
+				if(pos == path.length())
+					break;
+				//step() only stops at the end or a separator.
+				pos++;
+			}
+			
+			return new SoffitPath(path, steps.toArray(new Step[0]));
+		}
+		
+		private Step step() {
+			int start = pos;
+			String type = text("/[");
+			if(type.isEmpty())
+				throw error("has an empty step");
+			//Only an unescaped * is a wildcard.
+			if(pos - start == 1 && path.charAt(start) == '*')
+				type = null;
+			
+			String name = null;
+			ArrayList<String> fieldNames = new ArrayList<>();
+			ArrayList<String> fieldValues = new ArrayList<>();
+			
+			while(pos < path.length() && path.charAt(pos) == '[') {
+				pos++;
+				if(pos < path.length() && path.charAt(pos) == '@') {
+					pos++;
+					String fieldName = text("=]");
+					if(fieldName.isEmpty())
+						throw error("has a field predicate without a field name");
+					
+					String value = null;
+					if(pos < path.length() && path.charAt(pos) == '=') {
+						pos++;
+						value = text("]");
+					}
+					fieldNames.add(fieldName);
+					fieldValues.add(value);
+				} else {
+					if(name != null)
+						throw error("has more than one name in a step");
+					name = text("]");
+				}
+				
+				if(pos == path.length())
+					throw error("has an unclosed bracket");
+				pos++;
+			}
+			
+			if(pos < path.length() && path.charAt(pos) != '/')
+				throw error("has an unexpected '" + path.charAt(pos) + "'");
+			
+			return new Step(type, name, fieldNames.toArray(new String[0]), fieldValues.toArray(new String[0]));
+		}
+		
+		/**
+		 * Reads text up to the end of the path or the first unescaped terminator, whichever comes first.
+		 * A stray ']' is never part of the text.
+		 */
+		private String text(String terminators) {
+			StringBuilder text = new StringBuilder();
+			while(pos < path.length()) {
+				char c = path.charAt(pos);
+				if(c == SoffitUtil.ESCAPE_SEQUENCE) {
+					if(pos + 1 == path.length())
+						throw error("ends with an escape character");
+					text.append(path.charAt(pos + 1));
+					pos += 2;
+					continue;
+				}
+				
+				if(terminators.indexOf(c) >= 0 || c == ']')
+					break;
+				
+				text.append(c);
+				pos++;
+			}
+			return text.toString();
+		}
+		
+		private SoffitException error(String problem) {
+			return new SoffitException("SOFFIT path \"" + path + "\" " + problem + " (at position " + pos + ").");
+		}
+	}
+}
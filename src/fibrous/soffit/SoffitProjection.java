@@ -0,0 +1,187 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit;
+
+import java.util.Arrays;
+
+/**
+ * Chooses which objects are kept when a SOFFIT stream is parsed, given as object types or {@link SoffitPath}s.
+ * Set it with {@link SoffitReadOptions#setProjection(SoffitProjection)}.
+ * <p>
+ * An object is kept if it is selected by one of the paths, along with everything within it.
+ * An object that matches the first steps of a path is also kept, even if nothing within it ends up being selected, since that isn't known until it has been read.
+ * Types are the same as single step paths, so they keep the top-level objects of those types.
+ * Fields directly within the root object, or within an object on the way to a selected one, are always kept.
+ * <p>
+ * Everything else is skipped while the stream is read, without tokenizing, unescaping, or allocating anything within it.
+ * Only the declaration line of a skipped object is parsed, and the parser then fast-forwards to its closing bracket by counting brackets outside of quoted values.
+ * This means that a skipped object is only checked for a matching closing bracket, and nothing else within it is checked for syntax errors.
+ * <p>
+ * Objects are matched as they are declared, before their fields are read, so paths can't have field predicates.
+ * A projection is immutable, so it can be shared between threads and parses.
+ */
+public class SoffitProjection {
+	
+	private final SoffitPath[] paths;
+	//Whether object names have to be decoded to match a declaration
+	private final boolean usesNames;
+	
+	private SoffitProjection(SoffitPath[] paths) {
+		this.paths = paths;
+		
+		boolean names = false;
+		for(SoffitPath path : paths)
+			names |= path.hasNames();
+		usesNames = names;
+	}
+	
+	/**
+	 * Returns a projection that keeps the top-level objects of the passed types.
+	 * @param types
+	 * @return
+	 */
+	public static SoffitProjection ofTypes(String... types) {
+		SoffitPath[] paths = new SoffitPath[types.length];
+		for(int i = 0; i < types.length; i++)
+			paths[i] = SoffitPath.ofType(types[i]);
+		
+		return new SoffitProjection(paths);
+	}
+	
+	/**
+	 * Returns a projection that keeps the objects selected by the passed paths.
+	 * Throws a {@link SoffitException} if a path is malformed or has a field predicate.
+	 * @param paths
+	 * @return
+	 * @throws SoffitException
+	 */
+	public static SoffitProjection ofPaths(String... paths) throws SoffitException {
+		SoffitPath[] compiled = new SoffitPath[paths.length];
+		for(int i = 0; i < paths.length; i++)
+			compiled[i] = SoffitPath.compile(paths[i]);
+		
+		return ofPaths(compiled);
+	}
+	
+	/**
+	 * Returns a projection that keeps the objects selected by the passed paths.
+	 * Throws a {@link SoffitException} if a path has a field predicate.
+	 * @param paths
+	 * @return
+	 * @throws SoffitException
+	 */
+	public static SoffitProjection ofPaths(SoffitPath... paths) throws SoffitException {
+		for(SoffitPath path : paths) {
+			if(path.hasFieldPredicates())
+				throw new SoffitException("SOFFIT path \"" + path + "\" has field predicates, so it can't be used as a projection.");
+		}
+		
+		return new SoffitProjection(paths.clone());
+	}
+	
+	/**
+	 * Returns true if object names have to be decoded to match a declaration.
+	 * @return
+	 */
+	boolean usesNames() {
+		return usesNames;
+	}
+	
+	/**
+	 * Keeps track of which paths the currently open objects are on while a single stream is parsed.
+	 */
+	final class Matcher {
+		//Number of objects currently open
+		private int depth = 0;
+		//The depth of the object that a path selected in full, or -1 if there isn't one open.  Everything within it is kept.
+		private int keptDepth = -1;
+		//For each depth, whether each path has selected every open object so far.  Rows are reused as objects are opened and closed.
+		private boolean[][] onPath = new boolean[8][];
+		
+		Matcher() {
+			onPath[0] = new boolean[paths.length];
+			Arrays.fill(onPath[0], true);
+		}
+		
+		/**
+		 * Called for each object declaration.
+		 * Returns true if the object is kept, in which case {@link #exit()} has to be called for its closing bracket.
+		 * @param type
+		 * @param name Only needed if {@link SoffitProjection#usesNames()} is true.
+		 * @return
+		 */
+		boolean enter(String type, String name) {
+			if(keptDepth >= 0) {
+				depth++;
+				return true;
+			}
+			
+			boolean[] parent = onPath[depth];
+			boolean[] child = row(depth + 1);
+			boolean kept = false;
+			boolean complete = false;
+			for(int i = 0; i < paths.length; i++) {
+				SoffitPath path = paths[i];
+				child[i] = parent[i] && depth < path.length() && path.matchesDeclaration(depth, type, name);
+				if(child[i]) {
+					kept = true;
+					complete |= depth + 1 == path.length();
+				}
+			}
+			
+			if(!kept)
+				return false;
+			
+			depth++;
+			if(complete)
+				keptDepth = depth;
+			return true;
+		}
+		
+		/**
+		 * Called for the closing bracket of each kept object.
+		 */
+		void exit() {
+			if(depth == keptDepth)
+				keptDepth = -1;
+			depth--;
+		}
+		
+		private boolean[] row(int index) {
+			if(index == onPath.length)
+				onPath = Arrays.copyOf(onPath, index * 2);
+			if(onPath[index] == null)
+				onPath[index] = new boolean[paths.length];
+			return onPath[index];
+		}
+	}
+}
@@ -0,0 +1,177 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit;
+
+import java.io.InputStream;
+
+/**
+ * Settings for how {@link SoffitUtil#ReadStream(InputStream, SoffitReadOptions)} and {@link SoffitReader} read a SOFFIT stream.
+ */
+public class SoffitReadOptions {
+	
+	public static final int DEFAULT_MAX_LINE_LENGTH = 1 << 26;
+	
+	private int maxLineLength = DEFAULT_MAX_LINE_LENGTH;
+	private SoffitBufferPool bufferPool = null;
+	private SoffitSymbolTable symbolTable = null;
+	private boolean parseNumbers = false;
+	private SoffitProjection projection = null;
+	
+	/**
+	 * Constructs SoffitReadOptions with the default settings.
+	 * By default, lines may be up to {@value #DEFAULT_MAX_LINE_LENGTH} bytes long, buffers are borrowed from the current thread's {@link SoffitBufferPool},
+	 * each stream interns its field names and object types with its own {@link SoffitSymbolTable}, every field value is kept as a String, and every object is kept.
+	 */
+	public SoffitReadOptions() {
+	}
+	
+	/**
+	 * Returns the maximum length of a single line in bytes.
+	 * @return
+	 */
+	public int getMaxLineLength() {
+		return maxLineLength;
+	}
+	
+	/**
+	 * Sets the maximum length of a single line in bytes.
+	 * Buffers grow as needed up to this size, and a {@link SoffitException} is thrown for any line that is longer.
+	 * This keeps a malformed or hostile stream from using up all available memory.
+	 * @param maxLineLength
+	 */
+	public void setMaxLineLength(int maxLineLength) {
+		if(maxLineLength <= 0)
+			throw new IllegalArgumentException("Maximum line length must be greater than 0");
+		
+		this.maxLineLength = maxLineLength;
+	}
+	
+	/**
+	 * Returns the pool that buffers are borrowed from.
+	 * Returns null if the current thread's pool is used.
+	 * @return
+	 */
+	public SoffitBufferPool getBufferPool() {
+		return bufferPool;
+	}
+	
+	/**
+	 * Sets the pool that buffers are borrowed from.
+	 * Setting it to null uses the current thread's pool.
+	 * @param bufferPool
+	 */
+	public void setBufferPool(SoffitBufferPool bufferPool) {
+		this.bufferPool = bufferPool;
+	}
+	
+	/**
+	 * Returns the symbol table that field names and object types are interned with.
+	 * Returns null if each stream uses its own.
+	 * @return
+	 */
+	public SoffitSymbolTable getSymbolTable() {
+		return symbolTable;
+	}
+	
+	/**
+	 * Sets the symbol table that field names and object types are interned with.
+	 * Passing the same table to every parse lets all of them share the same String instances.
+	 * Setting it to null gives each stream its own.
+	 * @param symbolTable
+	 */
+	public void setSymbolTable(SoffitSymbolTable symbolTable) {
+		this.symbolTable = symbolTable;
+	}
+	
+	/**
+	 * Returns whether whole number field values are kept as primitives.
+	 * @return
+	 */
+	public boolean getParseNumbers() {
+		return parseNumbers;
+	}
+	
+	/**
+	 * Sets whether whole number field values are kept as primitives instead of Strings.
+	 * When enabled, a value that String.valueOf() would format exactly the same way from a long is passed to {@link SoffitHandler#field(String, long)},
+	 * and ReadStream and ReadFile hold it in the field the same way as {@link SoffitField#put(long)}.
+	 * Writing the tree back out produces exactly the same value, while documents made up mostly of numbers take much less memory.
+	 * Values written any other way (e.g., "007" or "+7") and decimals are still kept as Strings.
+	 * This does not apply to {@link SoffitReader} or the lazy readers.
+	 * @param parseNumbers
+	 */
+	public void setParseNumbers(boolean parseNumbers) {
+		this.parseNumbers = parseNumbers;
+	}
+	
+	/**
+	 * Returns the projection that chooses which objects are kept.
+	 * Returns null if every object is kept.
+	 * @return
+	 */
+	public SoffitProjection getProjection() {
+		return projection;
+	}
+	
+	/**
+	 * Sets the projection that chooses which objects are kept, so that the rest are skipped without being parsed.
+	 * This applies to ReadStream, ReadFile, ReadFileParallel, and {@link SoffitDocumentReader}.
+	 * It does not apply to {@link SoffitReader}, {@link SoffitFeedParser}, or the lazy readers.
+	 * Setting it to null keeps every object.
+	 * @param projection
+	 */
+	public void setProjection(SoffitProjection projection) {
+		this.projection = projection;
+	}
+	
+	/**
+	 * Returns the symbol table to intern with.
+	 * @return
+	 */
+	SoffitSymbolTable symbols() {
+		if(symbolTable != null)
+			return symbolTable;
+		
+		return new SoffitSymbolTable();
+	}
+	
+	/**
+	 * Returns the pool to borrow buffers from.
+	 * @return
+	 */
+	SoffitBufferPool pool() {
+		if(bufferPool != null)
+			return bufferPool;
+		
+		return SoffitBufferPool.forCurrentThread();
+	}
+}
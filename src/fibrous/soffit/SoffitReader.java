@@ -0,0 +1,321 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streams through a SOFFIT stream one line at a time, reporting each object declaration, field, and closing bracket as a {@link SoffitEvent}.
+ * Unlike {@link SoffitUtil#ReadStream(InputStream)}, nothing is kept in memory except for the current line,
+ * so very large streams can be processed one object at a time.
+ * {@link #readObject()} can still be used to build a single object and its contents when that is more convenient.
+ * <p>
+ * Just like ReadStream, no bytes past the SOFFIT footer are consumed from the stream.
+ * A reader that is abandoned before END_DOCUMENT should be closed, so that anything it read ahead is handed back to the stream, and its buffers back to their pool.
+ */
+public class SoffitReader implements Closeable {
+	private final SoffitInputStream input;
+	private final LineSource lines;
+	private final ArrayOutputStream internalStream;
+	private final LineTokenizer tokenizer;
+	
+	private boolean started = false;
+	private SoffitEvent event = null;
+	//Number of objects currently open
+	private int depth = 0;
+	//Nesting level of the current event
+	private int level = -1;
+	//Set once the buffers have been handed back
+	private boolean closed = false;
+	
+	//Decoded lazily, and only valid for the current event
+	private String key;
+	private String value;
+	
+	/**
+	 * Constructs a SoffitReader that reads from an {@link InputStream}.
+	 * Nothing is read until next() is called.
+	 * @param stream
+	 */
+	public SoffitReader(InputStream stream) {
+		this(stream, new SoffitReadOptions());
+	}
+	
+	/**
+	 * Constructs a SoffitReader that reads from an {@link InputStream} using the passed {@link SoffitReadOptions}.
+	 * Nothing is read until next() is called.
+	 * Buffers are borrowed from the options' {@link SoffitBufferPool}, and are handed back once END_DOCUMENT is reached, an exception is thrown, or the reader is closed.
+	 * @param stream
+	 * @param options
+	 */
+	public SoffitReader(InputStream stream, SoffitReadOptions options) {
+		input = SoffitInputStream.wrap(stream, options);
+		lines = new StreamLineSource(input);
+		//This is an internal buffer used for converting escape sequences.
+		internalStream = new ArrayOutputStream(options.pool(), options.getMaxLineLength());
+		tokenizer = new LineTokenizer(internalStream, options.symbols());
+	}
+	
+	/**
+	 * Returns true if there are more events to read.
+	 * This is false once END_DOCUMENT has been returned.
+	 * @return
+	 */
+	public boolean hasNext() {
+		return event != SoffitEvent.END_DOCUMENT;
+	}
+	
+	/**
+	 * Advances to and returns the next event.
+	 * Throws a {@link SoffitException} if the stream is malformed, or if END_DOCUMENT was already returned.
+	 * Once an exception is thrown, the reader is closed.
+	 * @return
+	 * @throws SoffitException
+	 * @throws IOException
+	 */
+	public SoffitEvent next() throws SoffitException, IOException {
+		if(event == SoffitEvent.END_DOCUMENT)
+			throw new SoffitException("The end of the SOFFIT stream was already reached.");
+		if(closed)
+			throw new SoffitException("The SoffitReader was already closed.");
+		
+		try {
+			return advance();
+		} catch (IOException | RuntimeException e) {
+			try {
+				close();
+			} catch (IOException suppressed) {
+				e.addSuppressed(suppressed);
+			}
+			throw e;
+		}
+	}
+	
+	/**
+	 * Hands anything that was read ahead back to the stream, and the buffers back to their {@link SoffitBufferPool}.
+	 * The stream itself is left open, and can go on to be read from where the last event ended.
+	 * This is done automatically once END_DOCUMENT is reached, and does nothing if it was already done.
+	 * @throws IOException
+	 */
+	@Override
+	public void close() throws IOException {
+		if(closed)
+			return;
+		
+		closed = true;
+		try {
+			input.release();
+		} finally {
+			internalStream.release();
+		}
+	}
+	
+	private SoffitEvent advance() throws SoffitException, IOException {
+		if(!started) {
+			if(!lines.nextLine() || !SoffitUtil.areBytesEqual(lines.copyLine(), SoffitUtil.SOFFIT_START_BYTES))
+				throw new SoffitException("SOFFIT header not found.");
+			started = true;
+		}
+		
+		if(!lines.nextLine())
+			throw new SoffitException("Incomplete SOFFIT stream.");
+		
+		tokenizer.tokenize(lines.buffer, lines.start, lines.end, lines.lineNumber);
+		key = null;
+		value = null;
+		
+		switch(tokenizer.kind) {
+		case LineTokenizer.CLOSING_BRACKET:
+			if(depth == 0)
+				throw new SoffitException("SOFFIT stream contained too many closing brackets.", lines.lineNumber);
+			depth--;
+			level = depth;
+			event = SoffitEvent.END_OBJECT;
+			break;
+		case LineTokenizer.FOOTER:
+			if(depth != 0)
+				throw new SoffitException("SOFFIT footer encountered in non-root object.", lines.lineNumber);
+			level = -1;
+			event = SoffitEvent.END_DOCUMENT;
+			close();
+			break;
+		case LineTokenizer.OBJECT:
+			level = depth;
+			depth++;
+			event = SoffitEvent.START_OBJECT;
+			break;
+		default:
+			level = depth;
+			event = SoffitEvent.FIELD;
+		}
+		
+		return event;
+	}
+	
+	/**
+	 * Returns the current event, or null if next() has not been called yet.
+	 * @return
+	 */
+	public SoffitEvent getEvent() {
+		return event;
+	}
+	
+	/**
+	 * Returns the type of the object declared by the current START_OBJECT event.
+	 * Returns null for any other event.
+	 * @return
+	 */
+	public String getType() {
+		if(event != SoffitEvent.START_OBJECT)
+			return null;
+		
+		if(key == null)
+			key = tokenizer.key();
+		return key;
+	}
+	
+	/**
+	 * Returns the name of the current field, or the name of the object declared by the current START_OBJECT event.
+	 * Returns null if the object is unnamed, or for any other event.
+	 * @return
+	 */
+	public String getName() {
+		if(event == SoffitEvent.FIELD) {
+			if(key == null)
+				key = tokenizer.key();
+			return key;
+		}
+		
+		if(event == SoffitEvent.START_OBJECT)
+			return decodeValue();
+		
+		return null;
+	}
+	
+	/**
+	 * Returns the value of the current field.
+	 * Null fields have a blank value.
+	 * Returns null for any other event.
+	 * @return
+	 */
+	public String getValue() {
+		if(event != SoffitEvent.FIELD)
+			return null;
+		
+		String value = decodeValue();
+		return value == null ? "" : value;
+	}
+	
+	/**
+	 * Returns how deeply nested the current object or field is, using the same convention as {@link SoffitObject#getNestedLevel()}.
+	 * I.e., objects and fields attached directly to the root object are at level 0.
+	 * END_OBJECT events report the level of the object being closed.
+	 * @return
+	 */
+	public int getNestingLevel() {
+		return level;
+	}
+	
+	/**
+	 * Returns the line number of the current event within the stream.
+	 * @return
+	 */
+	public int getLineNumber() {
+		return lines.lineNumber;
+	}
+	
+	/**
+	 * Reads the object declared by the current START_OBJECT event, along with everything it contains, into a {@link SoffitObject}.
+	 * Afterwards, the current event is the END_OBJECT event of that object.
+	 * The returned object is not attached to a parent.
+	 * Throws a {@link SoffitException} if the current event is not START_OBJECT.
+	 * @return
+	 * @throws SoffitException
+	 * @throws IOException
+	 */
+	public SoffitObject readObject() throws SoffitException, IOException {
+		if(event != SoffitEvent.START_OBJECT)
+			throw new SoffitException("The current SOFFIT event is not the start of an object.");
+		
+		SoffitObject object;
+		if(getName() == null)
+			object = new SoffitObject(getType());
+		else
+			object = new SoffitObject(getType(), getName());
+		
+		SoffitTreeBuilder builder = new SoffitTreeBuilder(object);
+		int target = depth - 1;
+		
+		while(true) {
+			switch(next()) {
+			case START_OBJECT:
+				builder.startObject(getType(), getName());
+				break;
+			case FIELD:
+				builder.field(getName(), getValue());
+				break;
+			case END_OBJECT:
+				if(depth == target)
+					return object;
+				builder.endObject();
+				break;
+			default:
+				//next() already rejects a footer within an object.
+				throw new SoffitException("Incomplete SOFFIT stream.");
+			}
+		}
+	}
+	
+	/**
+	 * Skips over the object declared by the current START_OBJECT event, along with everything it contains.
+	 * Afterwards, the current event is the END_OBJECT event of that object.
+	 * Throws a {@link SoffitException} if the current event is not START_OBJECT.
+	 * @throws SoffitException
+	 * @throws IOException
+	 */
+	public void skipObject() throws SoffitException, IOException {
+		if(event != SoffitEvent.START_OBJECT)
+			throw new SoffitException("The current SOFFIT event is not the start of an object.");
+		
+		int target = depth - 1;
+		while(depth > target)
+			next();
+	}
+	
+	private String decodeValue() {
+		if(value == null)
+			value = tokenizer.value(lines.lineNumber);
+		return value;
+	}
+}
@@ -0,0 +1,181 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit;
+
+/**
+ * Turns the bytes of field names and object types into Strings while parsing, handing out the same String instance every time the same name or type is seen.
+ * SOFFIT streams tend to use a small set of names and types over and over, so this avoids keeping a separate copy of each one for every field and object,
+ * and lets String.equals() return as soon as it sees the same instance.
+ * <p>
+ * By default, each parse uses its own table.
+ * A table can be passed in through {@link SoffitReadOptions} to share it between parses, including parses on different threads.
+ * The table stops taking on new symbols once it holds its maximum number of them, and names or types longer than {@value #MAX_SYMBOL_LENGTH} bytes are never added.
+ */
+public class SoffitSymbolTable {
+	
+	public static final int DEFAULT_MAX_SYMBOLS = 4096;
+	public static final int MAX_SYMBOL_LENGTH = 64;
+	
+	private static final int INITIAL_CAPACITY = 64;
+	
+	/**
+	 * A single interned symbol.
+	 * Symbols are immutable, so a table can be read by one thread while another is adding to it.
+	 */
+	private static final class Symbol {
+		final byte[] bytes;
+		final int hash;
+		final String string;
+		
+		Symbol(byte[] bytes, int hash, String string) {
+			this.bytes = bytes;
+			this.hash = hash;
+			this.string = string;
+		}
+	}
+	
+	//Open addressed, and kept at most half full.
+	private volatile Symbol[] table = new Symbol[INITIAL_CAPACITY];
+	private int count = 0;
+	private final int maxSymbols;
+	
+	/**
+	 * Constructs a SoffitSymbolTable that holds up to {@value #DEFAULT_MAX_SYMBOLS} symbols.
+	 */
+	public SoffitSymbolTable() {
+		this(DEFAULT_MAX_SYMBOLS);
+	}
+	
+	/**
+	 * Constructs a SoffitSymbolTable that holds up to maxSymbols symbols.
+	 * @param maxSymbols
+	 */
+	public SoffitSymbolTable(int maxSymbols) {
+		if(maxSymbols < 0)
+			throw new IllegalArgumentException("Maximum number of symbols must not be negative");
+		
+		this.maxSymbols = maxSymbols;
+	}
+	
+	/**
+	 * Returns how many symbols this table holds.
+	 * When the table is shared between threads, this is only approximate.
+	 * @return
+	 */
+	public int size() {
+		return count;
+	}
+	
+	/**
+	 * Returns the String for the UTF-8 bytes in buffer[offset, offset + length).
+	 * If the same bytes were interned before, the same String instance is returned.
+	 * @param buffer
+	 * @param offset
+	 * @param length
+	 * @return
+	 */
+	String intern(byte[] buffer, int offset, int length) {
+		if(length > MAX_SYMBOL_LENGTH)
+			return LineTokenizer.decode(buffer, offset, length);
+		
+		int hash = 0;
+		for(int i = offset; i < offset + length; i++)
+			hash = 31 * hash + buffer[i];
+		
+		Symbol[] symbols = table;
+		int mask = symbols.length - 1;
+		int slot = (hash ^ (hash >>> 16)) & mask;
+		
+		for(int probes = 0; probes < symbols.length; probes++) {
+			Symbol symbol = symbols[slot];
+			
+			if(symbol == null)
+				return add(symbols, slot, buffer, offset, length, hash);
+			
+			if(symbol.hash == hash && matches(symbol.bytes, buffer, offset, length))
+				return symbol.string;
+			
+			slot = (slot + 1) & mask;
+		}
+		
+		return LineTokenizer.decode(buffer, offset, length);
+	}
+	
+	private String add(Symbol[] symbols, int slot, byte[] buffer, int offset, int length, int hash) {
+		String string = LineTokenizer.decode(buffer, offset, length);
+		if(count >= maxSymbols)
+			return string;
+		
+		byte[] bytes = new byte[length];
+		System.arraycopy(buffer, offset, bytes, 0, length);
+		symbols[slot] = new Symbol(bytes, hash, string);
+		count++;
+		
+		if(count * 2 > symbols.length)
+			grow(symbols);
+		
+		return string;
+	}
+	
+	/**
+	 * Moves every symbol into a table twice the size.
+	 * The new table is only swapped in once it is filled, so other threads never see a partially filled table.
+	 */
+	private void grow(Symbol[] symbols) {
+		Symbol[] grown = new Symbol[symbols.length * 2];
+		int mask = grown.length - 1;
+		
+		for(Symbol symbol : symbols) {
+			if(symbol == null)
+				continue;
+			
+			int slot = (symbol.hash ^ (symbol.hash >>> 16)) & mask;
+			while(grown[slot] != null)
+				slot = (slot + 1) & mask;
+			grown[slot] = symbol;
+		}
+		
+		table = grown;
+	}
+	
+	private static boolean matches(byte[] bytes, byte[] buffer, int offset, int length) {
+		if(bytes.length != length)
+			return false;
+		
+		for(int i = 0; i < length; i++) {
+			if(bytes[i] != buffer[offset + i])
+				return false;
+		}
+		
+		return true;
+	}
+}
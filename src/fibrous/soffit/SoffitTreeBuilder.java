@@ -0,0 +1,101 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit;
+
+import java.util.ArrayList;
+
+/**
+ * A {@link SoffitHandler} that builds a tree of SoffitObjects and SoffitFields.
+ * This is what {@link SoffitUtil#ReadStream(java.io.InputStream)} uses.
+ */
+public class SoffitTreeBuilder implements SoffitHandler {
+	
+	private final SoffitObject root;
+	private final ArrayList<SoffitObject> stack = new ArrayList<>();
+	
+	/**
+	 * Constructs a SoffitTreeBuilder with a new root object.
+	 */
+	public SoffitTreeBuilder() {
+		this(new SoffitObject(null, null));
+	}
+	
+	/**
+	 * Constructs a SoffitTreeBuilder that adds everything it receives to the passed object.
+	 * @param root
+	 */
+	public SoffitTreeBuilder(SoffitObject root) {
+		this.root = root;
+		stack.add(root);
+	}
+	
+	/**
+	 * Returns the root object.
+	 * @return
+	 */
+	public SoffitObject getRoot() {
+		return root;
+	}
+	
+	@Override
+	public void startObject(String type, String name) {
+		SoffitObject object;
+		if(name == null)
+			object = new SoffitObject(type);
+		else
+			object = new SoffitObject(type, name);
+		
+		stack.get(stack.size() - 1).add(object);
+		stack.add(object);
+	}
+	
+	@Override
+	public void field(String name, String value) {
+		stack.get(stack.size() - 1).add(new SoffitField(name, value));
+	}
+	
+	@Override
+	public void field(String name, long value) {
+		SoffitField field = new SoffitField(name, null);
+		field.put(value);
+		stack.get(stack.size() - 1).add(field);
+	}
+	
+	@Override
+	public void endObject() {
+		stack.remove(stack.size() - 1);
+	}
+	
+	@Override
+	public void endDocument() {
+	}
+}
@@ -31,15 +31,21 @@
 
 package fibrous.soffit;
 
-import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Stack;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 //*********************************************************
 //String Object Framework For Information Transfer (SOFFIT)
@@ -54,61 +60,304 @@ public class SoffitUtil {
 	
 	public static final String SOFFIT_START = "__SoffitStart";
 	public static final String SOFFIT_END = "__SoffitEnd";
-	public static final byte[] SOFFIT_START_BYTES = SOFFIT_START.getBytes();
-	public static final byte[] SOFFIT_END_BYTES = SOFFIT_END.getBytes();
+	public static final byte[] SOFFIT_START_BYTES = SOFFIT_START.getBytes(StandardCharsets.UTF_8);
+	public static final byte[] SOFFIT_END_BYTES = SOFFIT_END.getBytes(StandardCharsets.UTF_8);
 	public static final char ESCAPE_SEQUENCE = '\\';
-	static final byte[] OPEN_CURLY = "{".getBytes();
-	static final byte[] CLOSING_CURLY = "}".getBytes();
 	
 	/**
 	 * Parses an {@link InputStream} as a root SOFFIT object.
+	 * The stream is read in blocks, but no bytes past the footer are consumed from it.
+	 * Streams that support mark() and reset() have any extra bytes handed back to them.
+	 * Other streams are read one byte at a time, unless they are wrapped in a {@link SoffitInputStream}, which keeps the extra bytes buffered instead.
 	 * @param stream
 	 * @return The SOFFIT root object as parsed from the InputStream.
 	 * @throws SoffitException
 	 * @throws IOException 
 	 */
 	public static SoffitObject ReadStream(InputStream stream) throws SoffitException, IOException {
-		LineNumber ln = new LineNumber();
-		
-		//This is an internal buffer used for combining chars/strings, and the number passed into this constructor is ultimately how many characters can be in a line.
-		//Rather large buffer to account for an absurdly long line
-		ArrayOutputStream internalStream = new ArrayOutputStream(65536);
-		
-		SoffitObject root = new SoffitObject(null, null);
-		
-		byte[] header = getLine(stream, internalStream, ln);
-		if(!areBytesEqual(header, SOFFIT_START_BYTES))
-			throw new SoffitException("SOFFIT header not found.");
+		return ReadStream(stream, new SoffitReadOptions());
+	}
+	
+	/**
+	 * Parses an {@link InputStream} as a root SOFFIT object using the passed {@link SoffitReadOptions}.
+	 * The stream is read the same way as {@link #ReadStream(InputStream)}.
+	 * @param stream
+	 * @param options
+	 * @return The SOFFIT root object as parsed from the InputStream.
+	 * @throws SoffitException
+	 * @throws IOException
+	 */
+	public static SoffitObject ReadStream(InputStream stream, SoffitReadOptions options) throws SoffitException, IOException {
+		SoffitTreeBuilder builder = new SoffitTreeBuilder();
+		ReadStream(stream, builder, options);
+		return builder.getRoot();
+	}
+	
+	/**
+	 * Parses an {@link InputStream} as a root SOFFIT object, only keeping the objects chosen by a {@link SoffitProjection}.
+	 * Everything else is skipped without being parsed.
+	 * The stream is read the same way as {@link #ReadStream(InputStream)}.
+	 * @param stream
+	 * @param projection
+	 * @return The SOFFIT root object as parsed from the InputStream.
+	 * @throws SoffitException
+	 * @throws IOException
+	 */
+	public static SoffitObject ReadStream(InputStream stream, SoffitProjection projection) throws SoffitException, IOException {
+		SoffitReadOptions options = new SoffitReadOptions();
+		options.setProjection(projection);
+		return ReadStream(stream, options);
+	}
+	
+	/**
+	 * Parses an {@link InputStream}, passing everything in it to a {@link SoffitHandler} rather than building SoffitObjects.
+	 * The stream is read the same way as {@link #ReadStream(InputStream)}.
+	 * @param stream
+	 * @param handler
+	 * @throws SoffitException
+	 * @throws IOException
+	 */
+	public static void ReadStream(InputStream stream, SoffitHandler handler) throws SoffitException, IOException {
+		ReadStream(stream, handler, new SoffitReadOptions());
+	}
+	
+	/**
+	 * Parses an {@link InputStream} using the passed {@link SoffitReadOptions}, passing everything in it to a {@link SoffitHandler} rather than building SoffitObjects.
+	 * The stream is read the same way as {@link #ReadStream(InputStream)}.
+	 * @param stream
+	 * @param handler
+	 * @param options
+	 * @throws SoffitException
+	 * @throws IOException
+	 */
+	public static void ReadStream(InputStream stream, SoffitHandler handler, SoffitReadOptions options) throws SoffitException, IOException {
+		SoffitInputStream input = SoffitInputStream.wrap(stream, options);
 		
-		parseObject(stream, root, internalStream, ln);
+		try {
+			parse(new StreamLineSource(input), handler, options);
+		} finally {
+			input.release();
+		}
+	}
+	
+	/**
+	 * Parses a SOFFIT file as a root SOFFIT object.
+	 * The file is memory mapped rather than read through an {@link InputStream}, which lets the operating system's page cache serve it directly.
+	 * Files larger than 2GB are mapped in pieces.
+	 * @param path
+	 * @return The SOFFIT root object as parsed from the file.
+	 * @throws SoffitException
+	 * @throws IOException
+	 */
+	public static SoffitObject ReadFile(Path path) throws SoffitException, IOException {
+		return ReadFile(path, new SoffitReadOptions());
+	}
+	
+	/**
+	 * Parses a SOFFIT file as a root SOFFIT object using the passed {@link SoffitReadOptions}.
+	 * The file is read the same way as {@link #ReadFile(Path)}.
+	 * @param path
+	 * @param options
+	 * @return The SOFFIT root object as parsed from the file.
+	 * @throws SoffitException
+	 * @throws IOException
+	 */
+	public static SoffitObject ReadFile(Path path, SoffitReadOptions options) throws SoffitException, IOException {
+		SoffitTreeBuilder builder = new SoffitTreeBuilder();
+		ReadFile(path, builder, options);
+		return builder.getRoot();
+	}
+	
+	/**
+	 * Parses a SOFFIT file, passing everything in it to a {@link SoffitHandler} rather than building SoffitObjects.
+	 * The file is read the same way as {@link #ReadFile(Path)}.
+	 * @param path
+	 * @param handler
+	 * @throws SoffitException
+	 * @throws IOException
+	 */
+	public static void ReadFile(Path path, SoffitHandler handler) throws SoffitException, IOException {
+		ReadFile(path, handler, new SoffitReadOptions());
+	}
+	
+	/**
+	 * Parses a SOFFIT file using the passed {@link SoffitReadOptions}, passing everything in it to a {@link SoffitHandler} rather than building SoffitObjects.
+	 * The file is read the same way as {@link #ReadFile(Path)}.
+	 * @param path
+	 * @param handler
+	 * @param options
+	 * @throws SoffitException
+	 * @throws IOException
+	 */
+	public static void ReadFile(Path path, SoffitHandler handler, SoffitReadOptions options) throws SoffitException, IOException {
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			parse(new MappedLineSource(channel, options), handler, options);
+		}
+	}
+	
+	/**
+	 * Parses a SOFFIT file as a root SOFFIT object on the threads of the common {@link ForkJoinPool}.
+	 * The file is split into chunks of whole top-level objects and fields, which are parsed at the same time and then attached to the root object in their original order.
+	 * The result, including any {@link SoffitException} and the line number it reports, is the same as {@link #ReadFile(Path)}.
+	 * This is only worthwhile for large files with many top-level objects.
+	 * @param path
+	 * @return The SOFFIT root object as parsed from the file.
+	 * @throws SoffitException
+	 * @throws IOException
+	 */
+	public static SoffitObject ReadFileParallel(Path path) throws SoffitException, IOException {
+		return ReadFileParallel(path, new SoffitReadOptions(), ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Parses a SOFFIT file the same way as {@link #ReadFileParallel(Path)}, using the passed {@link SoffitReadOptions} and parsing on the passed {@link ForkJoinPool}.
+	 * Every chunk shares the same {@link SoffitSymbolTable}, and borrows its buffers from the pool of whichever thread parses it unless the options say otherwise.
+	 * @param path
+	 * @param options
+	 * @param pool
+	 * @return The SOFFIT root object as parsed from the file.
+	 * @throws SoffitException
+	 * @throws IOException
+	 */
+	public static SoffitObject ReadFileParallel(Path path, SoffitReadOptions options, ForkJoinPool pool) throws SoffitException, IOException {
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return new ParallelReader(channel, options).read(pool);
+		}
+	}
+	
+	/**
+	 * Parses an {@link InputStream} as a root SOFFIT object, but only records where each object and field is.
+	 * The objects and fields within an object, along with their names and values, are only created once they are accessed.
+	 * Looking up an object or field by name or type doesn't create anything for the objects and fields that don't match.
+	 * This makes it much cheaper to read a large stream when only a small part of it is needed.
+	 * The returned object otherwise behaves the same as one returned by {@link #ReadStream(InputStream)}.
+	 * The bytes of every name and value are copied onto the heap, along with about 36 bytes for each object and field.
+	 * @param stream
+	 * @return The SOFFIT root object as parsed from the InputStream.
+	 * @throws SoffitException
+	 * @throws IOException
+	 */
+	public static SoffitObject ReadStreamLazily(InputStream stream) throws SoffitException, IOException {
+		SoffitReadOptions options = new SoffitReadOptions();
+		SoffitInputStream input = SoffitInputStream.wrap(stream, options);
 		
-		return root;
+		try {
+			return LazySoffitObject.root(SoffitIndex.build(new StreamLineSource(input), options.symbols()));
+		} finally {
+			input.release();
+		}
+	}
+	
+	/**
+	 * Parses a SOFFIT file the same way as {@link #ReadStreamLazily(InputStream)}.
+	 * The file is memory mapped the same way as {@link #ReadFile(Path)}, and stays mapped for as long as the returned object is reachable.
+	 * Names and values are read from the mapping when they are accessed rather than being copied, so the file can be any size, and only about 36 bytes for each object and field are kept on the heap.
+	 * A {@link SoffitException} is thrown for a file with more than about 238 million objects and fields.
+	 * The file must not be modified while the returned object is in use.
+	 * @param path
+	 * @return The SOFFIT root object as parsed from the file.
+	 * @throws SoffitException
+	 * @throws IOException
+	 */
+	public static SoffitObject ReadFileLazily(Path path) throws SoffitException, IOException {
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			SoffitReadOptions options = new SoffitReadOptions();
+			return LazySoffitObject.root(SoffitIndex.build(new MappedLineSource(channel, options), options.symbols()));
+		}
 	}
 	
 	/**
 	 * Writes a SOFFIT object to an {@link OutputStream}.
+	 * This uses the default {@link SoffitWriteOptions}, which only flush at the end when writing to a file or byte array, and flush after every line otherwise.
 	 * @param root
 	 * @param output
 	 */
 	public static void WriteStream(SoffitObject root, OutputStream output) throws IOException {
-		BufferedOutputStream bStream = new BufferedOutputStream(output);
-		//This is an internal buffer used for combining chars/strings, and the number passed into this constructor is ultimately how many characters can be in a line.
-		//Rather large buffer to account for an absurdly long line
-		ArrayOutputStream internalStream = new ArrayOutputStream(65536);
+		WriteStream(root, output, new SoffitWriteOptions());
+	}
+	
+	/**
+	 * Writes a SOFFIT object to an {@link OutputStream} using the passed {@link SoffitWriteOptions}.
+	 * @param root
+	 * @param output
+	 * @param options
+	 */
+	public static void WriteStream(SoffitObject root, OutputStream output, SoffitWriteOptions options) throws IOException {
+		SoffitWriter writer = new SoffitWriter(output, options);
 		
-		//Write header
-		byte[] lineBytes = (SOFFIT_START + "\n").getBytes();
-		bStream.write(lineBytes);
-		bStream.flush();
-	
-		//Write the object itself
-		writeObjects(root, bStream, internalStream);
-		bStream.flush();
+		try {
+			//Write the object itself.  The header and footer are written by the SoffitWriter.
+			writeObjects(root, writer);
+			writer.close();
+		} finally {
+			writer.release();
+		}
+	}
+	
+	/**
+	 * Writes a SOFFIT object to a {@link WritableByteChannel} using the default {@link SoffitWriteOptions}.
+	 * The output is buffered in direct ByteBuffers and written straight to the channel, without going through an OutputStream.
+	 * Channels that implement {@link java.nio.channels.GatheringByteChannel} are handed several buffers in a single write.
+	 * By default, FileChannels are only flushed at the end, and any other channel is flushed after every line.
+	 * The channel must be in blocking mode, and is left open.
+	 * @param root
+	 * @param channel
+	 * @throws IOException
+	 */
+	public static void WriteStream(SoffitObject root, WritableByteChannel channel) throws IOException {
+		WriteStream(root, channel, new SoffitWriteOptions());
+	}
+	
+	/**
+	 * Writes a SOFFIT object to a {@link WritableByteChannel} using the passed {@link SoffitWriteOptions}.
+	 * The direct ByteBuffers are borrowed from the options' {@link SoffitBufferPool}, so they are reused from one call to the next.
+	 * See {@link #WriteStream(SoffitObject, WritableByteChannel)}.
+	 * @param root
+	 * @param channel
+	 * @param options
+	 * @throws IOException
+	 */
+	public static void WriteStream(SoffitObject root, WritableByteChannel channel, SoffitWriteOptions options) throws IOException {
+		SoffitWriter writer = new SoffitWriter(channel, options);
 		
-		//Write footer
-		lineBytes = (SOFFIT_END + "\n").getBytes();
-		bStream.write(lineBytes);
-		bStream.flush();
+		try {
+			writeObjects(root, writer);
+			writer.close();
+		} finally {
+			//Hands back the direct buffers along with the line buffer
+			writer.release();
+		}
+	}
+	
+	/**
+	 * Writes a SOFFIT object to an {@link OutputStream}, with its top-level objects written on the common {@link ForkJoinPool}.
+	 * This uses the default {@link SoffitWriteOptions}.
+	 * See {@link #WriteStreamParallel(SoffitObject, OutputStream, SoffitWriteOptions, ForkJoinPool)}.
+	 * @param root
+	 * @param output
+	 * @throws IOException
+	 */
+	public static void WriteStreamParallel(SoffitObject root, OutputStream output) throws IOException {
+		WriteStreamParallel(root, output, new SoffitWriteOptions(), ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Writes a SOFFIT object to an {@link OutputStream}, with its top-level objects written on several threads at once.
+	 * The top-level objects are split into groups, and each group is written into its own buffer on pool.
+	 * The buffers are then written to output in order, so the stream is exactly the same as the one {@link #WriteStream(SoffitObject, OutputStream, SoffitWriteOptions)} would write.
+	 * <p>
+	 * The tree must not be modified while it is being written.
+	 * A tree read by {@link #ReadStreamLazily(InputStream)} or {@link #ReadFileLazily(Path)} is written on the calling thread instead, since it isn't safe to read from several threads at once.
+	 * Since each group is written all at once, a {@link SoffitWriteOptions.FlushPolicy#LINE} policy flushes once per group instead of once per line.
+	 * A top-level object too large to buffer is written straight to output on the calling thread, line by line the same as WriteStream().
+	 * @param root
+	 * @param output
+	 * @param options
+	 * @param pool
+	 * @throws IOException
+	 */
+	public static void WriteStreamParallel(SoffitObject root, OutputStream output, SoffitWriteOptions options, ForkJoinPool pool) throws IOException {
+		new ParallelWriter(options).write(root, output, pool);
 	}
 	
 	/**
@@ -126,7 +375,7 @@ public class SoffitUtil {
 			throw new RuntimeException(e);
 		}
 		
-		return baos.toString();
+		return new String(baos.toByteArray(), StandardCharsets.UTF_8);
 	}
 	
 	/**
@@ -137,393 +386,540 @@ public class SoffitUtil {
 	 * @throws SoffitException 
 	 */
 	public static SoffitObject ReadStreamFromString(String stream) throws SoffitException, IOException {
-		ByteArrayInputStream bais = new ByteArrayInputStream(stream.getBytes());
+		ByteArrayInputStream bais = new ByteArrayInputStream(stream.getBytes(StandardCharsets.UTF_8));
 		return ReadStream(bais);
 	}
 	
 	/**
-	 * Writes fields first, and then every object recursively.
-	 * @throws IOException 
+	 * Writes a root SOFFIT object to an {@link OutputStream} in the binary SOFFIT encoding.
+	 * The binary encoding holds exactly the same objects, names, and fields as the text encoding, in the same order,
+	 * so {@link #ReadBinary(InputStream)} returns a tree that {@link #WriteStream(SoffitObject, OutputStream)} writes the same way as the original.
+	 * Field names and object types are only written out once per document, and lengths are written as varints instead of quoting and escaping,
+	 * which makes it smaller and faster to read than the text encoding when nobody needs to read it.
+	 * @param root
+	 * @param output
+	 * @throws IOException
 	 */
-	private static void writeObjects(SoffitObject object, BufferedOutputStream bStream, ArrayOutputStream internalStream) throws IOException {		
-		//Write the fields first
-		for(int i = 0; i < object.getAllFields().size(); i++) {			
-			//Write the line containing a field...
-			
-			SoffitField field = object.getAllFields().get(i);
-			
-			//Check for null pointer assigned to the field's value.
-			if(field.getValue() == null)
-				throw new NullPointerException("Value assigned to SOFFIT field \"" + field.getName() + "\" is a null pointer.");
+	public static void WriteBinary(SoffitObject root, OutputStream output) throws IOException {
+		WriteBinary(root, output, new SoffitWriteOptions());
+	}
+	
+	/**
+	 * Writes a root SOFFIT object to an {@link OutputStream} in the binary SOFFIT encoding using the passed {@link SoffitWriteOptions}.
+	 * The flush policy treats each object declaration, field, and closing bracket the same way as a line.
+	 * @param root
+	 * @param output
+	 * @param options
+	 * @throws IOException
+	 */
+	public static void WriteBinary(SoffitObject root, OutputStream output, SoffitWriteOptions options) throws IOException {
+		BinaryWriter writer = new BinaryWriter(output, options);
 		
-			bStream.write(convertFieldToLineBytes(field, internalStream));
-			bStream.flush();
+		try {
+			replay(root, writer);
+			writer.close();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			writer.release();
 		}
+	}
+	
+	/**
+	 * Parses a binary SOFFIT stream, as written by {@link #WriteBinary(SoffitObject, OutputStream)}, as a root SOFFIT object.
+	 * The stream is read the same way as {@link #ReadStream(InputStream)}, so no bytes past the end of the document are consumed from it.
+	 * @param stream
+	 * @return The SOFFIT root object as decoded from the InputStream.
+	 * @throws SoffitException
+	 * @throws IOException
+	 */
+	public static SoffitObject ReadBinary(InputStream stream) throws SoffitException, IOException {
+		return ReadBinary(stream, new SoffitReadOptions());
+	}
+	
+	/**
+	 * Parses a binary SOFFIT stream as a root SOFFIT object using the passed {@link SoffitReadOptions}.
+	 * The maximum line length limits the length of each name and value.
+	 * @param stream
+	 * @param options
+	 * @return The SOFFIT root object as decoded from the InputStream.
+	 * @throws SoffitException
+	 * @throws IOException
+	 */
+	public static SoffitObject ReadBinary(InputStream stream, SoffitReadOptions options) throws SoffitException, IOException {
+		SoffitTreeBuilder builder = new SoffitTreeBuilder();
+		ReadBinary(stream, builder, options);
+		return builder.getRoot();
+	}
+	
+	/**
+	 * Parses a binary SOFFIT stream, passing everything in it to a {@link SoffitHandler} rather than building SoffitObjects.
+	 * Whole numbers that were written as primitives are passed to {@link SoffitHandler#field(String, long)}.
+	 * @param stream
+	 * @param handler
+	 * @throws SoffitException
+	 * @throws IOException
+	 */
+	public static void ReadBinary(InputStream stream, SoffitHandler handler) throws SoffitException, IOException {
+		ReadBinary(stream, handler, new SoffitReadOptions());
+	}
+	
+	/**
+	 * Parses a binary SOFFIT stream using the passed {@link SoffitReadOptions}, passing everything in it to a {@link SoffitHandler} rather than building SoffitObjects.
+	 * @param stream
+	 * @param handler
+	 * @param options
+	 * @throws SoffitException
+	 * @throws IOException
+	 */
+	public static void ReadBinary(InputStream stream, SoffitHandler handler, SoffitReadOptions options) throws SoffitException, IOException {
+		SoffitInputStream input = SoffitInputStream.wrap(stream, options);
 		
-		//Write object declarations and then recursively write other objects
-		for(int i = 0; i < object.getAllObjects().size(); i++) {
-			
-			SoffitObject currentObject = object.getAllObjects().get(i);
-			//Write the line the object declaration...
-			bStream.write(convertObjectDeclarationToLineBytes(currentObject, internalStream));
-			bStream.flush();
-			
-			//Recursively write the next fields and object declarations.
-			writeObjects(currentObject, bStream, internalStream);
-			
-			//Write closing brackets.
-			internalStream.reset();
-			//Set indentation
-			if(currentObject.getParent() != null) {
-				for(int i2 = 0; i2 < currentObject.getNestedLevel(); i2++) {
-					internalStream.write((byte) '\t');
-				}	
-			}
-			
-			internalStream.write((byte) '}');
-			internalStream.write((byte) '\n');
-			
-			//Flush the output stream.
-			bStream.write(internalStream.getWrittenBytes());
-			bStream.flush();
+		try {
+			new BinaryReader(input, options).read(handler);
+		} finally {
+			input.release();
 		}
-	}	
+	}
 	
 	/**
-	 * Parses and interprets SoffitObjects and its contained SoffitFields and nested SoffitObjects.
-	 * @throws IOException 
+	 * Converts a text SOFFIT stream to the binary encoding, one object declaration or field at a time, without building a tree.
+	 * Comments and blank lines are not carried over.
+	 * @param text
+	 * @param binary
+	 * @throws SoffitException
+	 * @throws IOException
 	 */
+	public static void TextToBinary(InputStream text, OutputStream binary) throws SoffitException, IOException {
+		BinaryWriter writer = new BinaryWriter(binary, new SoffitWriteOptions());
+		
+		try {
+			ReadStream(text, writer);
+			writer.close();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			writer.release();
+		}
+	}
 	
-	private static void parseObject(InputStream stream, SoffitObject parent, ArrayOutputStream internalStream, LineNumber ln) throws SoffitException, IOException {
-		Stack<SoffitObject> stack = new Stack<>();
-		stack.push(parent);
+	/**
+	 * Converts a binary SOFFIT stream to the text encoding, one object declaration or field at a time, without building a tree.
+	 * The text is written exactly the same way as {@link #WriteStream(SoffitObject, OutputStream)} would write the same objects.
+	 * @param binary
+	 * @param text
+	 * @throws SoffitException
+	 * @throws IOException
+	 */
+	public static void BinaryToText(InputStream binary, OutputStream text) throws SoffitException, IOException {
+		SoffitWriter writer = new SoffitWriter(text);
 		
-		while (!stack.isEmpty()) {
-			SoffitObject currentObject = stack.peek();
-			byte[] line = getLine(stream, internalStream, ln);
-			
-			//If we didn't get anything, then break out.
-			if (line == null) {
-			    throw new SoffitException("Incomplete SOFFIT stream.");
-			}
-			
-			ArrayList<byte[]> tokens = getLineTokens(line, internalStream);
-			
-			//Ensure there are no double quotes in first token (The first token would be an object type, field name, or closing bracket)
-			if(containsCharacter(tokens.get(0), '"'))
-				throw new SoffitException("SOFFIT syntax error.", ln.get());
-			
-			//Closing Bracket
-			if (tokens.size() == 1 && areBytesEqual(tokens.get(0), CLOSING_CURLY)) {
-				if (!currentObject.isRoot()) {
-					stack.pop();
-				} else {
-					throw new SoffitException("SOFFIT stream contained too many closing brackets.", ln.get());
-				}
-			//SOFFIT Footer
-			} else if (areBytesEqual(tokens.get(0), SOFFIT_END_BYTES)) {
-				if (!currentObject.isRoot()) {
-					throw new SoffitException("SOFFIT footer encountered in non-root object.", ln.get());
+		try {
+			ReadBinary(binary, new SoffitHandler() {
+				@Override
+				public void startObject(String type, String name) {
+					try {
+						writer.beginObject(type, name);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
 				}
-				break;
-			//Handle Objects
-			} else if (isObject(tokens)) {
-				SoffitObject object;
-				byte[] type = tokens.get(0);
 				
-				if(tokens.size() == 2) {
-					object = new SoffitObject(new String(type, StandardCharsets.US_ASCII));
-				} else {
-					byte[] name = stripQuotations(tokens.get(1));
-					
-					//Check for proper escape sequences
+				@Override
+				public void field(String name, String value) {
 					try {
-						name = convertFromEscapeSequence(name, internalStream);
-					} catch (SoffitException e) {
-						throw new SoffitException(e, ln.get());
+						writer.field(name, value);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
 					}
-					object = new SoffitObject(new String(type, StandardCharsets.US_ASCII), new String(name, StandardCharsets.US_ASCII));
 				}
 				
-				currentObject.add(object);
-				stack.push(object);
-			//Handle Fields
-			} else if (isField(tokens)) {
-				byte[] name = tokens.get(0);
+				@Override
+				public void field(String name, long value) {
+					try {
+						writer.field(name, value);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				}
 				
-				//Set value, if defined.
-				if(tokens.size() > 1) {
-					byte[] value = stripQuotations(tokens.get(1));
-			
-					// Check for proper escape sequences
+				@Override
+				public void endObject() {
 					try {
-						value = convertFromEscapeSequence(value, internalStream);
-					} catch (SoffitException e) {
-						throw new SoffitException(e, ln.get());
+						writer.endObject();
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
 					}
-					currentObject.add(new SoffitField(new String(name, StandardCharsets.US_ASCII), new String(value, StandardCharsets.US_ASCII)));
-				} else {
-					currentObject.add(new SoffitField(new String(name, StandardCharsets.US_ASCII), ""));
 				}
-			} else {
-			    throw new SoffitException("SOFFIT syntax error.", ln.get());
-			}
+				
+				@Override
+				public void endDocument() {
+				}
+			});
+			writer.close();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			writer.release();
 		}
 	}
 	
 	/**
-	 * Internal to the parseObject method.
-	 * @throws IOException 
+	 * Passes a tree to a handler the same way a parser would, writing fields first, and then every object, depth first.
+	 * Objects that are still being passed are kept on a stack rather than recursing, the same as {@link #writeObjects(List, SoffitWriter)}.
 	 */
-	private static ArrayList<byte[]> getLineTokens(byte[] line, ArrayOutputStream tokenStream) throws IOException {
-		ArrayList<byte[]> tokens = new ArrayList<>();
+	private static void replay(SoffitObject root, SoffitHandler handler) {
+		//For every open object, the objects it contains and how many of them have been passed.
+		ArrayList<List<SoffitObject>> stack = new ArrayList<>();
+		int[] positions = new int[16];
 		
-		int mark = 0;
-		byte[] nextToken = null;
+		replayFields(root, handler);
+		stack.add(root.getAllObjects());
 		
-		try {
-			while(true) {
-				tokenStream.reset();
-				
-				//Look for quotes
-				if(line[mark] == (byte) '"') {
-					
-					tokenStream.write(line[mark]);
-					mark++;
-					for(int i = mark;; i++) {
-						mark++;
-						
-						//Check for escape sequence.
-						if(line[i] == (byte) '\\') {
-							if(line[i + 1] == (byte) '"') {
-								tokenStream.write((byte) '"');
-								mark++;
-								i++;
-								continue;
-							}
-						}
-						
-						if(line[i] == (byte) '"') {
-							tokenStream.write(line[i]);
-							break;
-						}
-						
-						tokenStream.write(line[i]);
-					}
-				} else {
-					for(int i = mark;; i++) {
-						mark++;
-						
-						//Check for space
-						if(line[i] == ' ')
-							break;
-						
-						tokenStream.write(line[i]);
-					}
-				}
-				
-				nextToken = stripByteArray(tokenStream.getWrittenBytes());
-				if(!areBytesBlank(nextToken))
-					tokens.add(nextToken);
+		while(!stack.isEmpty()) {
+			int top = stack.size() - 1;
+			List<SoffitObject> objects = stack.get(top);
+			
+			if(positions[top] == objects.size()) {
+				stack.remove(top);
+				if(top > 0)
+					handler.endObject();
+				continue;
 			}
-		} catch (IndexOutOfBoundsException e) {
-			nextToken = stripByteArray(tokenStream.getWrittenBytes());
-			if(!areBytesBlank(nextToken))
-				tokens.add(nextToken);
+			
+			SoffitObject currentObject = objects.get(positions[top]++);
+			handler.startObject(currentObject.getType(), currentObject.getName());
+			replayFields(currentObject, handler);
+			
+			if(top + 1 == positions.length)
+				positions = Arrays.copyOf(positions, positions.length * 2);
+			positions[top + 1] = 0;
+			stack.add(currentObject.getAllObjects());
 		}
 		
-		return tokens;
+		handler.endDocument();
 	}
 	
-	private static byte[] getLine(InputStream is, ArrayOutputStream internalStream, LineNumber ln) {
+	private static void replayFields(SoffitObject object, SoffitHandler handler) {
+		ArrayList<SoffitField> fields = object.getAllFields();
+		int count = fields.size();
+		for(int i = 0; i < count; i++) {
+			SoffitField field = fields.get(i);
+			
+			TypedValue typed = field.unformattedValue();
+			if(typed != null && typed.kind == TypedValue.LONG)
+				handler.field(field.getName(), typed.bits);
+			else
+				handler.field(field.getName(), field.getValue());
+		}
+	}
+	
+	/**
+	 * Writes fields first, and then every object, depth first.
+	 * @throws IOException 
+	 */
+	private static void writeObjects(SoffitObject root, SoffitWriter writer) throws IOException {
+		writeFields(root, writer);
+		writeObjects(root.getAllObjects(), writer);
+	}
+	
+	/**
+	 * Writes each object along with everything it contains, depth first.
+	 * Objects that are still being written are kept on a stack rather than recursing, so the depth of the tree is not limited by the thread's stack size.
+	 * @throws IOException 
+	 */
+	static void writeObjects(List<SoffitObject> topObjects, SoffitWriter writer) throws IOException {
+		//For every open object, the objects it contains and how many of them have been written.
+		ArrayList<List<SoffitObject>> stack = new ArrayList<>();
+		int[] positions = new int[16];
+		
+		stack.add(topObjects);
 		
-		while(true) {
-			internalStream.reset();
-			boolean eos = false;
-			ln.increment();
+		while(!stack.isEmpty()) {
+			int top = stack.size() - 1;
+			List<SoffitObject> objects = stack.get(top);
 			
-			while(true) {
-				
-				try {
-					int c = is.read();
-					
-					//Check for EOS;
-					if(c == -1) {
-						eos = true;
-						break;
-					}
-					
-					//Check for new line
-					if(c == (int) '\n')
-						break;
-					if(c == (int) '\r')
-						continue;
-					
-					internalStream.write((byte) c);
-					
-				} catch(IOException e) {
-					//Explicitly return null
-					return null;
-				}
+			//Write the closing bracket once everything in an object is written.
+			if(positions[top] == objects.size()) {
+				stack.remove(top);
+				if(top > 0)
+					writer.endObject();
+				continue;
 			}
 			
-			byte[] bytes = stripByteArray(internalStream.getWrittenBytes());
-			
-			//Check for EOS and essentially a null line
-			if(eos && bytes.length == 0)
-				return null;
+			SoffitObject currentObject = objects.get(positions[top]++);
+			writer.beginObject(currentObject.getType(), currentObject.getName());
+			writeFields(currentObject, writer);
 			
-			//Return if EOS is reached
-			if(eos)
-				return bytes;
-			
-			//Check for blank line
-			if(bytes.length == 0)
-				continue;
-			
-			//Check for comments
-			if(bytes[0] == (byte) '#')
-				continue;
+			if(top + 1 == positions.length)
+				positions = Arrays.copyOf(positions, positions.length * 2);
+			positions[top + 1] = 0;
+			stack.add(currentObject.getAllObjects());
+		}
+	}
+	
+	static void writeFields(SoffitObject object, SoffitWriter writer) throws IOException {
+		ArrayList<SoffitField> fields = object.getAllFields();
+		int count = fields.size();
+		for(int i = 0; i < count; i++) {
+			SoffitField field = fields.get(i);
 			
-			return bytes;
+			//Whole numbers that were never turned into a String have their digits written straight into the line.
+			TypedValue typed = field.unformattedValue();
+			if(typed != null && typed.kind == TypedValue.LONG)
+				writer.field(field.getName(), typed.bits);
+			else
+				writer.field(field.getName(), field.getValue());
 		}
 	}
 	
 	/**
-	 * Removes whitespace from a byte array.
-	 * @param bytes
-	 * @return
+	 * Checks for the header, and then parses the rest of the stream.
+	 * @throws IOException
 	 */
-	private static byte[] stripByteArray(byte[] bytes) {
-		int left = 0;
-		for(; left < bytes.length; left++) {
-			if(!isWhitespace(bytes[left])) {
-				break;
-			}
-		}
+	private static void parse(LineSource lines, SoffitHandler handler, SoffitReadOptions options) throws SoffitException, IOException {
+		if(!lines.nextLine() || !areBytesEqual(lines.copyLine(), SOFFIT_START_BYTES))
+			throw new SoffitException("SOFFIT header not found.");
 		
-		int right = bytes.length - 1;
-		for(; right >= 0; right--) {
-			if(!isWhitespace(bytes[right])) {
-				break;
-			}
-		}
+		//This is an internal buffer used for combining chars/strings.  It grows up to the maximum line length, and is borrowed from a pool so it can be reused by the next stream.
+		ArrayOutputStream internalStream = new ArrayOutputStream(options.pool(), options.getMaxLineLength());
 		
-		byte[] strippedBytes = new byte[right - left + 1];
-		System.arraycopy(bytes, left, strippedBytes, 0, strippedBytes.length);
-		return strippedBytes;
+		try {
+			parseObject(lines, handler, new LineTokenizer(internalStream, options.symbols()), options.getParseNumbers(), options.getProjection(), true);
+		} finally {
+			internalStream.release();
+		}
 	}
 	
-	private static boolean areBytesBlank(byte[] bytes) {
-		if(bytes.length == 0)
-			return true;
+	/**
+	 * Parses and interprets SoffitObjects and its contained SoffitFields and nested SoffitObjects.
+	 * Everything is passed straight to the handler as it is parsed.
+	 * If parseNumbers is true, numeric field values are passed to the handler as primitives.
+	 * If projection is not null, objects that it doesn't keep are skipped without being parsed.
+	 * If wholeStream is false, lines is only part of a stream whose structure was already checked, so reaching the end of it simply returns.
+	 * @throws IOException 
+	 */
+	static void parseObject(LineSource lines, SoffitHandler handler, LineTokenizer tokenizer, boolean parseNumbers, SoffitProjection projection, boolean wholeStream) throws SoffitException, IOException {
+		//Number of objects currently open
+		int depth = 0;
+		SoffitProjection.Matcher matcher = projection == null ? null : projection.new Matcher();
 		
-		for(int i = 0; i < bytes.length; i++) {
-			if(!isWhitespace(bytes[i]))
-				return false;
+		while (true) {
+			//If we didn't get anything, then break out.
+			if (!lines.nextLine()) {
+				if(!wholeStream)
+					return;
+			    throw new SoffitException("Incomplete SOFFIT stream.");
+			}
+			
+			if(matcher == null) {
+				depth = parseLine(lines.buffer, lines.start, lines.end, lines.lineNumber, depth, handler, tokenizer, parseNumbers);
+			} else {
+				tokenizer.tokenize(lines.buffer, lines.start, lines.end, lines.lineNumber);
+				
+				if(tokenizer.kind == LineTokenizer.OBJECT) {
+					String type = tokenizer.key();
+					//Names are only decoded here if they are needed to match the declaration.
+					String name = projection.usesNames() ? tokenizer.value(lines.lineNumber) : null;
+					if(!matcher.enter(type, name)) {
+						lines.skipObject();
+						continue;
+					}
+					
+					handler.startObject(type, projection.usesNames() ? name : tokenizer.value(lines.lineNumber));
+					depth++;
+					continue;
+				}
+				
+				if(tokenizer.kind == LineTokenizer.CLOSING_BRACKET && depth > 0)
+					matcher.exit();
+				depth = dispatch(lines.lineNumber, depth, handler, tokenizer, parseNumbers);
+			}
+			
+			if(depth < 0)
+				return;
 		}
-		
-		return true;
 	}
 	
-	private static boolean isWhitespace(int i) {
-		switch(i) {
-		//tab
-		case 9:
-		//space
-		case 32:
-			return true;
-			
+	/**
+	 * Parses a single line within a document, passing everything on it straight to the handler.
+	 * The line must already be trimmed of whitespace, and must not be blank or a comment.
+	 * @param buffer
+	 * @param start
+	 * @param end
+	 * @param lineNumber Only used for exception messages.
+	 * @param depth The number of objects open before the line.
+	 * @param handler
+	 * @param tokenizer
+	 * @param parseNumbers
+	 * @return The number of objects open after the line, or -1 if the line was the footer.
+	 */
+	static int parseLine(byte[] buffer, int start, int end, int lineNumber, int depth, SoffitHandler handler, LineTokenizer tokenizer, boolean parseNumbers) throws SoffitException {
+		tokenizer.tokenize(buffer, start, end, lineNumber);
+		return dispatch(lineNumber, depth, handler, tokenizer, parseNumbers);
+	}
+	
+	/**
+	 * Passes the line that was just tokenized to the handler.
+	 * @param lineNumber Only used for exception messages.
+	 * @param depth The number of objects open before the line.
+	 * @param handler
+	 * @param tokenizer
+	 * @param parseNumbers
+	 * @return The number of objects open after the line, or -1 if the line was the footer.
+	 */
+	private static int dispatch(int lineNumber, int depth, SoffitHandler handler, LineTokenizer tokenizer, boolean parseNumbers) throws SoffitException {
+		switch(tokenizer.kind) {
+		//Closing Bracket
+		case LineTokenizer.CLOSING_BRACKET:
+			if (depth > 0) {
+				handler.endObject();
+				return depth - 1;
+			} else {
+				throw new SoffitException("SOFFIT stream contained too many closing brackets.", lineNumber);
+			}
+		//SOFFIT Footer
+		case LineTokenizer.FOOTER:
+			if (depth > 0) {
+				throw new SoffitException("SOFFIT footer encountered in non-root object.", lineNumber);
+			}
+			handler.endDocument();
+			return -1;
+		//Handle Objects
+		case LineTokenizer.OBJECT:
+			handler.startObject(tokenizer.key(), tokenizer.value(lineNumber));
+			return depth + 1;
+		//Handle Fields
 		default:
-			return false;
+			if(parseNumbers && tokenizer.isWholeNumber()) {
+				handler.field(tokenizer.key(), tokenizer.wholeNumber);
+				return depth;
+			}
+			
+			//Null fields are given a blank value.
+			String value = tokenizer.hasValue() ? tokenizer.value(lineNumber) : "";
+			handler.field(tokenizer.key(), value);
+			return depth;
 		}
 	}
 	
 	/**
-	 * Internal to the writeObject method.
-	 * @throws IOException 
+	 * Writes a line containing a field to internalStream, without any indentation.
+	 * Throws a {@link NullPointerException} if the value is null.
 	 */
-	private static byte[] convertFieldToLineBytes(SoffitField field, ArrayOutputStream internalStream) throws IOException {
-		internalStream.reset();
-		
-		String name = field.getName();
-		String value = field.getValue();
-		
-		//Set indentation
-		for(int i = 0; i < field.getNestingLevel(); i++) {
-			internalStream.write((byte) '\t');
-		}
+	static void writeFieldLine(String name, String value, ArrayOutputStream internalStream) {
+		//Check for null pointer assigned to the field's value.
+		if(value == null)
+			throw new NullPointerException("Value assigned to SOFFIT field \"" + name + "\" is a null pointer.");
 		
 		//Name
-		for(int i = 0; i < name.length(); i++) {
-			internalStream.write((byte) name.charAt(i));
-		}
+		encode(name, false, internalStream);
 		internalStream.write((byte) ' ');
 		
 		//Value
 		//Check for blank value
-		if(!field.getValue().isEmpty()) {
+		if(!value.isEmpty()) {
 			internalStream.write((byte) '"');
-			
-			internalStream.mark();
-			byte[] valueBytes = convertToEscapeSequence(value, internalStream);
-			internalStream.goToMark();
-			
-			internalStream.write(valueBytes);
+			convertToEscapeSequence(value, internalStream);
 			internalStream.write((byte) '"');
 		}
 		
 		internalStream.write((byte) '\n');
-		return internalStream.getWrittenBytes();
 	}
 	
-	private static byte[] convertObjectDeclarationToLineBytes(SoffitObject object, ArrayOutputStream internalStream) throws IOException {
-		internalStream.reset();
+	/**
+	 * Writes a line containing a field with a whole number value to internalStream, without any indentation.
+	 * The digits are written the same way String.valueOf() would format them.
+	 */
+	static void writeFieldLine(String name, long value, ArrayOutputStream internalStream) {
+		//Name
+		encode(name, false, internalStream);
+		internalStream.write((byte) ' ');
 		
-		String type = object.getType();
-		String name = object.getName();
+		//Value
+		internalStream.write((byte) '"');
+		writeDigits(value, internalStream);
+		internalStream.write((byte) '"');
 		
-		//Set indentation
-		for(int i = 0; i < object.getNestedLevel(); i++) {
-			internalStream.write((byte) '\t');
-		}
+		internalStream.write((byte) '\n');
+	}
+	
+	/**
+	 * Writes the decimal digits of value to internalStream, without creating a String.
+	 */
+	static void writeDigits(long value, ArrayOutputStream internalStream) {
+		//A long has at most 19 digits and a sign.
+		internalStream.ensureCapacity(20);
+		byte[] buffer = internalStream.buffer;
+		int pos = internalStream.pos;
 		
-		//Type
-		for(int i = 0; i < type.length(); i++) {
-			internalStream.write((byte) type.charAt(i));
+		//Work with the negative value, since Long.MIN_VALUE has no positive counterpart.
+		if(value < 0)
+			buffer[pos++] = (byte) '-';
+		else
+			value = -value;
+		
+		int digits = 1;
+		for(long power = -10; digits < 19 && value <= power; power *= 10)
+			digits++;
+		
+		//Fill in the digits from the end, switching to int division once the rest fits in an int.
+		int i = pos + digits;
+		internalStream.pos = i;
+		while(value < Integer.MIN_VALUE) {
+			long quotient = value / 10;
+			buffer[--i] = (byte) ('0' + (quotient * 10 - value));
+			value = quotient;
 		}
+		int v = (int) value;
+		while(v <= -10) {
+			int quotient = v / 10;
+			buffer[--i] = (byte) ('0' + (quotient * 10 - v));
+			v = quotient;
+		}
+		buffer[--i] = (byte) ('0' - v);
+	}
+	
+	/**
+	 * Writes a line containing an object declaration to internalStream, without any indentation.
+	 * The name may be null or blank if the object is unnamed.
+	 */
+	static void writeObjectDeclarationLine(String type, String name, ArrayOutputStream internalStream) {
+		//Type
+		encode(type, false, internalStream);
 		internalStream.write((byte) ' ');
 		
 		//name
-		if(name.length() > 0 && name != null) {
+		if(name != null && name.length() > 0) {
 			internalStream.write((byte) '"');
-			
-			internalStream.mark();
-			byte[] valueBytes = convertToEscapeSequence(name, internalStream);
-			internalStream.goToMark();
-			
-			internalStream.write(valueBytes);
+			convertToEscapeSequence(name, internalStream);
 			internalStream.write((byte) '"');
 			internalStream.write((byte) ' ');
 		}
 		internalStream.write((byte) '{');
 		internalStream.write((byte) '\n');
-		
-		return internalStream.getWrittenBytes();
+	}
+	
+	/**
+	 * Writes a line containing a closing bracket to internalStream, without any indentation.
+	 */
+	static void writeClosingBracketLine(ArrayOutputStream internalStream) {
+		internalStream.write((byte) '}');
+		internalStream.write((byte) '\n');
 	}
 	
 	/**
 	 * Internal to the parseObject method.
-	 * @throws IOException 
+	 * Writes the bytes of s[start, end) to internalStream with any escape sequences converted.
 	 */
-	private static byte[] convertFromEscapeSequence(byte[] s, ArrayOutputStream internalStream) throws IOException {
-		
-		internalStream.reset();
-		
-		for(int i = 0; i < s.length; i++) {
+	static void convertFromEscapeSequence(byte[] s, int start, int end, ArrayOutputStream internalStream) {
+		for(int i = start; i < end; i++) {
 			//Look for escape character
 			if(s[i] == (byte) '\\') {
 				
+				if(i + 1 == end)
+					throw new SoffitException("Invalid SOFFIT escape sequence");
+				
 				//Double quote
 				if(s[i + 1] == (byte) '"') {
 					internalStream.write((byte) '"');
@@ -551,109 +947,124 @@ public class SoffitUtil {
 			//Add all normal characters
 			internalStream.write(s[i]);
 		}
-		
-		return internalStream.getWrittenBytes();
-	}
-	
-	private static byte[] convertToEscapeSequence(String s, ArrayOutputStream internalStream) throws IOException {
-		//String convertedString = "";
-		for(int i = 0; i < s.length(); i++) {
-			//Double quote correction
-			if(s.charAt(i) == '"') {
-				internalStream.write((byte) '\\');
-				internalStream.write((byte) '"');
-				continue;
-			}
-			//Newline correction
-			if(s.charAt(i) == '\n') {
-				internalStream.write((byte) '\\');
-				internalStream.write((byte) 'n');
-				continue;
-			}
-			//Backslash correction
-			if(s.charAt(i) == ESCAPE_SEQUENCE) {
-				internalStream.write((byte) '\\');
-				internalStream.write((byte) '\\');
-				continue;
-			}
-			
-			//Add all normal characters
-			internalStream.write((byte) s.charAt(i));
-		}
-		
-		//return convertedString;
-		return internalStream.getWrittenBytesFromMark();
 	}
 	
-	private static byte[] stripQuotations(byte[] s) {
-		byte[] stripped = new byte[s.length - 2];
-		System.arraycopy(s, 1, stripped, 0, stripped.length);
-		return stripped;
+	/**
+	 * Writes s to internalStream as UTF-8, with any characters that need escaping converted to escape sequences.
+	 */
+	private static void convertToEscapeSequence(String s, ArrayOutputStream internalStream) {
+		encode(s, true, internalStream);
 	}
 	
-	private static boolean isField(ArrayList<byte[]> tokens) {
-		if(tokens.size() > 2)
-			return false;
-		
-		byte[] lastToken = tokens.get(tokens.size() - 1);
-		
-		//Bracket indicates object
-		//TODO: determine if this is redundant.  This seems logically accounted for in the parseObject method.
-		if(areBytesEqual(lastToken, OPEN_CURLY))
-			return false;
-		
-		//Check for quotes
-		if(lastToken[0] == (byte) '"' && lastToken[lastToken.length - 1] == (byte) '"')
-			return true;
+	/**
+	 * Writes s to internalStream as UTF-8.
+	 * If escape is true, double quotes, newlines, and backslashes are converted to escape sequences.
+	 * Runs of ASCII characters, which make up most SOFFIT streams, are copied by {@link #copyAscii(String, int, int, boolean, byte[], int)},
+	 * and only the characters that end a run go through the slower path below.
+	 */
+	static void encode(String s, boolean escape, ArrayOutputStream internalStream) {
+		int length = s.length();
+		byte[] buffer = internalStream.buffer;
+		int pos = internalStream.pos;
+		//Room for the longest thing a single character can turn into
+		int limit = buffer.length - 4;
 		
-		//Null field
-		if(tokens.size() == 1) {
-			return true;
+		for(int i = 0; i < length; i++) {
+			//Copy as much as fits of the ASCII run starting here
+			int end = copyAscii(s, i, Math.min(length, i + buffer.length - pos), escape, buffer, pos);
+			pos += end - i;
+			i = end;
+			if(i == length)
+				break;
+			
+			//Near the end of the buffer, only make room for what this character actually needs, so a line can fill the buffer right up to its maximum size.
+			if(pos > limit) {
+				int needed = encodedLength(s, i, escape);
+				if(buffer.length - pos < needed) {
+					internalStream.pos = pos;
+					internalStream.ensureCapacity(needed);
+					buffer = internalStream.buffer;
+					limit = buffer.length - 4;
+				}
+			}
+			
+			char c = s.charAt(i);
+			
+			//ASCII
+			if(c < 0x80) {
+				if(escape && (c == '"' || c == '\n' || c == ESCAPE_SEQUENCE)) {
+					buffer[pos++] = (byte) ESCAPE_SEQUENCE;
+					buffer[pos++] = c == '\n' ? (byte) 'n' : (byte) c;
+				} else {
+					buffer[pos++] = (byte) c;
+				}
+			} else if(c < 0x800) {
+				buffer[pos++] = (byte) (0xC0 | (c >> 6));
+				buffer[pos++] = (byte) (0x80 | (c & 0x3F));
+			} else if(Character.isSurrogate(c)) {
+				//Characters outside of the BMP take two chars, and are written as 4 bytes.
+				if(Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+					int codePoint = Character.toCodePoint(c, s.charAt(++i));
+					buffer[pos++] = (byte) (0xF0 | (codePoint >> 18));
+					buffer[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+					buffer[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+					buffer[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+				} else {
+					//Unpaired surrogates can't be encoded, and are replaced the same way String.getBytes() does.
+					buffer[pos++] = (byte) '?';
+				}
+			} else {
+				buffer[pos++] = (byte) (0xE0 | (c >> 12));
+				buffer[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+				buffer[pos++] = (byte) (0x80 | (c & 0x3F));
+			}
 		}
 		
-		//default determination of false
-		return false;
+		internalStream.pos = pos;
 	}
 	
-	private static boolean isObject(ArrayList<byte[]> tokens) {
-		
-		//Check requirements for object without a name
-		if(tokens.size() == 2) {
-			//Check for open bracket
-			//Bracket is required to be an object
-			byte[] lastToken = tokens.get(1);
-			if(areBytesEqual(lastToken, OPEN_CURLY))
-				return true;
-		}
-		
-		//Check requirements for object with a name
-		if(tokens.size() == 3) {
-			byte[] token2 = tokens.get(1);
-			byte[] token3 = tokens.get(2);
-			
-			//Verify enclosing quotes for name, if a name is specified
-			if(token2[0] == (byte) '"' && token2[token2.length - 1] == (byte) '"') {
-				
-				//Check for trailing bracket
-				if(areBytesEqual(token3, OPEN_CURLY))
-					return true;
+	/**
+	 * Copies the characters of s from index from up to index to into buffer at pos, one byte each, stopping at the first one that isn't plain ASCII.
+	 * If escape is true, characters that need escaping stop it as well.
+	 * The loops don't do anything else, so the JIT can unroll and vectorize them.
+	 * @return The index of the character that stopped the copy, or to if every character was copied.
+	 */
+	private static int copyAscii(String s, int from, int to, boolean escape, byte[] buffer, int pos) {
+		int offset = pos - from;
+		int i = from;
+		if(escape) {
+			for(; i < to; i++) {
+				char c = s.charAt(i);
+				if(c >= 0x80 || c == '"' || c == '\n' || c == ESCAPE_SEQUENCE)
+					break;
+				buffer[offset + i] = (byte) c;
 			}
-		}		
-		
-		//default determination of false
-		return false;
+		} else {
+			for(; i < to; i++) {
+				char c = s.charAt(i);
+				if(c >= 0x80)
+					break;
+				buffer[offset + i] = (byte) c;
+			}
+		}
+		return i;
 	}
 	
-	private static boolean containsCharacter(byte[] s, char c) {
-		for(int i = 0; i < s.length; i++) {
-			if(s[i] == c)
-				return true;
-		}
-		
-		return false;
+	/**
+	 * Returns how many bytes encode() writes for the character at index i of s.
+	 */
+	private static int encodedLength(String s, int i, boolean escape) {
+		char c = s.charAt(i);
+		if(c < 0x80)
+			return escape && (c == '"' || c == '\n' || c == ESCAPE_SEQUENCE) ? 2 : 1;
+		if(c < 0x800)
+			return 2;
+		if(Character.isSurrogate(c))
+			return Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1)) ? 4 : 1;
+		return 3;
 	}
 	
-	private static boolean areBytesEqual(byte[] a, byte[] b) {
+	static boolean areBytesEqual(byte[] a, byte[] b) {
 		if(a == null || b == null)
 			return false;
 		
@@ -668,92 +1079,3 @@ public class SoffitUtil {
 		return true;
 	}
 }
-
-/**
- * This class is essentially a fixed-length ByteArrayOutputStream with some specific features that help in the SoffitUtil class.
- * This class performs NO bounds checking on the buffer to increase speed, but will throw an exception with a descriptive message if the internal byte array is overfilled
- */
-class ArrayOutputStream extends OutputStream {
-	byte[] buffer;
-	int pos = 0;
-	int mark = 0;
-	
-	public ArrayOutputStream(int bufferSize) {
-		buffer = new byte[bufferSize];
-	}
-
-	@Override
-	public void write(int b) throws IOException {
-		try {
-			buffer[pos] = (byte) b;
-			pos++;
-		} catch (IndexOutOfBoundsException e) {
-			throw new ArrayIndexOutOfBoundsException("SOFFIT line buffer with " + buffer.length + " byte capacity was overfilled");
-		}
-	}
-	
-	@Override
-	public void write(byte[] b) {
-		try {
-			System.arraycopy(b, 0, buffer, pos, b.length);
-			pos += b.length;
-		} catch (IndexOutOfBoundsException e) {
-			throw new ArrayIndexOutOfBoundsException("SOFFIT line buffer with " + buffer.length + " byte capacity was overfilled");
-		}
-	}
-	
-	@Override
-	public void write(byte[] b, int off, int len) {
-		try {
-			System.arraycopy(b, 0, buffer, pos, len);
-			pos += len;
-		} catch (IndexOutOfBoundsException e) {
-			throw new ArrayIndexOutOfBoundsException("SOFFIT line buffer with " + buffer.length + " byte capacity was overfilled");
-		}
-	}
-	
-	public void reset() {
-		pos = 0;
-		mark = 0;
-	}
-	
-	public void resetMark() {
-		mark = 0;
-	}
-	
-	public void mark() {
-		mark = pos;
-	}
-	
-	public void goToMark() {
-		pos = mark;
-	}
-	
-	public void pipeToOutputStream(OutputStream os) throws IOException {
-		os.write(buffer, 0, pos);
-	}
-	
-	public byte[] getWrittenBytes() {
-		byte[] copy = new byte[pos];
-		System.arraycopy(buffer, 0, copy, 0, pos);
-		return copy;
-	}
-	
-	public byte[] getWrittenBytesFromMark() {
-		byte[] copy = new byte[pos - mark];
-		System.arraycopy(buffer, mark, copy, 0, copy.length);
-		return copy;
-	}
-}
-
-class LineNumber {
-	int lineNumber = 0;
-	
-	public void increment() {
-		lineNumber++;
-	}
-	
-	public int get() {
-		return lineNumber;
-	}
-}
\ No newline at end of file
@@ -0,0 +1,204 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Settings for how {@link SoffitUtil#WriteStream(SoffitObject, OutputStream, SoffitWriteOptions)} and {@link SoffitWriter} write to an {@link OutputStream}.
+ */
+public class SoffitWriteOptions {
+	
+	/**
+	 * When the output stream gets flushed.
+	 */
+	public enum FlushPolicy {
+		/**
+		 * Flush after every line.
+		 * Each line reaches the other end of a network connection as soon as it is written, at the cost of one write per line.
+		 */
+		LINE,
+		/**
+		 * Flush after every field and object attached directly to the root object.
+		 */
+		TOP_LEVEL_OBJECT,
+		/**
+		 * Only flush once the footer has been written, or when the buffer fills up.
+		 */
+		END
+	}
+	
+	public static final int DEFAULT_BUFFER_SIZE = 8192;
+	public static final int DEFAULT_MAX_LINE_LENGTH = SoffitReadOptions.DEFAULT_MAX_LINE_LENGTH;
+	
+	private FlushPolicy flushPolicy = null;
+	private int bufferSize = DEFAULT_BUFFER_SIZE;
+	private int maxLineLength = DEFAULT_MAX_LINE_LENGTH;
+	private SoffitBufferPool bufferPool = null;
+	
+	/**
+	 * Constructs SoffitWriteOptions with the default settings.
+	 * By default, the flush policy is chosen based on the output stream.
+	 * {@link FileOutputStream}s, {@link ByteArrayOutputStream}s, and {@link FileChannel}s use {@link FlushPolicy#END}, and anything else uses {@link FlushPolicy#LINE}.
+	 */
+	public SoffitWriteOptions() {
+	}
+	
+	/**
+	 * Constructs SoffitWriteOptions with a specified flush policy.
+	 * @param flushPolicy
+	 */
+	public SoffitWriteOptions(FlushPolicy flushPolicy) {
+		this.flushPolicy = flushPolicy;
+	}
+	
+	/**
+	 * Returns the flush policy.
+	 * Returns null if it is chosen based on the output stream.
+	 * @return
+	 */
+	public FlushPolicy getFlushPolicy() {
+		return flushPolicy;
+	}
+	
+	/**
+	 * Sets the flush policy.
+	 * Setting it to null chooses it based on the output stream.
+	 * @param flushPolicy
+	 */
+	public void setFlushPolicy(FlushPolicy flushPolicy) {
+		this.flushPolicy = flushPolicy;
+	}
+	
+	/**
+	 * Returns the size of the output buffer in bytes.
+	 * @return
+	 */
+	public int getBufferSize() {
+		return bufferSize;
+	}
+	
+	/**
+	 * Sets the size of the output buffer in bytes.
+	 * The output stream is written to whenever the buffer fills up, regardless of the flush policy.
+	 * @param bufferSize
+	 */
+	public void setBufferSize(int bufferSize) {
+		if(bufferSize <= 0)
+			throw new IllegalArgumentException("Buffer size must be greater than 0");
+		
+		this.bufferSize = bufferSize;
+	}
+	
+	/**
+	 * Returns the maximum length of a single line in bytes, excluding indentation.
+	 * @return
+	 */
+	public int getMaxLineLength() {
+		return maxLineLength;
+	}
+	
+	/**
+	 * Sets the maximum length of a single line in bytes, excluding indentation.
+	 * The line buffer grows as needed up to this size, and a {@link SoffitException} is thrown for any field or object declaration that is longer.
+	 * @param maxLineLength
+	 */
+	public void setMaxLineLength(int maxLineLength) {
+		if(maxLineLength <= 0)
+			throw new IllegalArgumentException("Maximum line length must be greater than 0");
+		
+		this.maxLineLength = maxLineLength;
+	}
+	
+	/**
+	 * Returns the pool that the line buffer is borrowed from.
+	 * Returns null if the current thread's pool is used.
+	 * @return
+	 */
+	public SoffitBufferPool getBufferPool() {
+		return bufferPool;
+	}
+	
+	/**
+	 * Sets the pool that the line buffer is borrowed from.
+	 * Setting it to null uses the current thread's pool.
+	 * @param bufferPool
+	 */
+	public void setBufferPool(SoffitBufferPool bufferPool) {
+		this.bufferPool = bufferPool;
+	}
+	
+	/**
+	 * Returns the pool to borrow the line buffer from.
+	 * @return
+	 */
+	SoffitBufferPool pool() {
+		if(bufferPool != null)
+			return bufferPool;
+		
+		return SoffitBufferPool.forCurrentThread();
+	}
+	
+	/**
+	 * Returns the flush policy to use for the passed output stream.
+	 * @param output
+	 * @return
+	 */
+	FlushPolicy getFlushPolicy(OutputStream output) {
+		if(flushPolicy != null)
+			return flushPolicy;
+		
+		if(output instanceof FileOutputStream || output instanceof ByteArrayOutputStream)
+			return FlushPolicy.END;
+		else
+			return FlushPolicy.LINE;
+	}
+	
+	/**
+	 * Returns the flush policy to use for the passed channel.
+	 * @param channel
+	 * @return
+	 */
+	FlushPolicy getFlushPolicy(WritableByteChannel channel) {
+		if(flushPolicy != null)
+			return flushPolicy;
+		
+		if(channel instanceof FileChannel)
+			return FlushPolicy.END;
+		else
+			return FlushPolicy.LINE;
+	}
+}
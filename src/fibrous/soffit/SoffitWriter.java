@@ -0,0 +1,331 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Writes a SOFFIT stream one object declaration or field at a time, without needing a tree of SoffitObjects.
+ * The header is written along with the first object or field, and the footer is written by {@link #close()}.
+ * Objects and fields are written in the order they are passed, and are indented the same way as {@link SoffitUtil#WriteStream(SoffitObject, OutputStream)}.
+ * <pre>
+ * SoffitWriter writer = new SoffitWriter(output);
+ * writer.field("MaintenanceTracker", "v1.2.7");
+ * writer.beginObject("Vehicle", "My Vehicle");
+ * writer.field("Make", "Ford");
+ * writer.endObject();
+ * writer.close();
+ * </pre>
+ */
+public class SoffitWriter {
+	//Either a BufferedOutputStream, or a ChannelOutputStream when writing to a channel
+	private final OutputStream bStream;
+	private final ArrayOutputStream internalStream;
+	private final SoffitWriteOptions.FlushPolicy flushPolicy;
+	
+	//Number of objects currently open
+	private int depth = 0;
+	//A run of tabs that every line's indentation is taken from, grown along with depth.
+	private byte[] indentation = new byte[0];
+	private boolean started = false;
+	private boolean closed = false;
+	//A fragment is part of a stream that is written elsewhere, so it has no header or footer.
+	private final boolean fragment;
+	
+	/**
+	 * Constructs a SoffitWriter that writes to an {@link OutputStream} using the default {@link SoffitWriteOptions}.
+	 * Nothing is written until the first object or field.
+	 * @param output
+	 */
+	public SoffitWriter(OutputStream output) {
+		this(output, new SoffitWriteOptions());
+	}
+	
+	/**
+	 * Constructs a SoffitWriter that writes to an {@link OutputStream} using the passed {@link SoffitWriteOptions}.
+	 * Nothing is written until the first object or field.
+	 * @param output
+	 * @param options
+	 */
+	public SoffitWriter(OutputStream output, SoffitWriteOptions options) {
+		this(output, options, false);
+	}
+	
+	/**
+	 * Constructs a SoffitWriter that either writes a whole stream, or a fragment of one.
+	 * A fragment has no header or footer, and is only flushed when it is closed.
+	 * @param output
+	 * @param options
+	 * @param fragment
+	 */
+	SoffitWriter(OutputStream output, SoffitWriteOptions options, boolean fragment) {
+		this(new BufferedOutputStream(output, options.getBufferSize()), fragment ? SoffitWriteOptions.FlushPolicy.END : options.getFlushPolicy(output), options, fragment);
+	}
+	
+	/**
+	 * Constructs a SoffitWriter that writes to a {@link WritableByteChannel} using the default {@link SoffitWriteOptions}.
+	 * Nothing is written until the first object or field.
+	 * @param channel
+	 */
+	public SoffitWriter(WritableByteChannel channel) {
+		this(channel, new SoffitWriteOptions());
+	}
+	
+	/**
+	 * Constructs a SoffitWriter that writes to a {@link WritableByteChannel} using the passed {@link SoffitWriteOptions}.
+	 * Output is buffered in direct ByteBuffers borrowed from the options' {@link SoffitBufferPool}, rather than going through an OutputStream.
+	 * Channels that implement {@link java.nio.channels.GatheringByteChannel} are handed several buffers at a time.
+	 * The channel must be in blocking mode.
+	 * Nothing is written until the first object or field.
+	 * @param channel
+	 * @param options
+	 */
+	public SoffitWriter(WritableByteChannel channel, SoffitWriteOptions options) {
+		this(new ChannelOutputStream(channel, options), options.getFlushPolicy(channel), options, false);
+	}
+	
+	private SoffitWriter(OutputStream bStream, SoffitWriteOptions.FlushPolicy flushPolicy, SoffitWriteOptions options, boolean fragment) {
+		this.bStream = bStream;
+		this.flushPolicy = flushPolicy;
+		this.fragment = fragment;
+		started = fragment;
+		//This is an internal buffer used for combining chars/strings.  It grows up to the maximum line length, and is handed back to the pool by close() or release().
+		internalStream = new ArrayOutputStream(options.pool(), options.getMaxLineLength());
+	}
+	
+	/**
+	 * Writes the declaration of an unnamed object.
+	 * Everything written until the matching endObject() call is placed within this object.
+	 * @param type
+	 * @throws IOException
+	 */
+	public void beginObject(String type) throws IOException {
+		beginObject(type, null);
+	}
+	
+	/**
+	 * Writes the declaration of an object.
+	 * Everything written until the matching endObject() call is placed within this object.
+	 * @param type
+	 * @param name The name of the object.  May be null or blank if the object is unnamed.
+	 * @throws IOException
+	 */
+	public void beginObject(String type, String name) throws IOException {
+		start();
+		internalStream.reset();
+		SoffitUtil.writeObjectDeclarationLine(type, name, internalStream);
+		writeLine();
+		depth++;
+		lineWritten();
+	}
+	
+	/**
+	 * Writes a field within the current object.
+	 * Throws a {@link NullPointerException} if the value is null.
+	 * @param name
+	 * @param value
+	 * @throws IOException
+	 */
+	public void field(String name, String value) throws IOException {
+		start();
+		internalStream.reset();
+		SoffitUtil.writeFieldLine(name, value, internalStream);
+		writeLine();
+		lineWritten();
+	}
+	
+	/**
+	 * Writes a field with a whole number value within the current object.
+	 * The digits are written straight into the line without creating a String.
+	 * @param name
+	 * @param value
+	 * @throws IOException
+	 */
+	public void field(String name, long value) throws IOException {
+		start();
+		internalStream.reset();
+		SoffitUtil.writeFieldLine(name, value, internalStream);
+		writeLine();
+		lineWritten();
+	}
+	
+	/**
+	 * Writes a field with a float value within the current object.
+	 * The value is formatted with String.valueOf().
+	 * @param name
+	 * @param value
+	 * @throws IOException
+	 */
+	public void field(String name, float value) throws IOException {
+		field(name, String.valueOf(value));
+	}
+	
+	/**
+	 * Writes a field with a double value within the current object.
+	 * The value is formatted with String.valueOf().
+	 * @param name
+	 * @param value
+	 * @throws IOException
+	 */
+	public void field(String name, double value) throws IOException {
+		field(name, String.valueOf(value));
+	}
+	
+	/**
+	 * Writes a field with a boolean value within the current object.
+	 * @param name
+	 * @param value
+	 * @throws IOException
+	 */
+	public void field(String name, boolean value) throws IOException {
+		field(name, String.valueOf(value));
+	}
+	
+	/**
+	 * Writes the closing bracket of the current object.
+	 * Throws a {@link SoffitException} if there is no open object.
+	 * @throws IOException
+	 */
+	public void endObject() throws IOException {
+		if(depth == 0)
+			throw new SoffitException("There is no open SOFFIT object to end.");
+		
+		depth--;
+		internalStream.reset();
+		SoffitUtil.writeClosingBracketLine(internalStream);
+		writeLine();
+		lineWritten();
+	}
+	
+	/**
+	 * Flushes everything written so far to the output stream.
+	 * @throws IOException
+	 */
+	public void flush() throws IOException {
+		bStream.flush();
+	}
+	
+	/**
+	 * Writes the footer and flushes the output stream, regardless of the flush policy.
+	 * The output stream itself is left open.
+	 * The line buffer is handed back to its {@link SoffitBufferPool}, so nothing more can be written afterwards.
+	 * Throws a {@link SoffitException} if any objects are still open.
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		if(closed)
+			return;
+		
+		if(depth > 0)
+			throw new SoffitException("SOFFIT stream closed with " + depth + " object(s) still open.");
+		
+		start();
+		if(!fragment) {
+			bStream.write(SoffitUtil.SOFFIT_END_BYTES);
+			bStream.write((byte) '\n');
+		}
+		bStream.flush();
+		release();
+	}
+	
+	/**
+	 * Hands the line buffer back to its {@link SoffitBufferPool} without writing the footer, along with the direct buffers when writing to a channel.
+	 * Used when writing fails partway through.  Nothing more can be written afterwards, and it does nothing if the writer was already closed.
+	 */
+	void release() {
+		closed = true;
+		internalStream.release();
+		if(bStream instanceof ChannelOutputStream)
+			((ChannelOutputStream) bStream).release();
+	}
+	
+	/**
+	 * Writes lines that were already written by a fragment SoffitWriter.
+	 * The fragment must have started at the top level, and this writer must be at the top level as well.
+	 * @param encoded
+	 * @throws IOException
+	 */
+	void writeFragment(ByteArrayOutputStream encoded) throws IOException {
+		start();
+		encoded.writeTo(bStream);
+		lineWritten();
+	}
+	
+	private void start() throws IOException {
+		if(closed)
+			throw new SoffitException("The SOFFIT stream was already closed.");
+		
+		if(!started) {
+			bStream.write(SoffitUtil.SOFFIT_START_BYTES);
+			bStream.write((byte) '\n');
+			started = true;
+			lineWritten();
+		}
+	}
+	
+	/**
+	 * Writes the line held in internalStream, indented to the current depth.
+	 * @throws IOException
+	 */
+	private void writeLine() throws IOException {
+		if(depth > indentation.length) {
+			indentation = new byte[Math.max(depth, indentation.length * 2)];
+			Arrays.fill(indentation, (byte) '\t');
+		}
+		
+		bStream.write(indentation, 0, depth);
+		internalStream.pipeToOutputStream(bStream);
+	}
+	
+	/**
+	 * Flushes the output stream if the flush policy calls for it.
+	 * @throws IOException
+	 */
+	private void lineWritten() throws IOException {
+		switch(flushPolicy) {
+		case LINE:
+			bStream.flush();
+			break;
+		case TOP_LEVEL_OBJECT:
+			if(depth == 0)
+				bStream.flush();
+			break;
+		default:
+			break;
+		}
+	}
+}
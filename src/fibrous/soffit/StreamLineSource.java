@@ -0,0 +1,81 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit;
+
+import java.io.IOException;
+
+/**
+ * Reads lines in blocks from a {@link SoffitInputStream}.
+ * Only the bytes up to and including the last line terminator handed out are consumed from the stream.
+ */
+class StreamLineSource extends LineSource {
+	private final SoffitInputStream stream;
+	
+	StreamLineSource(SoffitInputStream stream) {
+		this.stream = stream;
+	}
+	
+	@Override
+	boolean readLine() throws IOException {
+		SoffitInputStream in = stream;
+		int scan = in.pos;
+		
+		while(true) {
+			byte[] b = in.buffer;
+			int limit = in.limit;
+			for(; scan < limit; scan++) {
+				if(b[scan] == (byte) '\n') {
+					buffer = b;
+					start = in.pos;
+					end = scan;
+					in.pos = scan + 1;
+					return true;
+				}
+			}
+			
+			int scanned = scan - in.pos;
+			if(in.fill() == -1) {
+				//Check for EOS and essentially a null line
+				if(in.pos == in.limit)
+					return false;
+				
+				//Hand out the unterminated last line
+				buffer = in.buffer;
+				start = in.pos;
+				end = in.limit;
+				in.pos = in.limit;
+				return true;
+			}
+			scan = in.pos + scanned;
+		}
+	}
+}
@@ -0,0 +1,151 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit;
+
+/**
+ * A primitive value that a {@link SoffitField} was converted to or set with, so it doesn't need to be parsed again.
+ * Instances are immutable, so a field can be read from several threads at once even while the conversion is being cached.
+ */
+final class TypedValue {
+	static final byte LONG = 0;
+	static final byte DOUBLE = 1;
+	static final byte FLOAT = 2;
+	static final byte BOOLEAN = 3;
+	
+	static final TypedValue TRUE = new TypedValue(BOOLEAN, 1);
+	static final TypedValue FALSE = new TypedValue(BOOLEAN, 0);
+	
+	//Small whole numbers are common enough to share
+	private static final int CACHE_LOW = -128;
+	private static final int CACHE_HIGH = 1024;
+	private static final TypedValue[] longCache = new TypedValue[CACHE_HIGH - CACHE_LOW];
+	
+	static {
+		for(int i = 0; i < longCache.length; i++)
+			longCache[i] = new TypedValue(LONG, i + CACHE_LOW);
+	}
+	
+	final byte kind;
+	//The long itself, or the bits of a double, float, or boolean
+	final long bits;
+	
+	private TypedValue(byte kind, long bits) {
+		this.kind = kind;
+		this.bits = bits;
+	}
+	
+	static TypedValue ofLong(long value) {
+		if(value >= CACHE_LOW && value < CACHE_HIGH)
+			return longCache[(int) value - CACHE_LOW];
+		
+		return new TypedValue(LONG, value);
+	}
+	
+	static TypedValue ofDouble(double value) {
+		return new TypedValue(DOUBLE, Double.doubleToRawLongBits(value));
+	}
+	
+	static TypedValue ofFloat(float value) {
+		return new TypedValue(FLOAT, Float.floatToRawIntBits(value));
+	}
+	
+	static TypedValue ofBoolean(boolean value) {
+		return value ? TRUE : FALSE;
+	}
+	
+	double doubleValue() {
+		return Double.longBitsToDouble(bits);
+	}
+	
+	float floatValue() {
+		return Float.intBitsToFloat((int) bits);
+	}
+	
+	/**
+	 * Parses a decimal long the same way Long.parseLong() does, but returns null instead of throwing an exception.
+	 * Returns null for anything that isn't made of ASCII digits, even if Long.parseLong() would accept it.
+	 * @param s
+	 * @return
+	 */
+	static TypedValue parseLong(String s) {
+		if(s == null)
+			return null;
+		
+		int length = s.length();
+		if(length == 0)
+			return null;
+		
+		int i = 0;
+		boolean negative = false;
+		char first = s.charAt(0);
+		if(first == '-' || first == '+') {
+			if(length == 1)
+				return null;
+			negative = first == '-';
+			i++;
+		}
+		
+		//Accumulate negatively, since Long.MIN_VALUE has no positive counterpart
+		long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+		long result = 0;
+		for(; i < length; i++) {
+			int digit = s.charAt(i) - '0';
+			if(digit < 0 || digit > 9)
+				return null;
+			if(result < limit / 10)
+				return null;
+			result *= 10;
+			if(result < limit + digit)
+				return null;
+			result -= digit;
+		}
+		
+		return ofLong(negative ? result : -result);
+	}
+	
+	/**
+	 * Returns the value formatted the same way String.valueOf() would.
+	 */
+	@Override
+	public String toString() {
+		switch(kind) {
+		case DOUBLE:
+			return String.valueOf(doubleValue());
+		case FLOAT:
+			return String.valueOf(floatValue());
+		case BOOLEAN:
+			return String.valueOf(bits != 0);
+		default:
+			return String.valueOf(bits);
+		}
+	}
+}
@@ -0,0 +1,212 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package fibrous.soffit.test;
+
+import static fibrous.soffit.test.SoffitTests.checkEquals;
+import static fibrous.soffit.test.SoffitTests.checkThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import fibrous.soffit.SoffitBufferPool;
+import fibrous.soffit.SoffitException;
+import fibrous.soffit.SoffitField;
+import fibrous.soffit.SoffitObject;
+import fibrous.soffit.SoffitUtil;
+import fibrous.soffit.SoffitWriteOptions;
+
+/**
+ * Tests for the binary SOFFIT encoding.
+ */
+class BinaryTests {
+	
+	static void addTo(SoffitTests tests) {
+		tests.add("Binary: text survives a round trip through the binary encoding", BinaryTests::textRoundTrip);
+		tests.add("Binary: a tree survives a round trip through the binary encoding", BinaryTests::treeRoundTrip);
+		tests.add("Binary: a failed write hands back its buffer", BinaryTests::failedWrite);
+		tests.add("Binary: a failed conversion hands back its buffer", BinaryTests::failedConversion);
+		tests.add("Binary: a failed conversion to text hands back its buffer", BinaryTests::failedTextConversion);
+		tests.add("Binary: lengths and symbols too large for a long are rejected", BinaryTests::hugeVarints);
+	}
+	
+	//Written the way WriteStream writes it, with fields before objects, so it comes back byte for byte.
+	private static final String TEXT =
+			"__SoffitStart\n" +
+			"Make \"Top\"\n" +
+			"Garage \"Main \\\"St\\\"\" {\n" +
+			"\tVehicle {\n" +
+			"\t\tMake \"Ford\"\n" +
+			"\t\tYear \"1967\"\n" +
+			"\t\tMin \"-9223372036854775808\"\n" +
+			"\t\tMax \"9223372036854775807\"\n" +
+			"\t\tPadded \"007\"\n" +
+			"\t\tNote \"back\\\\slash\"\n" +
+			"\t\tCity \"Z\u00FCrich \u20AC \uD83D\uDE97\"\n" +
+			"\t}\n" +
+			"\tVehicle \"B\" {\n" +
+			"\t\tMake \n" +
+			"\t}\n" +
+			"\tEmpty {\n" +
+			"\t}\n" +
+			"}\n" +
+			"__SoffitEnd\n";
+	
+	private static byte[] bytes(String text) {
+		return text.getBytes(StandardCharsets.UTF_8);
+	}
+	
+	private static byte[] toBinary(byte[] text) throws IOException {
+		ByteArrayOutputStream binary = new ByteArrayOutputStream();
+		SoffitUtil.TextToBinary(new ByteArrayInputStream(text), binary);
+		return binary.toByteArray();
+	}
+	
+	private static String toText(byte[] binary) throws IOException {
+		ByteArrayOutputStream text = new ByteArrayOutputStream();
+		SoffitUtil.BinaryToText(new ByteArrayInputStream(binary), text);
+		return text.toString(StandardCharsets.UTF_8);
+	}
+	
+	private static void textRoundTrip() throws IOException {
+		checkEquals(TEXT, SoffitUtil.WriteStreamToString(SoffitUtil.ReadStreamFromString(TEXT)));
+		checkEquals(TEXT, toText(toBinary(bytes(TEXT))));
+		
+		//Back-to-back documents, each read without consuming the next
+		ByteArrayOutputStream binary = new ByteArrayOutputStream();
+		SoffitUtil.TextToBinary(new ByteArrayInputStream(bytes(TEXT)), binary);
+		SoffitUtil.TextToBinary(new ByteArrayInputStream(bytes(TEXT)), binary);
+		ByteArrayInputStream both = new ByteArrayInputStream(binary.toByteArray());
+		for(int i = 0; i < 2; i++) {
+			ByteArrayOutputStream text = new ByteArrayOutputStream();
+			SoffitUtil.BinaryToText(both, text);
+			checkEquals(TEXT, text.toString(StandardCharsets.UTF_8));
+		}
+		checkEquals(0, both.available());
+	}
+	
+	private static void treeRoundTrip() throws IOException {
+		SoffitObject root = new SoffitObject(null, null);
+		SoffitObject values = new SoffitObject("Values", "V");
+		root.add(values);
+		
+		SoffitField field;
+		long[] longs = {0, -1, 1, 127, 128, -129, Integer.MIN_VALUE, Long.MIN_VALUE, Long.MAX_VALUE};
+		for(int i = 0; i < longs.length; i++) {
+			field = new SoffitField("L" + i, null);
+			field.put(longs[i]);
+			values.add(field);
+		}
+		field = new SoffitField("D", null);
+		field.put(-0.5);
+		values.add(field);
+		field = new SoffitField("B", null);
+		field.put(true);
+		values.add(field);
+		values.add(new SoffitField("S", "tab\there"));
+		
+		ByteArrayOutputStream binary = new ByteArrayOutputStream();
+		SoffitUtil.WriteBinary(root, binary);
+		SoffitObject read = SoffitUtil.ReadBinary(new ByteArrayInputStream(binary.toByteArray()));
+		
+		checkEquals(SoffitUtil.WriteStreamToString(root), SoffitUtil.WriteStreamToString(read));
+		checkEquals(Long.MIN_VALUE, read.getObject("V").getField("L7").asLong());
+	}
+	
+	private static void failedWrite() throws IOException {
+		SoffitBufferPool pool = new SoffitBufferPool();
+		SoffitWriteOptions options = new SoffitWriteOptions();
+		options.setBufferPool(pool);
+		
+		SoffitObject root = new SoffitObject(null, null);
+		root.add(new SoffitField("Make", "Ford"));
+		SoffitUtil.WriteBinary(root, new ByteArrayOutputStream(), options);
+		int size = pool.size();
+		
+		root.add(new SoffitField("Model", null));
+		checkThrows(NullPointerException.class, () -> SoffitUtil.WriteBinary(root, new ByteArrayOutputStream(), options));
+		checkEquals(size, pool.size());
+	}
+	
+	private static void failedConversion() throws IOException {
+		//TextToBinary always uses the current thread's pool.
+		SoffitBufferPool pool = SoffitBufferPool.forCurrentThread();
+		pool.clear();
+		//Twice, so the pool holds every buffer a conversion asks for
+		toBinary(bytes(TEXT));
+		toBinary(bytes(TEXT));
+		int size = pool.size();
+		
+		String malformed = TEXT.replace("\t\tMake \"Ford\"\n", "\t\tMake \"Ford\n");
+		checkThrows(SoffitException.class, () -> toBinary(bytes(malformed)));
+		checkEquals(size, pool.size());
+	}
+	
+	private static void failedTextConversion() throws IOException {
+		//BinaryToText always uses the current thread's pool.
+		SoffitBufferPool pool = SoffitBufferPool.forCurrentThread();
+		pool.clear();
+		byte[] binary = toBinary(bytes(TEXT));
+		//Twice, so the pool holds every buffer a conversion asks for
+		toText(binary);
+		toText(binary);
+		int size = pool.size();
+		
+		byte[] truncated = Arrays.copyOf(binary, binary.length / 2);
+		checkThrows(SoffitException.class, () -> toText(truncated));
+		checkEquals(size, pool.size());
+	}
+	
+	private static void hugeVarints() {
+		byte[] header = {'S', 'O', 'F', 'B', 1};
+		//A varint of all ones, which is -1 as a long
+		byte[] minusOne = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01};
+		
+		//A field with a new symbol, whose length is the varint
+		ByteArrayOutputStream length = new ByteArrayOutputStream();
+		length.writeBytes(header);
+		length.write(1);
+		length.write(0);
+		length.writeBytes(minusOne);
+		checkThrows(SoffitException.class, () -> SoffitUtil.ReadBinary(new ByteArrayInputStream(length.toByteArray())));
+		
+		//A field that refers to the varint as a symbol
+		ByteArrayOutputStream symbol = new ByteArrayOutputStream();
+		symbol.writeBytes(header);
+		symbol.write(1);
+		symbol.writeBytes(minusOne);
+		checkThrows(SoffitException.class, () -> SoffitUtil.ReadBinary(new ByteArrayInputStream(symbol.toByteArray())));
+	}
+}
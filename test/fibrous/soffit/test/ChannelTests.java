@@ -0,0 +1,173 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package fibrous.soffit.test;
+
+import static fibrous.soffit.test.SoffitTests.check;
+import static fibrous.soffit.test.SoffitTests.checkEquals;
+import static fibrous.soffit.test.SoffitTests.checkThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+import fibrous.soffit.SoffitBufferPool;
+import fibrous.soffit.SoffitField;
+import fibrous.soffit.SoffitObject;
+import fibrous.soffit.SoffitUtil;
+import fibrous.soffit.SoffitWriteOptions;
+
+/**
+ * Tests for writing to a WritableByteChannel.
+ */
+class ChannelTests {
+	
+	static void addTo(SoffitTests tests) {
+		tests.add("Channel: gathering writes match a stream", () -> writeMatches(true));
+		tests.add("Channel: plain writes match a stream", () -> writeMatches(false));
+		tests.add("Channel: a failed write hands back the direct buffers", ChannelTests::failedWrite);
+	}
+	
+	//Small, so a tree fills every buffer several times over
+	private static final int BUFFER_SIZE = 256;
+	
+	/**
+	 * A channel that collects what is written to it, one buffer at a time unless it is gathering.
+	 * It counts the writes that were handed more than one buffer, and fails once failAfter bytes are written.
+	 */
+	private static class Collector implements GatheringByteChannel {
+		final ByteArrayOutputStream written = new ByteArrayOutputStream();
+		int gatheredWrites = 0;
+		long failAfter = Long.MAX_VALUE;
+		
+		@Override
+		public int write(ByteBuffer src) throws IOException {
+			if(written.size() + src.remaining() > failAfter)
+				throw new IOException("Broken");
+			
+			int count = src.remaining();
+			byte[] bytes = new byte[count];
+			src.get(bytes);
+			written.writeBytes(bytes);
+			return count;
+		}
+		
+		@Override
+		public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+			if(length > 1)
+				gatheredWrites++;
+			
+			long count = 0;
+			for(int i = offset; i < offset + length; i++)
+				count += write(srcs[i]);
+			return count;
+		}
+		
+		@Override
+		public long write(ByteBuffer[] srcs) throws IOException {
+			return write(srcs, 0, srcs.length);
+		}
+		
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+		
+		@Override
+		public void close() {
+		}
+	}
+	
+	private static SoffitObject tree() {
+		SoffitObject root = new SoffitObject(null, null);
+		for(int i = 0; i < 200; i++) {
+			SoffitObject vehicle = new SoffitObject("Vehicle", "V" + i);
+			vehicle.add(new SoffitField("Make", "Ford \"Model\" " + i));
+			root.add(vehicle);
+		}
+		return root;
+	}
+	
+	private static SoffitWriteOptions options(SoffitBufferPool pool) {
+		SoffitWriteOptions options = new SoffitWriteOptions(SoffitWriteOptions.FlushPolicy.END);
+		options.setBufferSize(BUFFER_SIZE);
+		options.setBufferPool(pool);
+		return options;
+	}
+	
+	private static void writeMatches(boolean gathering) throws IOException {
+		SoffitObject root = tree();
+		Collector collector = new Collector();
+		//Hides that the collector is gathering
+		WritableByteChannel channel = gathering ? collector : new WritableByteChannel() {
+			@Override
+			public int write(ByteBuffer src) throws IOException {
+				return collector.write(src);
+			}
+			
+			@Override
+			public boolean isOpen() {
+				return true;
+			}
+			
+			@Override
+			public void close() {
+			}
+		};
+		
+		SoffitUtil.WriteStream(root, channel, options(new SoffitBufferPool()));
+		
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		SoffitUtil.WriteStream(root, expected);
+		check(Arrays.equals(expected.toByteArray(), collector.written.toByteArray()), "Channel output didn't match");
+		if(gathering)
+			check(collector.gatheredWrites > 0, "No write was handed more than one buffer");
+		else
+			checkEquals(0, collector.gatheredWrites);
+	}
+	
+	private static void failedWrite() throws IOException {
+		SoffitBufferPool pool = new SoffitBufferPool();
+		SoffitUtil.WriteStream(tree(), new Collector(), options(pool));
+		int size = pool.directSize();
+		check(size > 1, "Only " + size + " direct buffer(s) were used");
+		
+		Collector broken = new Collector();
+		broken.failAfter = BUFFER_SIZE * 6;
+		checkThrows(IOException.class, () -> SoffitUtil.WriteStream(tree(), broken, options(pool)));
+		checkEquals(size, pool.directSize());
+		checkEquals(1, pool.size());
+	}
+}
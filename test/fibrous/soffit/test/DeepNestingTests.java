@@ -0,0 +1,173 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit.test;
+
+import static fibrous.soffit.test.SoffitTests.check;
+import static fibrous.soffit.test.SoffitTests.checkEquals;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.zip.CRC32;
+
+import fibrous.soffit.SoffitField;
+import fibrous.soffit.SoffitInputStream;
+import fibrous.soffit.SoffitObject;
+import fibrous.soffit.SoffitUtil;
+import fibrous.soffit.SoffitWriteOptions;
+
+/**
+ * Tests for WriteStream and ReadStream on deeply nested trees.
+ */
+class DeepNestingTests {
+	
+	static void addTo(SoffitTests tests) {
+		tests.add("Deep: 100000 deep chain round-trips to the same bytes", () -> roundTrip(100000));
+		tests.add("Deep: nesting levels follow subtrees attached after they were built", DeepNestingTests::attachedLater);
+	}
+	
+	/**
+	 * Keeps a checksum and count of everything written to it, and optionally passes it on.
+	 */
+	private static final class ChecksumOutputStream extends OutputStream {
+		private final OutputStream out;
+		final CRC32 crc = new CRC32();
+		long count = 0;
+		
+		ChecksumOutputStream(OutputStream out) {
+			this.out = out;
+		}
+		
+		@Override
+		public void write(int b) throws IOException {
+			crc.update(b);
+			count++;
+			if(out != null)
+				out.write(b);
+		}
+		
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			crc.update(b, off, len);
+			count += len;
+			if(out != null)
+				out.write(b, off, len);
+		}
+		
+		@Override
+		public void flush() throws IOException {
+			if(out != null)
+				out.flush();
+		}
+	}
+	
+	/**
+	 * Writes a chain of objects nested depth levels deep, reads it back, and writes it again.
+	 * The indentation alone takes depth * depth / 2 bytes, so the stream is piped from one thread to another rather than held in memory,
+	 * and the two writes are compared by their length and checksum.
+	 */
+	private static void roundTrip(int depth) throws Exception {
+		SoffitObject root = new SoffitObject(null, null);
+		SoffitObject parent = root;
+		for(int i = 0; i < depth; i++) {
+			SoffitObject child = new SoffitObject("Level", Integer.toString(i));
+			child.add(new SoffitField("Depth", Integer.toString(i)));
+			parent.add(child);
+			parent = child;
+		}
+		
+		SoffitWriteOptions options = new SoffitWriteOptions(SoffitWriteOptions.FlushPolicy.END);
+		options.setBufferSize(1 << 16);
+		
+		PipedInputStream pipeIn = new PipedInputStream(1 << 20);
+		ChecksumOutputStream written = new ChecksumOutputStream(new PipedOutputStream(pipeIn));
+		Exception[] writeFailure = new Exception[1];
+		Thread writer = new Thread(() -> {
+			try {
+				SoffitUtil.WriteStream(root, written, options);
+				written.out.close();
+			} catch (Exception e) {
+				writeFailure[0] = e;
+			}
+		});
+		writer.start();
+		
+		SoffitObject read;
+		try(SoffitInputStream input = new SoffitInputStream(pipeIn)) {
+			read = SoffitUtil.ReadStream(input);
+		}
+		writer.join();
+		if(writeFailure[0] != null)
+			throw writeFailure[0];
+		
+		ChecksumOutputStream rewritten = new ChecksumOutputStream(null);
+		SoffitUtil.WriteStream(read, rewritten, options);
+		
+		checkEquals(written.count, rewritten.count);
+		checkEquals(written.crc.getValue(), rewritten.crc.getValue());
+	}
+	
+	private static void attachedLater() throws IOException {
+		//Built from the bottom up, before any of it is attached to a root
+		SoffitObject c = new SoffitObject("Level", "c");
+		SoffitField field = new SoffitField("Depth", "c");
+		c.add(field);
+		SoffitObject b = new SoffitObject("Level", "b");
+		b.add(c);
+		SoffitObject a = new SoffitObject("Level", "a");
+		a.add(b);
+		checkEquals(1, c.getNestedLevel());
+		
+		SoffitObject root = new SoffitObject(null, null);
+		root.add(a);
+		checkEquals(0, a.getNestedLevel());
+		checkEquals(2, c.getNestedLevel());
+		checkEquals(3, field.getNestingLevel());
+		
+		//Moved under a deeper chain
+		SoffitObject parent = root;
+		for(int i = 0; i < 5; i++) {
+			SoffitObject child = new SoffitObject("Level", Integer.toString(i));
+			parent.add(child);
+			parent = child;
+		}
+		a.getAllObjects().remove(b);
+		parent.add(b);
+		checkEquals(6, c.getNestedLevel());
+		checkEquals(7, field.getNestingLevel());
+		
+		String written = SoffitUtil.WriteStreamToString(root);
+		check(written.contains("\n" + "\t".repeat(7) + "Depth \"c\"\n"), "Field was written at the wrong depth");
+		checkEquals(written, SoffitUtil.WriteStreamToString(SoffitUtil.ReadStreamFromString(written)));
+	}
+}
@@ -0,0 +1,156 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package fibrous.soffit.test;
+
+import static fibrous.soffit.test.SoffitTests.check;
+import static fibrous.soffit.test.SoffitTests.checkEquals;
+import static fibrous.soffit.test.SoffitTests.checkThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import fibrous.soffit.SoffitDocumentReader;
+import fibrous.soffit.SoffitException;
+import fibrous.soffit.SoffitHandler;
+import fibrous.soffit.SoffitInputStream;
+import fibrous.soffit.SoffitReadOptions;
+import fibrous.soffit.SoffitTreeBuilder;
+
+/**
+ * Tests for SoffitDocumentReader.
+ */
+class DocumentTests {
+	
+	static void addTo(SoffitTests tests) {
+		tests.add("Documents: back to back documents, leaving what follows", DocumentTests::backToBack);
+		tests.add("Documents: a malformed document is skipped", () -> recovers("Make \"Ford\n", "line 3"));
+		tests.add("Documents: an unclosed object is skipped", () -> recovers("Vehicle \"Open\" {\n", "line 5"));
+		tests.add("Documents: a line too long to buffer is skipped", () -> recovers("Make \"" + "a".repeat(1000) + "\"\n", "overfilled"));
+		tests.add("Documents: a document cut off by the next header is skipped", DocumentTests::cutOff);
+		tests.add("Documents: a document without a header is skipped", DocumentTests::noHeader);
+		tests.add("Documents: a failed handler skips the document", DocumentTests::failedHandler);
+		tests.add("Documents: a document cut off by the end of the stream", DocumentTests::endOfStream);
+	}
+	
+	/**
+	 * Returns a document holding one vehicle with the passed name.
+	 * @param name
+	 * @return
+	 */
+	private static String document(String name) {
+		return "__SoffitStart\n" +
+				"Vehicle \"" + name + "\" {\n" +
+				"\tMake \"Ford\"\n" +
+				"}\n" +
+				"__SoffitEnd\n";
+	}
+	
+	private static SoffitDocumentReader reader(String text) {
+		SoffitReadOptions options = new SoffitReadOptions();
+		options.setMaxLineLength(256);
+		return new SoffitDocumentReader(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), options);
+	}
+	
+	private static void checkName(String expected, SoffitDocumentReader reader) throws IOException {
+		check(reader.hasNext(), "No document was found");
+		checkEquals(expected, reader.next().getFirstObject().getName());
+	}
+	
+	private static void backToBack() throws IOException {
+		SoffitInputStream stream = new SoffitInputStream(new ByteArrayInputStream((document("A") + "\n" + document("B") + "trailing").getBytes(StandardCharsets.UTF_8)), 16);
+		SoffitDocumentReader reader = new SoffitDocumentReader(stream);
+		checkName("A", reader);
+		checkName("B", reader);
+		
+		checkEquals("trailing", new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+		check(!reader.hasNext(), "A document was found past the end");
+		checkThrows(SoffitException.class, reader::next);
+	}
+	
+	/**
+	 * Places a bad line in the middle of a document between two good ones, and checks that only the middle one fails.
+	 * @param badLine
+	 * @param where Part of the message the failure is reported with, such as the line it was found on, counted from the start of the document
+	 * @throws IOException
+	 */
+	private static void recovers(String badLine, String where) throws IOException {
+		String bad = "__SoffitStart\n" +
+				"Vehicle \"Bad\" {\n" +
+				badLine +
+				"}\n" +
+				"__SoffitEnd\n";
+		SoffitDocumentReader reader = reader(document("A") + bad + document("B"));
+		
+		checkName("A", reader);
+		SoffitException e = checkThrows(SoffitException.class, reader::next);
+		check(e.getMessage().contains(where), "Reported in the wrong place: " + e.getMessage());
+		checkName("B", reader);
+		check(!reader.hasNext(), "A document was found past the end");
+	}
+	
+	private static void cutOff() throws IOException {
+		SoffitDocumentReader reader = reader(document("A") + "__SoffitStart\nVehicle \"Cut\" {\n" + document("B"));
+		checkName("A", reader);
+		SoffitException e = checkThrows(SoffitException.class, reader::next);
+		check(e.getMessage().contains("line 3"), "Reported in the wrong place: " + e.getMessage());
+		checkName("B", reader);
+		check(!reader.hasNext(), "A document was found past the end");
+	}
+	
+	private static void noHeader() throws IOException {
+		SoffitDocumentReader reader = reader("Vehicle \"Stray\" {\n}\n__SoffitEnd\n" + document("A"));
+		checkThrows(SoffitException.class, reader::next);
+		checkName("A", reader);
+	}
+	
+	private static void failedHandler() throws IOException {
+		SoffitDocumentReader reader = reader(document("A") + document("B"));
+		SoffitHandler failing = new SoffitTreeBuilder() {
+			@Override
+			public void field(String name, String value) {
+				throw new IllegalStateException("Rejected");
+			}
+		};
+		
+		checkThrows(IllegalStateException.class, () -> reader.next(failing));
+		checkName("B", reader);
+	}
+	
+	private static void endOfStream() throws IOException {
+		SoffitDocumentReader reader = reader(document("A") + "__SoffitStart\nVehicle \"Cut\" {\n");
+		checkName("A", reader);
+		checkThrows(SoffitException.class, reader::next);
+		check(!reader.hasNext(), "A document was found past the end");
+	}
+}
@@ -0,0 +1,153 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit.test;
+
+import static fibrous.soffit.test.SoffitTests.check;
+import static fibrous.soffit.test.SoffitTests.checkEquals;
+import static fibrous.soffit.test.SoffitTests.checkThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import fibrous.soffit.SoffitBufferPool;
+import fibrous.soffit.SoffitException;
+import fibrous.soffit.SoffitField;
+import fibrous.soffit.SoffitInputStream;
+import fibrous.soffit.SoffitObject;
+import fibrous.soffit.SoffitUtil;
+import fibrous.soffit.SoffitWriteOptions;
+
+/**
+ * Tests for how names and values are encoded when written, and decoded when read.
+ */
+class EncodingTests {
+	
+	static void addTo(SoffitTests tests) {
+		tests.add("Encoding: a line can be exactly the maximum length", EncodingTests::maximumLength);
+		tests.add("Encoding: runs of ASCII between other characters", EncodingTests::asciiRuns);
+		tests.add("Encoding: UTF-8 matches String.getBytes", EncodingTests::matchesGetBytes);
+		tests.add("Encoding: characters split across reads", EncodingTests::splitAcrossReads);
+	}
+	
+	private static final int MAX_LINE_LENGTH = 64;
+	
+	private static String write(String value) throws IOException {
+		SoffitObject root = new SoffitObject(null, null);
+		root.add(new SoffitField("k", value));
+		
+		SoffitWriteOptions options = new SoffitWriteOptions();
+		options.setMaxLineLength(MAX_LINE_LENGTH);
+		//A new pool, so the line buffer starts out no larger than the maximum
+		options.setBufferPool(new SoffitBufferPool());
+		
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		SoffitUtil.WriteStream(root, output, options);
+		return output.toString(StandardCharsets.UTF_8);
+	}
+	
+	private static void maximumLength() throws IOException {
+		//k "...", followed by a line terminator, is 5 bytes more than the value.
+		String ascii = "a".repeat(MAX_LINE_LENGTH - 5);
+		String twoByte = "a".repeat(MAX_LINE_LENGTH - 7) + "\u00E9";
+		String threeByte = "a".repeat(MAX_LINE_LENGTH - 8) + "\u20AC";
+		String fourByte = "a".repeat(MAX_LINE_LENGTH - 9) + "\uD83D\uDE00";
+		String escaped = "a".repeat(MAX_LINE_LENGTH - 7) + "\"";
+		
+		for(String value : new String[] {ascii, twoByte, threeByte, fourByte, escaped}) {
+			String written = write(value);
+			checkEquals(value, SoffitUtil.ReadStreamFromString(written).getField("k").getValue());
+		}
+		
+		checkThrows(SoffitException.class, () -> write(ascii + "a"));
+		checkThrows(SoffitException.class, () -> write(twoByte.substring(1) + "\u00E9"));
+	}
+	
+	private static void asciiRuns() throws IOException {
+		//Long enough that the line buffer has to grow partway through a run
+		String run = "abc".repeat(4000);
+		String value = run + "\"" + run + "\u00E9" + run + "\n\\" + run + "\uD83D\uDE00" + run + "\uD800" + run;
+		String escaped = value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n").replace('\uD800', '?');
+		
+		SoffitObject root = new SoffitObject(null, null);
+		root.add(new SoffitField("k", value));
+		root.add(new SoffitObject("T\u00E9" + run, run + "\u20AC"));
+		
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		SoffitUtil.WriteStream(root, output, new SoffitWriteOptions());
+		String written = output.toString(StandardCharsets.UTF_8);
+		
+		check(written.contains("k \"" + escaped + "\""), "Field was written differently");
+		check(written.contains("T\u00E9" + run + " \"" + run + "\u20AC\" {"), "Object was written differently");
+		checkEquals(value.replace('\uD800', '?'), SoffitUtil.ReadStreamFromString(written).getField("k").getValue());
+	}
+	
+	private static final String UNICODE = "caf\u00E9 \u20AC5 \uD83D\uDE97 \u65E5\u672C";
+	
+	private static void matchesGetBytes() throws IOException {
+		SoffitObject root = new SoffitObject(null, null);
+		root.add(new SoffitObject("T\u00FDpe", UNICODE));
+		root.add(new SoffitField("N\u00E4me", UNICODE));
+		
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		SoffitUtil.WriteStream(root, output);
+		String expected = SoffitUtil.SOFFIT_START + "\n" +
+				"N\u00E4me \"" + UNICODE + "\"\n" +
+				"T\u00FDpe \"" + UNICODE + "\" {\n" +
+				"}\n" +
+				SoffitUtil.SOFFIT_END + "\n";
+		check(Arrays.equals(expected.getBytes(StandardCharsets.UTF_8), output.toByteArray()), "Written bytes weren't UTF-8");
+		checkEquals(expected, SoffitUtil.WriteStreamToString(root));
+	}
+	
+	private static void splitAcrossReads() throws IOException {
+		SoffitObject root = new SoffitObject(null, null);
+		root.add(new SoffitField("N\u00E4me", UNICODE));
+		byte[] bytes = SoffitUtil.WriteStreamToString(root).getBytes(StandardCharsets.UTF_8);
+		
+		//A block boundary falls inside every multi-byte character for one of these sizes.
+		for(int maxRead = 1; maxRead <= 5; maxRead++) {
+			int limit = maxRead;
+			InputStream source = new ByteArrayInputStream(bytes) {
+				@Override
+				public synchronized int read(byte[] b, int off, int len) {
+					return super.read(b, off, Math.min(len, limit));
+				}
+			};
+			SoffitObject read = SoffitUtil.ReadStream(new SoffitInputStream(source, 4));
+			checkEquals(UNICODE, read.getField("N\u00E4me").getValue());
+		}
+	}
+}
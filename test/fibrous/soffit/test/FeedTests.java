@@ -0,0 +1,189 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package fibrous.soffit.test;
+
+import static fibrous.soffit.test.SoffitTests.check;
+import static fibrous.soffit.test.SoffitTests.checkEquals;
+import static fibrous.soffit.test.SoffitTests.checkThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import fibrous.soffit.SoffitException;
+import fibrous.soffit.SoffitFeedParser;
+import fibrous.soffit.SoffitObject;
+import fibrous.soffit.SoffitReadOptions;
+import fibrous.soffit.SoffitUtil;
+
+/**
+ * Tests for SoffitFeedParser.
+ */
+class FeedTests {
+	
+	static void addTo(SoffitTests tests) {
+		tests.add("Feed: two chunks split at every byte", () -> everySplit(false));
+		tests.add("Feed: two direct chunks split at every byte", () -> everySplit(true));
+		tests.add("Feed: one byte at a time", FeedTests::oneByteAtATime);
+		tests.add("Feed: a malformed document is skipped", FeedTests::malformed);
+		tests.add("Feed: a line too long across chunks is skipped", FeedTests::tooLong);
+		tests.add("Feed: the end of input finishes the last line", FeedTests::endOfInput);
+	}
+	
+	private static final String FIRST =
+			"__SoffitStart\r\n" +
+			"Version \"1\"\r\n" +
+			"Vehicle \"Caf\u00E9 \\\"A\\\"\" {\r\n" +
+			"\tMake \"\u20AC \\\\ \uD83D\uDE97\\n\"\r\n" +
+			"\tEmpty\r\n" +
+			"\tTrailer {\r\n" +
+			"\t\tAxles \"2\"\r\n" +
+			"\t}\r\n" +
+			"}\r\n" +
+			"__SoffitEnd\r\n";
+	private static final String SECOND =
+			"__SoffitStart\n" +
+			"Vehicle \"B\" {\n" +
+			"}\n" +
+			"__SoffitEnd\n";
+	
+	private static byte[] bytes(String text) {
+		return text.getBytes(StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Returns part of an array in a ByteBuffer, which is either direct or a slice of a larger array, so the buffer's array offset isn't 0.
+	 */
+	private static ByteBuffer chunk(byte[] bytes, int from, int to, boolean direct) {
+		if(direct) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(to - from);
+			buffer.put(bytes, from, to - from);
+			return buffer.flip();
+		}
+		
+		byte[] padded = new byte[to - from + 2];
+		System.arraycopy(bytes, from, padded, 1, to - from);
+		return ByteBuffer.wrap(padded, 1, to - from).slice();
+	}
+	
+	/**
+	 * Checks that the parser has finished both documents, and nothing else.
+	 */
+	private static void checkBoth(SoffitFeedParser parser) throws IOException {
+		checkEquals(SoffitUtil.WriteStreamToString(SoffitUtil.ReadStreamFromString(FIRST)), SoffitUtil.WriteStreamToString(parser.poll()));
+		checkEquals("B", parser.poll().getFirstObject().getName());
+		checkEquals(null, parser.poll());
+		check(!parser.isInDocument(), "Parser is still in a document");
+	}
+	
+	private static void everySplit(boolean direct) throws IOException {
+		byte[] bytes = bytes(FIRST + SECOND);
+		for(int split = 0; split <= bytes.length; split++) {
+			SoffitFeedParser parser = new SoffitFeedParser();
+			parser.feed(chunk(bytes, 0, split, direct));
+			parser.feed(chunk(bytes, split, bytes.length, direct));
+			parser.endOfInput();
+			checkBoth(parser);
+		}
+	}
+	
+	private static void oneByteAtATime() throws IOException {
+		byte[] bytes = bytes(FIRST + SECOND);
+		SoffitFeedParser parser = new SoffitFeedParser();
+		for(int i = 0; i < bytes.length; i++) {
+			ByteBuffer buffer = chunk(bytes, i, i + 1, false);
+			parser.feed(buffer);
+			check(!buffer.hasRemaining(), "A byte wasn't consumed");
+		}
+		parser.endOfInput();
+		checkBoth(parser);
+	}
+	
+	private static void malformed() throws IOException {
+		String bad = "__SoffitStart\n" +
+				"Vehicle \"Bad\" {\n" +
+				"Make \"Ford\n" +
+				"}\n" +
+				"__SoffitEnd\n";
+		ByteBuffer buffer = ByteBuffer.wrap(bytes(FIRST + bad + SECOND));
+		SoffitFeedParser parser = new SoffitFeedParser();
+		
+		SoffitException e = checkThrows(SoffitException.class, () -> parser.feed(buffer));
+		check(e.getMessage().contains("line 3"), "Reported in the wrong place: " + e.getMessage());
+		//Left just past the bad line
+		checkEquals(bytes(FIRST).length + bytes("__SoffitStart\nVehicle \"Bad\" {\nMake \"Ford\n").length, buffer.position());
+		
+		parser.feed(buffer);
+		parser.endOfInput();
+		checkBoth(parser);
+	}
+	
+	private static void tooLong() throws IOException {
+		SoffitReadOptions options = new SoffitReadOptions();
+		options.setMaxLineLength(64);
+		SoffitFeedParser parser = new SoffitFeedParser(options);
+		
+		String bad = "__SoffitStart\nMake \"" + "a".repeat(100) + "\"\n__SoffitEnd\n";
+		byte[] bytes = bytes(FIRST + bad + SECOND);
+		int failures = 0;
+		//Chunks shorter than the limit, so the line only becomes too long once several have been kept
+		for(int i = 0; i < bytes.length; i += 20) {
+			ByteBuffer buffer = chunk(bytes, i, Math.min(bytes.length, i + 20), false);
+			while(buffer.hasRemaining()) {
+				try {
+					parser.feed(buffer);
+				} catch (SoffitException e) {
+					failures++;
+				}
+			}
+		}
+		parser.endOfInput();
+		
+		checkEquals(1, failures);
+		checkBoth(parser);
+	}
+	
+	private static void endOfInput() throws IOException {
+		SoffitFeedParser parser = new SoffitFeedParser();
+		String unterminated = SECOND.substring(0, SECOND.length() - 1);
+		parser.feed(ByteBuffer.wrap(bytes(FIRST + unterminated)));
+		check(parser.isInDocument(), "Parser finished the document before its footer was terminated");
+		parser.endOfInput();
+		checkBoth(parser);
+		
+		SoffitFeedParser cutOff = new SoffitFeedParser();
+		cutOff.feed(ByteBuffer.wrap(bytes("__SoffitStart\nVehicle \"A\" {\n")));
+		checkThrows(SoffitException.class, cutOff::endOfInput);
+		checkEquals(null, cutOff.poll());
+	}
+}
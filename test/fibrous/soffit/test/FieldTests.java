@@ -0,0 +1,246 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit.test;
+
+import static fibrous.soffit.test.SoffitTests.check;
+import static fibrous.soffit.test.SoffitTests.checkEquals;
+import static fibrous.soffit.test.SoffitTests.checkThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import fibrous.soffit.SoffitField;
+import fibrous.soffit.SoffitHandler;
+import fibrous.soffit.SoffitObject;
+import fibrous.soffit.SoffitReadOptions;
+import fibrous.soffit.SoffitUtil;
+import fibrous.soffit.SoffitWriter;
+
+/**
+ * Tests for SoffitField.
+ */
+class FieldTests {
+	
+	static void addTo(SoffitTests tests) {
+		tests.add("Field: a primitive is only formatted once", FieldTests::formattedOnce);
+		tests.add("Field: cached values follow the value they came from", FieldTests::cacheFollowsValue);
+		tests.add("Field: whole numbers parse the same as the JDK", FieldTests::parsesLikeJdk);
+		tests.add("Field: typed getters return defaults instead of throwing", FieldTests::typedGetters);
+		tests.add("Field: primitives are written the same as String.valueOf", FieldTests::primitivesWritten);
+		tests.add("Field: parsed numbers are kept as longs and written back unchanged", FieldTests::parsedNumbers);
+	}
+	
+	private static void formattedOnce() throws Exception {
+		SoffitField field = new SoffitField("Count", null);
+		field.put(12345L);
+		String first = field.getValue();
+		checkEquals("12345", first);
+		check(first == field.getValue(), "getValue() formatted the value again");
+		checkEquals(12345L, field.asLong());
+		checkEquals(12345.0, field.asDouble());
+		
+		field.put(2.5);
+		checkEquals("2.5", field.getValue());
+		checkEquals(2.5f, field.asFloat());
+		checkEquals(2.5, field.asDouble());
+		
+		SoffitObject root = new SoffitObject(null, null);
+		root.add(field);
+		field.put(-7L);
+		field.getValue();
+		checkEquals("-7", SoffitUtil.ReadStreamFromString(SoffitUtil.WriteStreamToString(root)).getField("Count").getValue());
+	}
+	
+	private static void cacheFollowsValue() {
+		SoffitField field = new SoffitField("Count", "12");
+		checkEquals(12, field.asInt());
+		checkEquals(12.0, field.asDouble());
+		
+		field.setValue("34");
+		checkEquals(34, field.asInt());
+		checkEquals(34L, field.asLong());
+		checkEquals(34.0, field.asDouble());
+		
+		field.put("true");
+		check(field.asBool(), "asBool() returned the old value");
+		field.put("56");
+		check(!field.asBool(), "asBool() returned the old value");
+		checkEquals((short) 56, field.asShort());
+		
+		field.put(true);
+		checkEquals("true", field.getValue());
+		checkThrows(NumberFormatException.class, field::asLong);
+		
+		field.put(300L);
+		checkEquals(300, field.asInt());
+		//Out of range for a byte, even though the cached value is a whole number
+		checkThrows(NumberFormatException.class, field::asByte);
+	}
+	
+	private static void parsesLikeJdk() {
+		String[] values = {
+				"0", "-0", "+7", "007", "-123456789", "9223372036854775807", "-9223372036854775808",
+				"9223372036854775808", "-9223372036854775809", "99999999999999999999",
+				"", "-", "+", " 1", "1 ", "1.0", "1e3", "0x10", "1_000", "\u0661"
+		};
+		
+		for(String value : values) {
+			Long expected;
+			try {
+				expected = Long.parseLong(value);
+			} catch (NumberFormatException e) {
+				expected = null;
+			}
+			
+			SoffitField field = new SoffitField("n", value);
+			if(expected == null) {
+				checkThrows(NumberFormatException.class, field::asLong);
+				checkEquals(-1L, wrap(field).getLong("n", -1));
+			} else {
+				checkEquals(expected, field.asLong());
+				checkEquals(expected, wrap(field).getLong("n", -1));
+			}
+		}
+	}
+	
+	private static SoffitObject wrap(SoffitField field) {
+		SoffitObject object = new SoffitObject("T", "t");
+		object.add(field);
+		return object;
+	}
+	
+	private static void typedGetters() {
+		SoffitObject object = new SoffitObject("T", "t");
+		object.add(new SoffitField("Long", "5000000000"));
+		object.add(new SoffitField("Double", "2.5"));
+		object.add(new SoffitField("Bool", "TRUE"));
+		object.add(new SoffitField("Text", "abc"));
+		
+		checkEquals(5000000000L, object.getLong("Long", -1));
+		checkEquals(-1, object.getInt("Long", -1));
+		checkEquals(2.5, object.getDouble("Double", -1));
+		checkEquals(5.0E9, object.getDouble("Long", -1));
+		check(object.getBool("Bool", false), "getBool() didn't parse the value");
+		checkEquals("abc", object.getString("Text", null));
+		
+		checkEquals(-1L, object.getLong("Text", -1));
+		checkEquals(-1.0, object.getDouble("Text", -1));
+		checkEquals(7, object.getInt("Missing", 7));
+		check(object.getBool("Missing", true), "getBool() didn't return the default");
+		checkEquals("none", object.getString("Missing", "none"));
+	}
+	
+	private static void primitivesWritten() throws Exception {
+		long[] longs = {0, -1, 9, 10, -10, 1234567890123L, Long.MAX_VALUE, Long.MIN_VALUE, Integer.MIN_VALUE};
+		double[] doubles = {0.0, -0.0, 1.5, 1e-7, 1e21, Double.MIN_VALUE, Double.NaN, Double.NEGATIVE_INFINITY};
+		float[] floats = {0.1f, -3.4e38f, Float.MIN_VALUE};
+		
+		SoffitObject root = new SoffitObject(null, null);
+		List<String> expected = new ArrayList<>();
+		for(long l : longs) {
+			SoffitField field = new SoffitField("f" + expected.size(), null);
+			field.put(l);
+			root.add(field);
+			expected.add(String.valueOf(l));
+		}
+		for(double d : doubles) {
+			SoffitField field = new SoffitField("f" + expected.size(), null);
+			field.put(d);
+			root.add(field);
+			expected.add(String.valueOf(d));
+		}
+		for(float f : floats) {
+			SoffitField field = new SoffitField("f" + expected.size(), null);
+			field.put(f);
+			root.add(field);
+			expected.add(String.valueOf(f));
+		}
+		SoffitField bool = new SoffitField("f" + expected.size(), null);
+		bool.put(false);
+		root.add(bool);
+		expected.add("false");
+		
+		//Nothing is asked for as a String before writing, so the primitives are written directly.
+		SoffitObject read = SoffitUtil.ReadStreamFromString(SoffitUtil.WriteStreamToString(root));
+		for(int i = 0; i < expected.size(); i++)
+			checkEquals(expected.get(i), read.getField("f" + i).getValue());
+		
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		SoffitWriter writer = new SoffitWriter(output);
+		for(int i = 0; i < longs.length; i++)
+			writer.field("f" + i, longs[i]);
+		writer.close();
+		SoffitObject written = SoffitUtil.ReadStreamFromString(output.toString(StandardCharsets.UTF_8));
+		for(int i = 0; i < longs.length; i++)
+			checkEquals(expected.get(i), written.getField("f" + i).getValue());
+	}
+	
+	private static void parsedNumbers() throws Exception {
+		String[] values = {"0", "-0", "007", "+7", "-9223372036854775808", "9223372036854775808", "12.5", "x1"};
+		SoffitObject root = new SoffitObject(null, null);
+		for(int i = 0; i < values.length; i++)
+			root.add(new SoffitField("f" + i, values[i]));
+		String text = SoffitUtil.WriteStreamToString(root);
+		
+		SoffitReadOptions options = new SoffitReadOptions();
+		options.setParseNumbers(true);
+		List<String> asLongs = new ArrayList<>();
+		SoffitUtil.ReadStream(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), new SoffitHandler() {
+			@Override
+			public void startObject(String type, String name) {}
+			
+			@Override
+			public void field(String name, String value) {}
+			
+			@Override
+			public void field(String name, long value) {
+				asLongs.add(name);
+			}
+			
+			@Override
+			public void endObject() {}
+			
+			@Override
+			public void endDocument() {}
+		}, options);
+		//Only values that format back the same way from a long
+		checkEquals(List.of("f0", "f4"), asLongs);
+		
+		SoffitObject read = SoffitUtil.ReadStream(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), options);
+		checkEquals(text, SoffitUtil.WriteStreamToString(read));
+		checkEquals(Long.MIN_VALUE, read.getField("f4").asLong());
+		checkEquals("007", read.getField("f2").getValue());
+	}
+}
@@ -0,0 +1,134 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package fibrous.soffit.test;
+
+import static fibrous.soffit.test.SoffitTests.checkEquals;
+import static fibrous.soffit.test.SoffitTests.checkThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import fibrous.soffit.SoffitException;
+import fibrous.soffit.SoffitObject;
+import fibrous.soffit.SoffitReadOptions;
+import fibrous.soffit.SoffitUtil;
+
+/**
+ * Tests for ReadFile.
+ */
+class FileTests {
+	
+	static void addTo(SoffitTests tests) {
+		tests.add("File: reads the same as ReadStream", FileTests::sameAsStream);
+		tests.add("File: malformed files fail the same as ReadStream", FileTests::sameErrors);
+		tests.add("File: a line longer than the maximum is rejected", FileTests::maximumLength);
+	}
+	
+	private static final String GARAGE =
+			"__SoffitStart\r\n" +
+			"Version \"1\"\r\n" +
+			"\r\n" +
+			"Garage \"Main\" {\n" +
+			"\t\tVehicle {\n" +
+			"\tMake \"Ford \\\"T\\\"\"\n" +
+			"\tEmpty\n" +
+			"\t}\n" +
+			"}\n" +
+			"__SoffitEnd";
+	
+	/**
+	 * Writes text to a temporary file, and passes the file to a test.
+	 * The file is deleted afterwards.
+	 * @param text
+	 * @param test
+	 * @throws Exception
+	 */
+	static void withFile(String text, FileTest test) throws Exception {
+		Path path = Files.createTempFile("soffit", ".soffit");
+		try {
+			Files.write(path, text.getBytes(StandardCharsets.UTF_8));
+			test.run(path);
+		} finally {
+			Files.delete(path);
+		}
+	}
+	
+	interface FileTest {
+		void run(Path path) throws Exception;
+	}
+	
+	private static SoffitObject readStream(String text) throws IOException {
+		return SoffitUtil.ReadStream(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+	}
+	
+	private static void sameAsStream() throws Exception {
+		withFile(GARAGE, path -> {
+			SoffitObject root = SoffitUtil.ReadFile(path);
+			checkEquals(SoffitUtil.WriteStreamToString(readStream(GARAGE)), SoffitUtil.WriteStreamToString(root));
+			checkEquals("Ford \"T\"", root.getObject("Main").getFirstObject().getField("Make").getValue());
+		});
+	}
+	
+	private static void sameErrors() throws Exception {
+		String[] malformed = {
+				"__SoffitStart\nVehicle \"A\" {\n__SoffitEnd\n",
+				"__SoffitStart\n}\n__SoffitEnd\n",
+				"__SoffitStart\nMake \"Ford\n__SoffitEnd\n",
+				"__SoffitStart\nVehicle \"A\" {\n",
+				"Vehicle \"A\" {\n}\n"
+		};
+		
+		for(String text : malformed) {
+			withFile(text, path -> {
+				SoffitException expected = checkThrows(SoffitException.class, () -> readStream(text));
+				SoffitException actual = checkThrows(SoffitException.class, () -> SoffitUtil.ReadFile(path));
+				checkEquals(expected.getMessage(), actual.getMessage());
+			});
+		}
+	}
+	
+	private static void maximumLength() throws Exception {
+		SoffitReadOptions options = new SoffitReadOptions();
+		options.setMaxLineLength(32);
+		
+		withFile("__SoffitStart\nMake \"" + "a".repeat(32) + "\"\n__SoffitEnd\n", path -> {
+			checkThrows(SoffitException.class, () -> SoffitUtil.ReadFile(path, options));
+		});
+		withFile("__SoffitStart\nMake \"" + "a".repeat(16) + "\"\n__SoffitEnd\n", path -> {
+			checkEquals("a".repeat(16), SoffitUtil.ReadFile(path, options).getField("Make").getValue());
+		});
+	}
+}
@@ -0,0 +1,255 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package fibrous.soffit.test;
+
+import static fibrous.soffit.test.SoffitTests.check;
+import static fibrous.soffit.test.SoffitTests.checkEquals;
+import static fibrous.soffit.test.SoffitTests.checkThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import fibrous.soffit.SoffitException;
+import fibrous.soffit.SoffitField;
+import fibrous.soffit.SoffitObject;
+
+/**
+ * Tests for the indexes SoffitObjects keep of their objects and fields.
+ */
+class IndexTests {
+	
+	static void addTo(SoffitTests tests) {
+		tests.add("Index: name lookups from several threads at once", IndexTests::concurrentNameLookups);
+		tests.add("Index: type lookups from several threads at once", IndexTests::concurrentTypeLookups);
+		tests.add("Index: name lookups follow adds, removes, and renames", () -> { nameChanges(4); nameChanges(CHILDREN); });
+		tests.add("Index: type lookups follow adds, removes, and renames", () -> { typeChanges(4); typeChanges(CHILDREN); });
+		tests.add("Index: a view by type follows adds, removes, and renames", () -> { viewChanges(4); viewChanges(CHILDREN); });
+	}
+	
+	private static final int THREADS = 8;
+	private static final int ROUNDS = 200;
+	private static final int CHILDREN = 200;
+	//Each name is given to this many children
+	private static final int REPEATS = 4;
+	
+	/**
+	 * Returns an object with CHILDREN fields and objects, named n0 to n49, each name repeated REPEATS times.
+	 * The objects are typed t0 to t9 by the last digit of their position.
+	 * @return
+	 */
+	static SoffitObject wide() {
+		SoffitObject object = new SoffitObject("Wide", "W");
+		for(int i = 0; i < CHILDREN; i++) {
+			object.add(new SoffitField("n" + i % (CHILDREN / REPEATS), Integer.toString(i)));
+			object.add(new SoffitObject("t" + i % 10, "n" + i % (CHILDREN / REPEATS)));
+		}
+		return object;
+	}
+	
+	/**
+	 * Runs a test on THREADS threads at once, with each round given a new object to look things up in,
+	 * so the indexes are built while the other threads are reading them.
+	 * Fails with the first failure from any thread.
+	 * @param test
+	 * @throws Exception
+	 */
+	static void concurrently(Lookup test) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			for(int round = 0; round < ROUNDS; round++) {
+				SoffitObject object = wide();
+				CyclicBarrier barrier = new CyclicBarrier(THREADS);
+				
+				List<Future<?>> results = new ArrayList<>();
+				for(int t = 0; t < THREADS; t++) {
+					int thread = t;
+					results.add(executor.submit(() -> {
+						barrier.await();
+						for(int i = 0; i < CHILDREN / REPEATS; i++)
+							test.run(object, (i + thread * 7) % (CHILDREN / REPEATS));
+						return null;
+					}));
+				}
+				
+				for(Future<?> result : results)
+					result.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * A lookup of the children named n + number, which fails by throwing anything.
+	 */
+	interface Lookup {
+		void run(SoffitObject object, int number) throws Exception;
+	}
+	
+	private static void concurrentNameLookups() throws Exception {
+		concurrently((object, n) -> {
+			String name = "n" + n;
+			
+			List<SoffitField> fields = object.getFieldsByName(name);
+			checkEquals(REPEATS, fields.size());
+			for(int i = 0; i < REPEATS; i++)
+				checkEquals(Integer.toString(n + i * (CHILDREN / REPEATS)), fields.get(i).getValue());
+			
+			checkEquals(Integer.toString(n), object.getField(name).getValue());
+			check(object.hasField(name), "Field " + name + " wasn't found");
+			checkEquals(name, object.getObject(name).getName());
+			checkEquals(REPEATS, object.getObjectsByName(name).size());
+		});
+	}
+	
+	private static void concurrentTypeLookups() throws Exception {
+		concurrently((object, n) -> {
+			String type = "t" + n % 10;
+			String name = "n" + n;
+			
+			List<SoffitObject> byType = object.getObjectsByType(type);
+			checkEquals(CHILDREN / 10, byType.size());
+			for(SoffitObject found : byType)
+				checkEquals(type, found.getType());
+			
+			checkEquals(byType, object.viewObjectsByType(type));
+			SoffitObject found = object.getObjectByTypeAndName(type, name);
+			checkEquals(type, found.getType());
+			checkEquals(name, found.getName());
+		});
+	}
+	
+	/**
+	 * Returns an object with count objects, typed A and B in turn, and named by their position.
+	 * @param count
+	 * @return
+	 */
+	private static SoffitObject alternating(int count) {
+		SoffitObject object = new SoffitObject("Parent", "P");
+		for(int i = 0; i < count; i++)
+			object.add(new SoffitObject(i % 2 == 0 ? "A" : "B", Integer.toString(i)));
+		return object;
+	}
+	
+	private static void nameChanges(int count) {
+		SoffitObject object = alternating(count);
+		for(int i = 0; i < count; i++)
+			object.add(new SoffitField(Integer.toString(i), "v" + i));
+		checkEquals("v1", object.getField("1").getValue());
+		checkEquals("1", object.getObject("1").getName());
+		
+		//Added after the indexes were built
+		object.add(new SoffitField("1", "second"));
+		object.add(new SoffitObject("C", "added"));
+		checkEquals(2, object.getFieldsByName("1").size());
+		checkEquals("second", object.getFieldsByName("1").get(1).getValue());
+		checkEquals("C", object.getObject("added").getType());
+		
+		object.removeField("1");
+		checkEquals("second", object.getField("1").getValue());
+		object.removeObject("added");
+		checkThrows(SoffitException.class, () -> object.getObject("added"));
+		checkEquals(0, object.getObjectsByName("added").size());
+		
+		//Removed through the lists themselves
+		object.getAllFields().remove(0);
+		object.getAllObjects().remove(0);
+		check(!object.hasField("0"), "Removed field was still found");
+		checkThrows(SoffitException.class, () -> object.getObject("0"));
+		
+		SoffitObject renamed = object.getObject("1");
+		renamed.setName("renamed");
+		check(object.getObject("renamed") == renamed, "Renamed object wasn't found by its new name");
+		checkThrows(SoffitException.class, () -> object.getObject("1"));
+		checkEquals(1, object.getObjectsByName("renamed").size());
+		
+		object.removeObjectsByName("renamed");
+		checkEquals(0, object.getObjectsByName("renamed").size());
+		checkEquals(count - 2, object.getAllObjects().size());
+	}
+	
+	private static void typeChanges(int count) {
+		SoffitObject object = alternating(count);
+		checkEquals(count / 2, object.getObjectsByType("A").size());
+		
+		//Added after the indexes were built
+		object.add(new SoffitObject("A", "added"));
+		checkEquals(count / 2 + 1, object.getObjectsByType("A").size());
+		checkEquals("added", object.getObjectByTypeAndName("A", "added").getName());
+		
+		object.removeObject("added");
+		checkEquals(count / 2, object.getObjectsByType("A").size());
+		checkThrows(SoffitException.class, () -> object.getObjectByTypeAndName("A", "added"));
+		
+		//Removed through the list itself
+		object.getAllObjects().remove(0);
+		checkEquals(count / 2 - 1, object.getObjectsByType("A").size());
+		checkThrows(SoffitException.class, () -> object.getObjectByTypeAndName("A", "0"));
+		
+		SoffitObject retyped = object.getObjectByTypeAndName("B", "1");
+		retyped.setType("A");
+		checkEquals(count / 2, object.getObjectsByType("A").size());
+		check(object.getObjectByTypeAndName("A", "1") == retyped, "Re-typed object wasn't found by its new type");
+		checkThrows(SoffitException.class, () -> object.getObjectByTypeAndName("B", "1"));
+		
+		retyped.setName("renamed");
+		check(object.getObjectByTypeAndName("A", "renamed") == retyped, "Renamed object wasn't found by its new name");
+		checkThrows(SoffitException.class, () -> object.getObjectByTypeAndName("A", "1"));
+	}
+	
+	private static void viewChanges(int count) {
+		SoffitObject object = alternating(count);
+		List<SoffitObject> view = object.viewObjectsByType("A");
+		checkEquals(count / 2, view.size());
+		checkEquals("0", view.get(0).getName());
+		
+		object.add(new SoffitObject("A", "added"));
+		checkEquals(count / 2 + 1, view.size());
+		checkEquals("added", view.get(view.size() - 1).getName());
+		
+		object.getAllObjects().set(0, new SoffitObject("B", "replaced"));
+		checkEquals(count / 2, view.size());
+		checkEquals("2", view.get(0).getName());
+		
+		object.getObjectByTypeAndName("B", "1").setType("A");
+		checkEquals(count / 2 + 1, view.size());
+		checkEquals("1", view.get(0).getName());
+		
+		object.removeObjectsByType("A");
+		checkEquals(0, view.size());
+	}
+}
@@ -0,0 +1,140 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit.test;
+
+import static fibrous.soffit.test.SoffitTests.check;
+import static fibrous.soffit.test.SoffitTests.checkEquals;
+import static fibrous.soffit.test.SoffitTests.checkThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import fibrous.soffit.SoffitException;
+import fibrous.soffit.SoffitField;
+import fibrous.soffit.SoffitObject;
+import fibrous.soffit.SoffitUtil;
+
+/**
+ * Tests for ReadStreamLazily and ReadFileLazily.
+ */
+class LazyTests {
+	
+	static void addTo(SoffitTests tests) {
+		tests.add("Lazy: renamed child is found by its new name", LazyTests::renamedChild);
+		tests.add("Lazy: re-typed child is found by its new type", LazyTests::retypedChild);
+		tests.add("Lazy: a file reads the same as ReadFile", LazyTests::file);
+		tests.add("Lazy: names and values longer than one segment in total", LazyTests::manySegments);
+	}
+	
+	private static final String VEHICLES =
+			"__SoffitStart\n" +
+			"Vehicle \"A\" {\n" +
+			"\tMake \"Ford\"\n" +
+			"}\n" +
+			"Vehicle \"C\" {\n" +
+			"}\n" +
+			"__SoffitEnd\n";
+	
+	private static SoffitObject readLazily(String stream) throws IOException {
+		return SoffitUtil.ReadStreamLazily(new ByteArrayInputStream(stream.getBytes(StandardCharsets.UTF_8)));
+	}
+	
+	private static void renamedChild() throws IOException {
+		SoffitObject root = readLazily(VEHICLES);
+		SoffitObject a = root.getObject("A");
+		a.setName("B");
+		
+		check(root.getObject("B") == a, "Renamed child wasn't found by its new name");
+		checkThrows(SoffitException.class, () -> root.getObject("A"));
+		checkEquals(1, root.getObjectsByName("B").size());
+		checkEquals(0, root.getObjectsByName("A").size());
+		check(root.getObjectByTypeAndName("Vehicle", "B") == a, "Renamed child wasn't found by its type and new name");
+		checkEquals("Ford", root.getObject("B").getField("Make").getValue());
+	}
+	
+	private static void retypedChild() throws IOException {
+		SoffitObject root = readLazily(VEHICLES);
+		SoffitObject a = root.getObjectByTypeAndName("Vehicle", "A");
+		a.setType("Trailer");
+		
+		checkEquals(1, root.getObjectsByType("Vehicle").size());
+		checkEquals(1, root.getObjectsByType("Trailer").size());
+		check(root.getObjectsByType("Trailer").get(0) == a, "Re-typed child wasn't found by its new type");
+		check(root.getObjectByTypeAndName("Trailer", "A") == a, "Re-typed child wasn't found by its new type and name");
+		checkThrows(SoffitException.class, () -> root.getObjectByTypeAndName("Vehicle", "A"));
+	}
+	
+	private static final String MIXED =
+			"__SoffitStart\n" +
+			"Version \"1\"\n" +
+			"Vehicle \"Caf\u00E9 \\\"A\\\"\" {\n" +
+			"\tMake \"\u20AC \\\\ \uD83D\uDE97\"\n" +
+			"\tEmpty\n" +
+			"\tTrailer {\n" +
+			"\t\tAxles \"2\"\n" +
+			"\t}\n" +
+			"}\n" +
+			"__SoffitEnd\n";
+	
+	private static void file() throws IOException {
+		Path path = Files.createTempFile("lazy", ".soffit");
+		try {
+			Files.write(path, MIXED.getBytes(StandardCharsets.UTF_8));
+			SoffitObject lazy = SoffitUtil.ReadFileLazily(path);
+			
+			checkEquals(SoffitUtil.WriteStreamToString(SoffitUtil.ReadFile(path)), SoffitUtil.WriteStreamToString(lazy));
+			SoffitObject vehicle = lazy.getObject("Caf\u00E9 \"A\"");
+			checkEquals("\u20AC \\ \uD83D\uDE97", vehicle.getField("Make").getValue());
+			checkEquals("2", vehicle.getObjectByTypeAndName("Trailer", "").getField("Axles").getValue());
+			check(!vehicle.hasField("Mak"), "A shorter name matched");
+		} finally {
+			Files.delete(path);
+		}
+	}
+	
+	private static void manySegments() throws IOException {
+		SoffitObject root = new SoffitObject(null, null);
+		//About three segments' worth, with lines that don't divide evenly into one
+		String padding = "x".repeat(999);
+		for(int i = 0; i < 3000; i++)
+			root.add(new SoffitField("F" + i, i + padding));
+		String text = SoffitUtil.WriteStreamToString(root);
+		
+		SoffitObject lazy = readLazily(text);
+		for(int i = 0; i < 3000; i += 7)
+			checkEquals(i + padding, lazy.getField("F" + i).getValue());
+		checkEquals(text, SoffitUtil.WriteStreamToString(lazy));
+	}
+}
@@ -0,0 +1,231 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package fibrous.soffit.test;
+
+import static fibrous.soffit.test.SoffitTests.check;
+import static fibrous.soffit.test.SoffitTests.checkEquals;
+import static fibrous.soffit.test.SoffitTests.checkThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import fibrous.soffit.SoffitBufferPool;
+import fibrous.soffit.SoffitException;
+import fibrous.soffit.SoffitField;
+import fibrous.soffit.SoffitObject;
+import fibrous.soffit.SoffitReadOptions;
+import fibrous.soffit.SoffitUtil;
+import fibrous.soffit.SoffitWriteOptions;
+
+/**
+ * Tests for WriteStreamParallel and ReadFileParallel.
+ */
+class ParallelTests {
+	
+	static void addTo(SoffitTests tests) {
+		tests.add("Parallel: writing matches a sequential write", ParallelTests::writeMatches);
+		tests.add("Parallel: an object too large to buffer is streamed", ParallelTests::oversizedObject);
+		tests.add("Parallel: a failed write hands back its buffers", ParallelTests::failedWrite);
+		tests.add("Parallel: reading matches ReadFile", ParallelTests::readMatches);
+		tests.add("Parallel: reading fails the same as ReadFile", ParallelTests::readErrors);
+	}
+	
+	/**
+	 * Returns a root with count top-level objects of fieldCount fields each, along with a few fields of its own.
+	 * @param count
+	 * @param fieldCount
+	 * @return
+	 */
+	static SoffitObject tree(int count, int fieldCount) {
+		SoffitObject root = new SoffitObject(null, null);
+		root.add(new SoffitField("Version", "1"));
+		for(int i = 0; i < count; i++) {
+			SoffitObject object = new SoffitObject("Vehicle", "V" + i);
+			for(int f = 0; f < fieldCount; f++) {
+				SoffitField field = new SoffitField("F" + f, null);
+				field.put((long) i * f);
+				object.add(field);
+			}
+			SoffitObject service = new SoffitObject("Service");
+			service.add(new SoffitField("Type", "Oil \"Change\""));
+			object.add(service);
+			root.add(object);
+		}
+		return root;
+	}
+	
+	static byte[] sequential(SoffitObject root) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		SoffitUtil.WriteStream(root, output);
+		return output.toByteArray();
+	}
+	
+	private static byte[] parallel(SoffitObject root, SoffitWriteOptions options, ForkJoinPool pool) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		SoffitUtil.WriteStreamParallel(root, output, options, pool);
+		return output.toByteArray();
+	}
+	
+	private static void writeMatches() throws IOException {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			//Small enough for one group, and large enough for many
+			for(SoffitObject root : new SoffitObject[] {tree(3, 2), tree(20000, 3), new SoffitObject(null, null)})
+				check(Arrays.equals(sequential(root), parallel(root, new SoffitWriteOptions(), pool)), "Parallel write didn't match");
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+	private static void oversizedObject() throws IOException {
+		SoffitObject root = tree(10000, 1);
+		//Larger than any group, in the middle of the small ones
+		SoffitObject large = new SoffitObject("Large", "L");
+		for(int i = 0; i < 100000; i++)
+			large.add(new SoffitField("F", Integer.toString(i)));
+		root.getAllObjects().add(5000, large);
+		
+		SoffitWriteOptions options = new SoffitWriteOptions();
+		//Records the largest single write, which is the whole group when it was buffered
+		int[] largest = {0};
+		ByteArrayOutputStream output = new ByteArrayOutputStream() {
+			@Override
+			public synchronized void write(byte[] b, int off, int len) {
+				largest[0] = Math.max(largest[0], len);
+				super.write(b, off, len);
+			}
+		};
+		
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			SoffitUtil.WriteStreamParallel(root, output, options, pool);
+		} finally {
+			pool.shutdown();
+		}
+		
+		check(Arrays.equals(sequential(root), output.toByteArray()), "Parallel write didn't match");
+		check(largest[0] < 1 << 20, "A write of " + largest[0] + " bytes means the large object was buffered");
+	}
+	
+	private static void failedWrite() throws Exception {
+		SoffitBufferPool buffers = new SoffitBufferPool();
+		SoffitWriteOptions options = new SoffitWriteOptions();
+		options.setBufferPool(buffers);
+		ForkJoinPool pool = new ForkJoinPool(1);
+		
+		try {
+			SoffitObject root = tree(20000, 1);
+			parallel(root, options, pool);
+			int size = buffers.size();
+			
+			//In one of the groups
+			root.getAllObjects().get(15000).add(new SoffitField("Null", null));
+			checkThrows(NullPointerException.class, () -> parallel(root, options, pool));
+			//Groups that were written ahead finish in the background.
+			pool.awaitQuiescence(10, TimeUnit.SECONDS);
+			checkEquals(size, buffers.size());
+			
+			//Before any of them
+			root.add(new SoffitField("Null", null));
+			checkThrows(NullPointerException.class, () -> parallel(root, options, pool));
+			pool.awaitQuiescence(10, TimeUnit.SECONDS);
+			checkEquals(size, buffers.size());
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+	/**
+	 * Returns a document of count top-level objects, with a top-level field after every hundredth one, large enough to be split into several chunks.
+	 * @param count
+	 * @return
+	 */
+	private static List<String> lines(int count) {
+		List<String> lines = new ArrayList<>();
+		lines.add(SoffitUtil.SOFFIT_START);
+		for(int i = 0; i < count; i++) {
+			lines.add("Vehicle \"V" + i + "\" {");
+			lines.add("\tMake \"Ford {\\\"}\"");
+			lines.add("\tService {");
+			lines.add("\t\tMiles \"" + i + "\"");
+			lines.add("\t}");
+			lines.add("}");
+			if(i % 100 == 0)
+				lines.add("Count \"" + i + "\"");
+		}
+		lines.add(SoffitUtil.SOFFIT_END);
+		return lines;
+	}
+	
+	private static void readMatches() throws Exception {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			for(int count : new int[] {0, 3, 20000}) {
+				FileTests.withFile(String.join("\r\n", lines(count)), path -> {
+					SoffitObject expected = SoffitUtil.ReadFile(path);
+					SoffitObject actual = SoffitUtil.ReadFileParallel(path, new SoffitReadOptions(), pool);
+					checkEquals(SoffitUtil.WriteStreamToString(expected), SoffitUtil.WriteStreamToString(actual));
+					checkEquals(expected.getFieldsByName("Count").size(), actual.getFieldsByName("Count").size());
+				});
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+	private static void readErrors() throws Exception {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			List<String> lines = lines(20000);
+			//Near the start, in the middle, and in the last chunk
+			for(int line : new int[] {3, lines.size() / 2, lines.size() - 3}) {
+				for(String bad : new String[] {"}", "Make \"Ford", "Vehicle \"V\" {"}) {
+					List<String> broken = new ArrayList<>(lines);
+					broken.add(line, bad);
+					FileTests.withFile(String.join("\n", broken), path -> {
+						SoffitException expected = checkThrows(SoffitException.class, () -> SoffitUtil.ReadFile(path));
+						SoffitException actual = checkThrows(SoffitException.class, () -> SoffitUtil.ReadFileParallel(path, new SoffitReadOptions(), pool));
+						checkEquals(expected.getMessage(), actual.getMessage());
+					});
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
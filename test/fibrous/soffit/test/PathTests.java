@@ -0,0 +1,140 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit.test;
+
+import static fibrous.soffit.test.SoffitTests.checkEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import fibrous.soffit.SoffitField;
+import fibrous.soffit.SoffitObject;
+import fibrous.soffit.SoffitPath;
+import fibrous.soffit.SoffitUtil;
+
+/**
+ * Tests for SoffitPath.
+ */
+class PathTests {
+	
+	static void addTo(SoffitTests tests) {
+		tests.add("Path: types, names, and wildcards with few children", () -> checkGarage(garage(2)));
+		tests.add("Path: types, names, and wildcards with indexed children", () -> checkGarage(garage(20)));
+		tests.add("Path: types, names, and wildcards on a lazy tree", () -> checkGarage(lazily(garage(20))));
+		tests.add("Path: field predicates", PathTests::fieldPredicates);
+		tests.add("Path: one tree queried from several threads at once", PathTests::concurrentQueries);
+	}
+	
+	/**
+	 * Builds a root with vehicleCount vehicles, each with a service and some other objects mixed in, along with a few unnamed objects.
+	 */
+	static SoffitObject garage(int vehicleCount) {
+		SoffitObject root = new SoffitObject(null, null);
+		for(int i = 0; i < vehicleCount; i++) {
+			SoffitObject vehicle = new SoffitObject("Vehicle", "V" + i);
+			root.add(vehicle);
+			root.add(new SoffitObject("Shed", "S" + i));
+			
+			SoffitObject service = new SoffitObject("Service", "Oil");
+			service.add(new SoffitField("Type", i % 2 == 0 ? "Oil Change" : "Tires"));
+			vehicle.add(service);
+			SoffitObject entry = new SoffitObject("Entry");
+			entry.add(new SoffitField("Date", "2020-" + i));
+			service.add(entry);
+		}
+		root.add(new SoffitObject("Vehicle"));
+		root.add(new SoffitObject("Vehicle"));
+		return root;
+	}
+	
+	static SoffitObject lazily(SoffitObject root) throws IOException {
+		String text = SoffitUtil.WriteStreamToString(root);
+		return SoffitUtil.ReadStreamLazily(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+	}
+	
+	static List<String> names(List<SoffitObject> objects) {
+		return objects.stream().map(SoffitObject::getName).collect(Collectors.toList());
+	}
+	
+	private static void checkGarage(SoffitObject root) {
+		List<SoffitObject> vehicles = SoffitPath.compile("Vehicle").objects(root).collect(Collectors.toList());
+		checkEquals(root.getObjectsByType("Vehicle").size(), vehicles.size());
+		checkEquals(names(root.getObjectsByType("Vehicle")), names(vehicles));
+		
+		checkEquals(1L, SoffitPath.compile("Vehicle[V1]/Service").objects(root).count());
+		checkEquals(0L, SoffitPath.compile("Vehicle[Nope]").objects(root).count());
+		checkEquals("2020-1", SoffitPath.compile("Vehicle[V1]/Service/*/Date").fields(root).findFirst().get().getValue());
+		checkEquals(root.getAllObjects().size(), (int) SoffitPath.compile("*").objects(root).count());
+		checkEquals(0L, SoffitPath.compile("Shed/Service").objects(root).count());
+	}
+	
+	private static void fieldPredicates() {
+		SoffitObject root = garage(4);
+		List<SoffitObject> oil = SoffitPath.compile("Vehicle/Service[@Type=Oil Change]").objects(root).collect(Collectors.toList());
+		checkEquals(2, oil.size());
+		checkEquals(4L, SoffitPath.compile("Vehicle/Service[@Type]").objects(root).count());
+		checkEquals(0L, SoffitPath.compile("Vehicle/Service[@Missing]").objects(root).count());
+	}
+	
+	private static void concurrentQueries() throws Exception {
+		SoffitPath path = SoffitPath.compile("Vehicle/Service[@Type=Tires]");
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			for(int round = 0; round < 200; round++) {
+				//A new tree each round, so its indexes are built while the other threads are querying it
+				SoffitObject root = garage(20);
+				CyclicBarrier barrier = new CyclicBarrier(8);
+				
+				List<Future<Long>> results = new ArrayList<>();
+				for(int t = 0; t < 8; t++) {
+					results.add(executor.submit(() -> {
+						barrier.await();
+						return path.objects(root).count();
+					}));
+				}
+				
+				for(Future<Long> result : results)
+					checkEquals(10L, result.get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,91 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit.test;
+
+import static fibrous.soffit.test.SoffitTests.check;
+import static fibrous.soffit.test.SoffitTests.checkEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import fibrous.soffit.SoffitObject;
+import fibrous.soffit.SoffitPath;
+import fibrous.soffit.SoffitProjection;
+import fibrous.soffit.SoffitUtil;
+
+/**
+ * Tests for reading with a SoffitProjection.
+ */
+class ProjectionTests {
+	
+	static void addTo(SoffitTests tests) {
+		tests.add("Projection: selects the same objects as the path", ProjectionTests::sameAsPath);
+		tests.add("Projection: skips everything else", ProjectionTests::skipsEverythingElse);
+	}
+	
+	private static final String[] PATHS = {"Vehicle", "Vehicle[]", "Vehicle[V1]", "*/Service", "Vehicle/Service/Entry", "Shed[S0]", "*[]"};
+	
+	private static SoffitObject read(String text, SoffitProjection projection) throws IOException {
+		return SoffitUtil.ReadStream(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), projection);
+	}
+	
+	private static List<String> written(SoffitPath path, SoffitObject root) {
+		return path.objects(root).map(object -> object.toString() + SoffitUtil.WriteStreamToString(object)).collect(Collectors.toList());
+	}
+	
+	private static void sameAsPath() throws IOException {
+		SoffitObject full = PathTests.garage(3);
+		String text = SoffitUtil.WriteStreamToString(full);
+		
+		for(String p : PATHS) {
+			SoffitPath path = SoffitPath.compile(p);
+			List<String> expected = written(path, full);
+			check(!expected.isEmpty(), p + " doesn't select anything to compare");
+			checkEquals(expected, written(path, read(text, SoffitProjection.ofPaths(path))));
+		}
+	}
+	
+	private static void skipsEverythingElse() throws IOException {
+		String text = SoffitUtil.WriteStreamToString(PathTests.garage(3));
+		
+		SoffitObject sheds = read(text, SoffitProjection.ofTypes("Shed"));
+		checkEquals(3, sheds.getAllObjects().size());
+		checkEquals(3, sheds.getObjectsByType("Shed").size());
+		
+		SoffitObject unnamed = read(text, SoffitProjection.ofPaths("Vehicle[]"));
+		checkEquals(2, unnamed.getAllObjects().size());
+		checkEquals(List.of("", ""), PathTests.names(unnamed.getAllObjects()));
+	}
+}
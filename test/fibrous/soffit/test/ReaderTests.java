@@ -0,0 +1,104 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit.test;
+
+import static fibrous.soffit.test.SoffitTests.checkEquals;
+import static fibrous.soffit.test.SoffitTests.checkThrows;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import fibrous.soffit.SoffitBufferPool;
+import fibrous.soffit.SoffitEvent;
+import fibrous.soffit.SoffitException;
+import fibrous.soffit.SoffitReadOptions;
+import fibrous.soffit.SoffitReader;
+
+/**
+ * Tests for SoffitReader.
+ */
+class ReaderTests {
+	
+	static void addTo(SoffitTests tests) {
+		tests.add("Reader: closing early hands back read-ahead and buffers", ReaderTests::closeEarly);
+		tests.add("Reader: an exception hands back read-ahead and buffers", ReaderTests::exception);
+	}
+	
+	private static final String FIRST_LINES =
+			"__SoffitStart\n" +
+			"Vehicle \"A\" {\n";
+	private static final String REST =
+			"\tMake \"Ford\"\n" +
+			"}\n" +
+			"__SoffitEnd\n" +
+			"trailing data\n";
+	
+	private static ByteArrayInputStream stream(String text) {
+		return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	private static String remaining(ByteArrayInputStream stream) {
+		return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+	}
+	
+	private static void closeEarly() throws Exception {
+		SoffitBufferPool pool = new SoffitBufferPool();
+		SoffitReadOptions options = new SoffitReadOptions();
+		options.setBufferPool(pool);
+		
+		ByteArrayInputStream stream = stream(FIRST_LINES + REST);
+		SoffitReader reader = new SoffitReader(stream, options);
+		checkEquals(SoffitEvent.START_OBJECT, reader.next());
+		reader.close();
+		reader.close();
+		
+		checkEquals(REST, remaining(stream));
+		checkEquals(2, pool.size());
+		checkThrows(SoffitException.class, reader::next);
+	}
+	
+	private static void exception() throws Exception {
+		SoffitBufferPool pool = new SoffitBufferPool();
+		SoffitReadOptions options = new SoffitReadOptions();
+		options.setBufferPool(pool);
+		
+		ByteArrayInputStream stream = stream(FIRST_LINES + "\"Bad\n" + REST);
+		SoffitReader reader = new SoffitReader(stream, options);
+		checkEquals(SoffitEvent.START_OBJECT, reader.next());
+		checkThrows(SoffitException.class, reader::next);
+		
+		checkEquals(REST, remaining(stream));
+		checkEquals(2, pool.size());
+		checkThrows(SoffitException.class, reader::next);
+		reader.close();
+	}
+}
@@ -0,0 +1,137 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package fibrous.soffit.test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Runs the tests for the fibrous.soffit package.
+ * <p>
+ * Like the benchmark harness, this has no dependencies beyond the JDK, so it can be compiled right alongside the fibrous.soffit package:
+ * <pre>
+ * javac -d out src/fibrous/soffit/*.java test/fibrous/soffit/test/*.java
+ * java -cp out fibrous.soffit.test.SoffitTests [filter]
+ * </pre>
+ * Only tests whose names contain the filter are run.
+ * Each failure is printed along with its stack trace, and the exit status is 1 if any test failed.
+ */
+public class SoffitTests {
+	
+	/**
+	 * A single test, which fails by throwing anything.
+	 */
+	interface Test {
+		void run() throws Exception;
+	}
+	
+	private final LinkedHashMap<String, Test> tests = new LinkedHashMap<>();
+	
+	/**
+	 * Adds a test to be run.
+	 * @param name
+	 * @param test
+	 */
+	void add(String name, Test test) {
+		if(tests.put(name, test) != null)
+			throw new IllegalArgumentException("Duplicate test name: " + name);
+	}
+	
+	public static void main(String[] args) {
+		String filter = args.length > 0 ? args[0] : "";
+		
+		SoffitTests all = new SoffitTests();
+		LazyTests.addTo(all);
+		DeepNestingTests.addTo(all);
+		PathTests.addTo(all);
+		ReaderTests.addTo(all);
+		ProjectionTests.addTo(all);
+		FieldTests.addTo(all);
+		EncodingTests.addTo(all);
+		BinaryTests.addTo(all);
+		IndexTests.addTo(all);
+		ParallelTests.addTo(all);
+		WriterTests.addTo(all);
+		ChannelTests.addTo(all);
+		StreamTests.addTo(all);
+		FileTests.addTo(all);
+		SymbolTests.addTo(all);
+		DocumentTests.addTo(all);
+		FeedTests.addTo(all);
+		
+		int run = 0;
+		int failed = 0;
+		for(Map.Entry<String, Test> entry : all.tests.entrySet()) {
+			if(!entry.getKey().contains(filter))
+				continue;
+			
+			run++;
+			try {
+				entry.getValue().run();
+				System.out.println("PASS " + entry.getKey());
+			} catch (Throwable t) {
+				failed++;
+				System.out.println("FAIL " + entry.getKey());
+				t.printStackTrace(System.out);
+			}
+		}
+		
+		System.out.println(run + " test(s) run, " + failed + " failed");
+		if(failed > 0)
+			System.exit(1);
+	}
+	
+	static void check(boolean condition, String message) {
+		if(!condition)
+			throw new AssertionError(message);
+	}
+	
+	static void checkEquals(Object expected, Object actual) {
+		if(!Objects.equals(expected, actual))
+			throw new AssertionError("Expected <" + expected + "> but was <" + actual + ">");
+	}
+	
+	/**
+	 * Checks that a test throws an exception of the passed type, and returns it.
+	 */
+	static <T extends Throwable> T checkThrows(Class<T> type, Test test) {
+		try {
+			test.run();
+		} catch (Throwable t) {
+			if(type.isInstance(t))
+				return type.cast(t);
+			throw new AssertionError("Expected " + type.getSimpleName() + " but " + t + " was thrown", t);
+		}
+		throw new AssertionError("Expected " + type.getSimpleName() + " but nothing was thrown");
+	}
+}
@@ -0,0 +1,128 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package fibrous.soffit.test;
+
+import static fibrous.soffit.test.SoffitTests.checkEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import fibrous.soffit.SoffitField;
+import fibrous.soffit.SoffitInputStream;
+import fibrous.soffit.SoffitObject;
+import fibrous.soffit.SoffitUtil;
+
+/**
+ * Tests for how ReadStream reads from an InputStream without consuming anything past the footer.
+ */
+class StreamTests {
+	
+	static void addTo(SoffitTests tests) {
+		tests.add("Stream: a stream with mark() is given back what was read ahead", () -> backToBack(new ByteArrayInputStream(bytes(TWO_DOCUMENTS))));
+		tests.add("Stream: a stream without mark() is never read past the footer", () -> backToBack(new Unmarked(bytes(TWO_DOCUMENTS))));
+		tests.add("Stream: a SoffitInputStream keeps what was read ahead", () -> backToBack(new SoffitInputStream(new Unmarked(bytes(TWO_DOCUMENTS)), 16)));
+		tests.add("Stream: lines split across short reads", StreamTests::shortReads);
+	}
+	
+	private static final String FIRST =
+			"__SoffitStart\n" +
+			"Vehicle \"A\" {\n" +
+			"\tMake \"Ford\"\n" +
+			"\tModel \"A longer value than one 16 byte block\"\n" +
+			"}\n" +
+			"__SoffitEnd\n";
+	private static final String SECOND =
+			"__SoffitStart\r\n" +
+			"Vehicle \"B\" {\r\n" +
+			"\tMake \"Dodge\"\r\n" +
+			"}\r\n" +
+			"__SoffitEnd\r\n";
+	private static final String TRAILING = "trailing data\n";
+	private static final String TWO_DOCUMENTS = FIRST + SECOND + TRAILING;
+	
+	private static byte[] bytes(String text) {
+		return text.getBytes(StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * A stream that doesn't support mark(), and returns at most maxRead bytes from each read.
+	 */
+	private static class Unmarked extends FilterInputStream {
+		private final int maxRead;
+		
+		Unmarked(byte[] bytes) {
+			this(bytes, Integer.MAX_VALUE);
+		}
+		
+		Unmarked(byte[] bytes, int maxRead) {
+			super(new ByteArrayInputStream(bytes));
+			this.maxRead = maxRead;
+		}
+		
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			return super.read(b, off, Math.min(len, maxRead));
+		}
+		
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+	}
+	
+	private static void backToBack(InputStream stream) throws IOException {
+		SoffitObject first = SoffitUtil.ReadStream(stream);
+		checkEquals("A longer value than one 16 byte block", first.getObject("A").getField("Model").getValue());
+		
+		SoffitObject second = SoffitUtil.ReadStream(stream);
+		checkEquals("Dodge", second.getObject("B").getField("Make").getValue());
+		
+		checkEquals(TRAILING, new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+	}
+	
+	private static void shortReads() throws IOException {
+		String value = "a value split across many short reads";
+		SoffitObject root = new SoffitObject(null, null);
+		root.add(new SoffitField("k", value));
+		String text = SoffitUtil.WriteStreamToString(root);
+		
+		for(int maxRead = 1; maxRead <= 7; maxRead++) {
+			InputStream stream = new SoffitInputStream(new Unmarked(bytes(text + TRAILING), maxRead), 16);
+			checkEquals(value, SoffitUtil.ReadStream(stream).getField("k").getValue());
+			checkEquals(TRAILING, new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+		}
+	}
+}
@@ -0,0 +1,163 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package fibrous.soffit.test;
+
+import static fibrous.soffit.test.SoffitTests.check;
+import static fibrous.soffit.test.SoffitTests.checkEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import fibrous.soffit.SoffitField;
+import fibrous.soffit.SoffitObject;
+import fibrous.soffit.SoffitReadOptions;
+import fibrous.soffit.SoffitSymbolTable;
+import fibrous.soffit.SoffitUtil;
+
+/**
+ * Tests for how field names and object types are interned with a SoffitSymbolTable while parsing.
+ */
+class SymbolTests {
+	
+	static void addTo(SoffitTests tests) {
+		tests.add("Symbols: repeated names and types share one String", SymbolTests::sharedWithinParse);
+		tests.add("Symbols: a table passed in is shared between parses", SymbolTests::sharedBetweenParses);
+		tests.add("Symbols: a full table and long names still parse correctly", SymbolTests::limits);
+		tests.add("Symbols: one table shared by several threads at once", SymbolTests::concurrentParses);
+	}
+	
+	private static final String LONG_NAME = "L".repeat(SoffitSymbolTable.MAX_SYMBOL_LENGTH + 1);
+	
+	/**
+	 * Returns a document with count vehicles, each with the same set of fields, including ones that only differ by an accent.
+	 * @param count
+	 * @return
+	 */
+	private static String vehicles(int count) {
+		SoffitObject root = new SoffitObject(null, null);
+		for(int i = 0; i < count; i++) {
+			SoffitObject vehicle = new SoffitObject("Vehicle", "V" + i);
+			vehicle.add(new SoffitField("Make", "Ford"));
+			vehicle.add(new SoffitField("Cafe", "plain"));
+			vehicle.add(new SoffitField("Caf\u00E9", "accented"));
+			vehicle.add(new SoffitField(LONG_NAME, Integer.toString(i)));
+			root.add(vehicle);
+		}
+		return SoffitUtil.WriteStreamToString(root);
+	}
+	
+	private static SoffitObject read(String text, SoffitReadOptions options) throws IOException {
+		return SoffitUtil.ReadStream(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), options);
+	}
+	
+	/**
+	 * Checks that every vehicle read has the right fields, regardless of whether their names were interned.
+	 */
+	private static void checkVehicles(SoffitObject root, int count) {
+		List<SoffitObject> vehicles = root.getObjectsByType("Vehicle");
+		checkEquals(count, vehicles.size());
+		for(int i = 0; i < count; i++) {
+			SoffitObject vehicle = vehicles.get(i);
+			checkEquals("plain", vehicle.getField("Cafe").getValue());
+			checkEquals("accented", vehicle.getField("Caf\u00E9").getValue());
+			checkEquals(Integer.toString(i), vehicle.getField(LONG_NAME).getValue());
+		}
+	}
+	
+	private static void sharedWithinParse() throws IOException {
+		SoffitObject root = read(vehicles(10), new SoffitReadOptions());
+		checkVehicles(root, 10);
+		
+		List<SoffitObject> vehicles = root.getAllObjects();
+		SoffitObject first = vehicles.get(0);
+		for(SoffitObject vehicle : vehicles) {
+			check(vehicle.getType() == first.getType(), "Types weren't interned");
+			check(vehicle.getField("Make").getName() == first.getField("Make").getName(), "Field names weren't interned");
+		}
+	}
+	
+	private static void sharedBetweenParses() throws IOException {
+		SoffitSymbolTable table = new SoffitSymbolTable();
+		SoffitReadOptions options = new SoffitReadOptions();
+		options.setSymbolTable(table);
+		
+		SoffitObject first = read(vehicles(2), options);
+		int size = table.size();
+		SoffitObject second = read(vehicles(2), options);
+		checkEquals(size, table.size());
+		check(first.getFirstObject().getType() == second.getFirstObject().getType(), "Types weren't shared between parses");
+		
+		//Each parse without a table has its own
+		SoffitObject separate = read(vehicles(2), new SoffitReadOptions());
+		check(first.getFirstObject().getType() != separate.getFirstObject().getType(), "A table was shared without being passed in");
+	}
+	
+	private static void limits() throws IOException {
+		SoffitSymbolTable table = new SoffitSymbolTable(2);
+		SoffitReadOptions options = new SoffitReadOptions();
+		options.setSymbolTable(table);
+		
+		checkVehicles(read(vehicles(5), options), 5);
+		checkEquals(2, table.size());
+	}
+	
+	private static void concurrentParses() throws Exception {
+		SoffitReadOptions options = new SoffitReadOptions();
+		options.setSymbolTable(new SoffitSymbolTable());
+		String text = vehicles(50);
+		
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<SoffitObject>> results = new ArrayList<>();
+			for(int i = 0; i < 16; i++)
+				results.add(executor.submit(() -> read(text, options)));
+			
+			String type = null;
+			for(Future<SoffitObject> result : results) {
+				SoffitObject root = result.get();
+				checkVehicles(root, 50);
+				if(type == null)
+					type = root.getFirstObject().getType();
+				check(root.getFirstObject().getType() == type, "Types weren't shared between threads");
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,147 @@
+/* BSD 3-Clause License
+ *
+ * Copyright (c) 2026, Noah McLean
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package fibrous.soffit.test;
+
+import static fibrous.soffit.test.SoffitTests.checkEquals;
+import static fibrous.soffit.test.SoffitTests.checkThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import fibrous.soffit.SoffitBufferPool;
+import fibrous.soffit.SoffitException;
+import fibrous.soffit.SoffitField;
+import fibrous.soffit.SoffitObject;
+import fibrous.soffit.SoffitUtil;
+import fibrous.soffit.SoffitWriteOptions;
+import fibrous.soffit.SoffitWriter;
+
+/**
+ * Tests for WriteStream and SoffitWriter.
+ */
+class WriterTests {
+	
+	static void addTo(SoffitTests tests) {
+		tests.add("Writer: a null value hands back the line buffer", WriterTests::nullValue);
+		tests.add("Writer: an I/O error hands back the line buffer", WriterTests::ioError);
+		tests.add("Writer: SoffitWriter matches WriteStream", WriterTests::streamingMatches);
+		tests.add("Writer: SoffitWriter rejects unbalanced objects", WriterTests::unbalanced);
+	}
+	
+	/**
+	 * Returns a root with a single object holding a single field.
+	 * @param value
+	 * @return
+	 */
+	static SoffitObject vehicle(String value) {
+		SoffitObject root = new SoffitObject(null, null);
+		SoffitObject vehicle = new SoffitObject("Vehicle", "V");
+		vehicle.add(new SoffitField("Make", value));
+		root.add(vehicle);
+		return root;
+	}
+	
+	private static SoffitWriteOptions options(SoffitBufferPool pool) {
+		SoffitWriteOptions options = new SoffitWriteOptions();
+		options.setBufferPool(pool);
+		return options;
+	}
+	
+	private static void nullValue() throws IOException {
+		SoffitBufferPool pool = new SoffitBufferPool();
+		SoffitUtil.WriteStream(vehicle("Ford"), new ByteArrayOutputStream(), options(pool));
+		checkEquals(1, pool.size());
+		
+		checkThrows(NullPointerException.class, () -> SoffitUtil.WriteStream(vehicle(null), new ByteArrayOutputStream(), options(pool)));
+		checkEquals(1, pool.size());
+	}
+	
+	private static void ioError() throws IOException {
+		SoffitBufferPool pool = new SoffitBufferPool();
+		SoffitWriteOptions options = options(pool);
+		options.setFlushPolicy(SoffitWriteOptions.FlushPolicy.LINE);
+		
+		OutputStream broken = new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				throw new IOException("Broken");
+			}
+		};
+		checkThrows(IOException.class, () -> SoffitUtil.WriteStream(vehicle("Ford"), broken, options));
+		checkEquals(1, pool.size());
+	}
+	
+	private static void streamingMatches() throws IOException {
+		SoffitObject root = new SoffitObject(null, null);
+		root.add(new SoffitField("Version", "1"));
+		SoffitObject garage = new SoffitObject("Garage", "Main \"Street\"");
+		SoffitObject vehicle = new SoffitObject("Vehicle", null);
+		SoffitField year = new SoffitField("Year", "");
+		year.put(-1986L);
+		vehicle.add(year);
+		vehicle.add(new SoffitField("Notes", "line\nbreak \\ slash"));
+		SoffitField price = new SoffitField("Price", "");
+		price.put(1.5);
+		vehicle.add(price);
+		vehicle.add(new SoffitField("Sold", "true"));
+		garage.add(vehicle);
+		root.add(garage);
+		
+		ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+		SoffitWriter writer = new SoffitWriter(streamed);
+		writer.field("Version", "1");
+		writer.beginObject("Garage", "Main \"Street\"");
+		writer.beginObject("Vehicle");
+		writer.field("Year", -1986L);
+		writer.field("Notes", "line\nbreak \\ slash");
+		writer.field("Price", 1.5);
+		writer.field("Sold", true);
+		writer.endObject();
+		writer.endObject();
+		writer.close();
+		
+		checkEquals(SoffitUtil.WriteStreamToString(root), streamed.toString(StandardCharsets.UTF_8));
+	}
+	
+	private static void unbalanced() throws IOException {
+		SoffitWriter writer = new SoffitWriter(new ByteArrayOutputStream());
+		checkThrows(SoffitException.class, writer::endObject);
+		
+		writer.beginObject("Vehicle", "V");
+		checkThrows(SoffitException.class, writer::close);
+		writer.endObject();
+		writer.close();
+	}
+}